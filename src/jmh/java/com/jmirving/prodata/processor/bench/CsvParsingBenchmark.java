@@ -0,0 +1,69 @@
+package com.jmirving.prodata.processor.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties.InputReader;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.model.RunDictionaries;
+import com.jmirving.prodata.processor.read.ProjectedRowReader;
+import com.jmirving.prodata.processor.read.RowReaderFactory;
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CsvParsingBenchmark {
+    private static final int GAMES = 2000;
+    private static final int ROWS = GAMES * 12;
+
+    @Param({"commons", "mapped", "chunked"})
+    public String reader;
+
+    private Path inputFile;
+    private RowReaderFactory readers;
+
+    @Setup
+    public void setUp() throws IOException {
+        inputFile = Files.createTempFile("prodata-bench-", ".csv");
+        Files.writeString(inputFile, OraclesElixirData.csv(GAMES, 7));
+        ProDataProcessorProperties properties = new ProDataProcessorProperties();
+        properties.setReader("commons".equals(reader) ? InputReader.COMMONS : InputReader.MAPPED);
+        if ("chunked".equals(reader)) {
+            properties.setChunkParallelism(Runtime.getRuntime().availableProcessors());
+            properties.setChunkBytes(1024 * 1024);
+        }
+        readers = new RowReaderFactory(properties, new CsvHeaderValidator(), new RunDictionaries());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        readers.close();
+        Files.deleteIfExists(inputFile);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void readProjectedRows(Blackhole blackhole) throws IOException {
+        try (ProjectedRowReader rowReader = readers.open(inputFile)) {
+            ProRow row = new ProRow(rowReader.plan().width());
+            while (rowReader.next(row)) {
+                blackhole.consume(row);
+            }
+        }
+    }
+}
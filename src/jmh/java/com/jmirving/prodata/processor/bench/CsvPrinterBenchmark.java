@@ -0,0 +1,78 @@
+package com.jmirving.prodata.processor.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.read.CommonsCsvRowReader;
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
+import com.jmirving.prodata.processor.validate.ProjectionPlan;
+import com.jmirving.prodata.processor.write.CsvPrinterRowWriter;
+import com.jmirving.prodata.processor.write.FastCsvRowWriter;
+import com.jmirving.prodata.processor.write.RowWriter;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CsvPrinterBenchmark {
+    private static final int GAMES = 100;
+    private static final int ROWS = GAMES * 12;
+
+    private final List<ProRow> rows = new ArrayList<>(ROWS);
+
+    @Param({"commons", "fast"})
+    public String writer;
+
+    @Setup
+    public void setUp() throws IOException {
+        ProjectionPlan plan = new CsvHeaderValidator().validate(OraclesElixirData.headerLine()).projection();
+        String csv = String.join("\n", OraclesElixirData.rows(GAMES, 11));
+        try (CSVParser parser = CSVParser.parse(csv, CSVFormat.DEFAULT)) {
+            for (CSVRecord record : parser) {
+                ProRow row = new ProRow(plan.width());
+                CommonsCsvRowReader.buildValues(record, plan, row.values());
+                row.parseFields(plan);
+                rows.add(row);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void printRecords() throws IOException {
+        try (RowWriter printer = newWriter()) {
+            for (ProRow row : rows) {
+                printer.write(row);
+            }
+        }
+    }
+
+    private RowWriter newWriter() throws IOException {
+        if (writer.equals("fast")) {
+            return new FastCsvRowWriter(
+                    Channels.newChannel(OutputStream.nullOutputStream()), ProDataColumns.OUTPUT_COLUMNS);
+        }
+        String[] header = ProDataColumns.OUTPUT_COLUMNS.toArray(new String[0]);
+        CSVFormat format = CSVFormat.DEFAULT.withHeader(header);
+        return new CsvPrinterRowWriter(new BufferedWriter(Writer.nullWriter()), format);
+    }
+}
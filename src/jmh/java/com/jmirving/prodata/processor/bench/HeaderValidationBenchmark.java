@@ -0,0 +1,32 @@
+package com.jmirving.prodata.processor.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator.HeaderIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HeaderValidationBenchmark {
+    private final CsvHeaderValidator validator = new CsvHeaderValidator();
+    private String headerLine;
+
+    @Setup
+    public void setUp() {
+        headerLine = OraclesElixirData.headerLine();
+    }
+
+    @Benchmark
+    public HeaderIndex validate() throws IOException {
+        return validator.validate(headerLine);
+    }
+}
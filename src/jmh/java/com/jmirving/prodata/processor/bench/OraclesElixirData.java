@@ -0,0 +1,148 @@
+package com.jmirving.prodata.processor.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+final class OraclesElixirData {
+    private static final String[] LEAGUES = {"LCK", "LPL", "LEC", "LTA N", "LCP", "CBLOL", "PCS", "VCS"};
+    private static final String[] POSITIONS = {"top", "jng", "mid", "bot", "sup"};
+    private static final String[] CHAMPIONS = {
+            "Aatrox", "Ahri", "Akali", "Alistar", "Ashe", "Aurora", "Azir", "Bard", "Braum", "Caitlyn",
+            "Camille", "Corki", "Ezreal", "Gnar", "Gragas", "Hwei", "Jax", "Jayce", "Jinx", "K'Sante",
+            "Kai'Sa", "Kalista", "Leona", "Lee Sin", "Lucian", "Maokai", "Nautilus", "Orianna", "Poppy", "Rakan",
+            "Renekton", "Rell", "Rumble", "Sejuani", "Skarner", "Syndra", "Taliyah", "Varus", "Vi", "Wukong",
+            "Xayah", "Xin Zhao", "Yone", "Zeri", "Ziggs", "Zyra", "Nocturne", "Pantheon", "Galio", "Ornn"
+    };
+    private static final String[] LEADING_COLUMNS = {
+            "gameid", "datacompleteness", "url", "league", "year", "split", "playoffs", "date", "game", "patch",
+            "participantid", "side", "position", "playername", "playerid", "teamname", "teamid", "champion",
+            "ban1", "ban2", "ban3", "ban4", "ban5", "pick1", "pick2", "pick3", "pick4", "pick5"
+    };
+    private static final String[] STAT_COLUMNS = {
+            "gamelength", "result", "kills", "deaths", "assists", "teamkills", "teamdeaths", "doublekills",
+            "triplekills", "quadrakills", "pentakills", "firstblood", "firstbloodkill", "firstbloodassist",
+            "firstbloodvictim", "team kpm", "ckpm", "firstdragon", "dragons", "opp_dragons", "elementaldrakes",
+            "opp_elementaldrakes", "infernals", "mountains", "clouds", "oceans", "chemtechs", "hextechs",
+            "dragons (type unknown)", "elders", "opp_elders", "firstherald", "heralds", "opp_heralds", "void_grubs",
+            "opp_void_grubs", "firstbaron", "barons", "opp_barons", "atakhans", "opp_atakhans", "firsttower",
+            "towers", "opp_towers", "firstmidtower", "firsttothreetowers", "turretplates", "opp_turretplates",
+            "inhibitors", "opp_inhibitors", "damagetochampions", "dpm", "damageshare", "damagetakenperminute",
+            "damagemitigatedperminute", "wardsplaced", "wpm", "wardskilled", "wcpm", "controlwardsbought",
+            "visionscore", "vspm", "totalgold", "earnedgold", "earned gpm", "earnedgoldshare", "goldspent", "gspd",
+            "gpr", "total cs", "minionkills", "monsterkills", "monsterkillsownjungle", "monsterkillsenemyjungle",
+            "cspm"
+    };
+    private static final String[] TIMED_COLUMNS = {
+            "goldat", "xpat", "csat", "opp_goldat", "opp_xpat", "opp_csat", "golddiffat", "xpdiffat", "csdiffat",
+            "killsat", "assistsat", "deathsat", "opp_killsat", "opp_assistsat", "opp_deathsat"
+    };
+    private static final int[] TIMESTAMPS = {10, 15, 20, 25};
+    private static final int ROWS_PER_GAME = 12;
+
+    private OraclesElixirData() {
+    }
+
+    static List<String> columns() {
+        List<String> columns = new ArrayList<>(List.of(LEADING_COLUMNS));
+        columns.addAll(List.of(STAT_COLUMNS));
+        for (int minute : TIMESTAMPS) {
+            for (String column : TIMED_COLUMNS) {
+                columns.add(column + minute);
+            }
+        }
+        return columns;
+    }
+
+    static String headerLine() {
+        return String.join(",", columns());
+    }
+
+    static String csv(int games, long seed) {
+        StringBuilder csv = new StringBuilder(games * ROWS_PER_GAME * 900);
+        csv.append(headerLine()).append('\n');
+        for (String row : rows(games, seed)) {
+            csv.append(row).append('\n');
+        }
+        return csv.toString();
+    }
+
+    static List<String> rows(int games, long seed) {
+        Random random = new Random(seed);
+        int statColumns = columns().size() - LEADING_COLUMNS.length;
+        List<String> rows = new ArrayList<>(games * ROWS_PER_GAME);
+        for (int game = 0; game < games; game++) {
+            String gameId = String.format(Locale.ROOT, "LOLTMNT01_%06d", 100000 + game);
+            String league = LEAGUES[random.nextInt(LEAGUES.length)];
+            String date = String.format(Locale.ROOT, "2025-%02d-%02d %02d:%02d:%02d",
+                    1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(24), random.nextInt(60),
+                    random.nextInt(60));
+            String patch = "15." + (1 + random.nextInt(24));
+            String[] bans = new String[10];
+            String[] picks = new String[10];
+            for (int i = 0; i < 10; i++) {
+                bans[i] = CHAMPIONS[random.nextInt(CHAMPIONS.length)];
+                picks[i] = CHAMPIONS[random.nextInt(CHAMPIONS.length)];
+            }
+            for (int participant = 1; participant <= 10; participant++) {
+                boolean blue = participant <= 5;
+                rows.add(row(random, gameId, league, date, patch, participant, blue,
+                        POSITIONS[(participant - 1) % 5], picks[participant - 1], bans, null, statColumns));
+            }
+            rows.add(row(random, gameId, league, date, patch, 100, true, "team", "", bans, picks, statColumns));
+            rows.add(row(random, gameId, league, date, patch, 200, false, "team", "", bans, picks, statColumns));
+        }
+        return rows;
+    }
+
+    private static String row(
+            Random random,
+            String gameId,
+            String league,
+            String date,
+            String patch,
+            int participant,
+            boolean blue,
+            String position,
+            String champion,
+            String[] bans,
+            String[] picks,
+            int statColumns
+    ) {
+        StringBuilder row = new StringBuilder(900);
+        int offset = blue ? 0 : 5;
+        row.append(gameId).append(",complete,")
+                .append("https://gol.gg/game/stats/").append(gameId).append('/').append(',')
+                .append(league).append(",2025,Split 1,0,")
+                .append(date).append(",1,").append(patch).append(',')
+                .append(participant).append(',').append(blue ? "Blue" : "Red").append(',')
+                .append(position).append(',')
+                .append(participant >= 100 ? "" : "Player " + participant).append(',')
+                .append(participant >= 100 ? "" : "oe:player:" + participant).append(',')
+                .append("\"Team ").append(blue ? "Blue" : "Red").append(", Esports\",")
+                .append("oe:team:").append(blue ? "1" : "2").append(',')
+                .append(champion);
+        for (int i = 0; i < 5; i++) {
+            row.append(',').append(bans[offset + i]);
+        }
+        for (int i = 0; i < 5; i++) {
+            row.append(',');
+            if (picks != null) {
+                row.append(picks[offset + i]);
+            }
+        }
+        for (int i = 0; i < statColumns; i++) {
+            row.append(',');
+            int kind = i % 4;
+            if (kind == 0) {
+                row.append(random.nextInt(20000));
+            } else if (kind == 1) {
+                row.append(random.nextDouble() * 1000);
+            } else if (kind == 2) {
+                row.append(random.nextInt(2));
+            }
+        }
+        return row.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package com.jmirving.prodata.processor.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.jmirving.prodata.processor.job.RowClassifier;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.read.CommonsCsvRowReader;
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
+import com.jmirving.prodata.processor.validate.ProjectionPlan;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RowPipelineBenchmark {
+    private static final int GAMES = 100;
+    private static final int ROWS = GAMES * 12;
+
+    private final List<CSVRecord> records = new ArrayList<>(ROWS);
+    private ProjectionPlan plan;
+    private ProRow row;
+
+    @Setup
+    public void setUp() throws IOException {
+        plan = new CsvHeaderValidator().validate(OraclesElixirData.headerLine()).projection();
+        row = new ProRow(plan.width());
+        String csv = String.join("\n", OraclesElixirData.rows(GAMES, 42));
+        try (CSVParser parser = CSVParser.parse(csv, CSVFormat.DEFAULT)) {
+            for (CSVRecord record : parser) {
+                records.add(record);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void projectAndClassify(Blackhole blackhole) {
+        for (CSVRecord record : records) {
+            CommonsCsvRowReader.buildValues(record, plan, row.values());
+            row.parseFields(plan);
+            int flags = RowClassifier.classifyRow(row);
+            boolean dropped = (flags & RowClassifier.TEAM_ROW) != 0 && RowClassifier.hasMissingPick(row, plan);
+            blackhole.consume(flags);
+            blackhole.consume(dropped);
+        }
+    }
+}
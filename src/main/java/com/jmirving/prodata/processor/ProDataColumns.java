@@ -1,5 +1,6 @@
 package com.jmirving.prodata.processor;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -32,10 +33,25 @@ public final class ProDataColumns {
     public static final Set<String> REQUIRED_COLUMNS = Set.copyOf(OUTPUT_COLUMNS);
     public static final List<String> PICK_COLUMNS = List.of("pick1", "pick2", "pick3", "pick4", "pick5");
     public static final Map<String, Integer> OUTPUT_INDEX = buildOutputIndex();
+    public static final List<String> GAME_COLUMNS = buildGameColumns();
 
     private ProDataColumns() {
     }
 
+    private static List<String> buildGameColumns() {
+        List<String> columns = new ArrayList<>(List.of("gameid", "league", "split", "year", "date", "game", "patch"));
+        for (String side : List.of("blue", "red")) {
+            columns.add(side + "_teamid");
+            for (int i = 1; i <= 5; i++) {
+                columns.add(side + "_ban" + i);
+            }
+            for (int i = 1; i <= 5; i++) {
+                columns.add(side + "_pick" + i);
+            }
+        }
+        return List.copyOf(columns);
+    }
+
     private static Map<String, Integer> buildOutputIndex() {
         Map<String, Integer> index = new LinkedHashMap<>();
         for (int i = 0; i < OUTPUT_COLUMNS.size(); i++) {
@@ -0,0 +1,228 @@
+package com.jmirving.prodata.processor.aggregate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.model.Dictionary;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.model.RunDictionaries;
+import com.jmirving.prodata.processor.model.RunDictionaries.Domain;
+import com.jmirving.prodata.processor.write.PartitionedRowWriter;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+// Champion pick/ban/presence counters per (patch, league, side), keyed by run dictionary ids so the row path
+// only touches primitive arrays. Instances are thread-confined; workers merge theirs once per file.
+public final class ChampionAggregates {
+    public static final List<String> COLUMNS =
+            List.of("patch", "league", "side", "champion", "games", "picks", "bans", "presence");
+
+    private static final int KEY_BITS = 21;
+    private static final long KEY_MASK = (1L << KEY_BITS) - 1;
+    private static final long OCCUPIED = Long.MIN_VALUE;
+    private static final int PICKS = 0;
+    private static final int BANS = 1;
+    private static final int PRESENCE = 2;
+    private static final int STRIDE = 3;
+
+    private final int patchSlot = ProDataColumns.OUTPUT_INDEX.get("patch");
+    private final int leagueSlot = ProDataColumns.OUTPUT_INDEX.get("league");
+    private final int sideSlot = ProDataColumns.OUTPUT_INDEX.get("side");
+    private final int[] banSlots = slots("ban");
+    private final int[] pickSlots = slots("pick");
+    private final int[] seen = new int[banSlots.length + pickSlots.length];
+    private long[] table = new long[64];
+    private int[] tableGroups = new int[64];
+    private long[] groupKeys = new long[16];
+    private long[] games = new long[16];
+    private long[][] counters = new long[16][];
+    private int groupCount;
+    private long lastKey;
+    private int lastGroup = -1;
+
+    public void accept(ProRow teamRow) {
+        int group = group(key(teamRow.id(patchSlot), teamRow.id(leagueSlot), teamRow.id(sideSlot)));
+        games[group]++;
+        int seenCount = 0;
+        for (int slot : banSlots) {
+            seenCount = count(group, teamRow.id(slot), BANS, seenCount);
+        }
+        for (int slot : pickSlots) {
+            seenCount = count(group, teamRow.id(slot), PICKS, seenCount);
+        }
+    }
+
+    public void merge(ChampionAggregates other) {
+        for (int source = 0; source < other.groupCount; source++) {
+            int target = group(other.groupKeys[source]);
+            games[target] += other.games[source];
+            long[] from = other.counters[source];
+            long[] to = counters(target, from.length);
+            for (int i = 0; i < from.length; i++) {
+                to[i] += from[i];
+            }
+        }
+    }
+
+    public void write(Path file, RunDictionaries dictionaries) throws IOException {
+        Dictionary patches = dictionaries.get(Domain.PATCH);
+        Dictionary leagues = dictionaries.get(Domain.LEAGUE);
+        Dictionary sides = dictionaries.get(Domain.SIDE);
+        Dictionary champions = dictionaries.get(Domain.CHAMPION);
+        List<Row> rows = new ArrayList<>();
+        for (int group = 0; group < groupCount; group++) {
+            long key = groupKeys[group];
+            String patch = decode(patches, key >>> (2 * KEY_BITS));
+            String league = decode(leagues, key >>> KEY_BITS);
+            String side = decode(sides, key);
+            long[] counts = counters[group];
+            for (int champion = 0; champion * STRIDE < counts.length; champion++) {
+                int base = champion * STRIDE;
+                if (counts[base + PRESENCE] == 0) {
+                    continue;
+                }
+                rows.add(new Row(
+                        patch,
+                        league,
+                        side,
+                        champions.value(champion),
+                        games[group],
+                        counts[base + PICKS],
+                        counts[base + BANS],
+                        counts[base + PRESENCE]
+                ));
+            }
+        }
+        rows.sort(Comparator.comparing(Row::patch, PartitionedRowWriter::comparePatch)
+                .thenComparing(Row::league)
+                .thenComparing(Row::side)
+                .thenComparing(Row::champion));
+        CSVFormat format = CSVFormat.DEFAULT.withHeader(COLUMNS.toArray(new String[0]));
+        try (BufferedWriter writer = Files.newBufferedWriter(file);
+             CSVPrinter printer = new CSVPrinter(writer, format)) {
+            for (Row row : rows) {
+                printer.printRecord(
+                        row.patch(),
+                        row.league(),
+                        row.side(),
+                        row.champion(),
+                        row.games(),
+                        row.picks(),
+                        row.bans(),
+                        row.presence()
+                );
+            }
+        }
+    }
+
+    private int count(int group, int champion, int counter, int seenCount) {
+        if (champion == ProRow.NO_ID) {
+            return seenCount;
+        }
+        long[] counts = counters(group, (champion + 1) * STRIDE);
+        counts[champion * STRIDE + counter]++;
+        for (int i = 0; i < seenCount; i++) {
+            if (seen[i] == champion) {
+                return seenCount;
+            }
+        }
+        counts[champion * STRIDE + PRESENCE]++;
+        seen[seenCount] = champion;
+        return seenCount + 1;
+    }
+
+    private long[] counters(int group, int length) {
+        long[] counts = counters[group];
+        if (counts.length < length) {
+            counts = Arrays.copyOf(counts, Math.max(length, counts.length * 2));
+            counters[group] = counts;
+        }
+        return counts;
+    }
+
+    private int group(long key) {
+        if (key == lastKey && lastGroup >= 0) {
+            return lastGroup;
+        }
+        int mask = table.length - 1;
+        int index = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+        while (table[index] != 0) {
+            if (table[index] == key) {
+                lastKey = key;
+                lastGroup = tableGroups[index];
+                return lastGroup;
+            }
+            index = (index + 1) & mask;
+        }
+        if (groupCount == groupKeys.length) {
+            groupKeys = Arrays.copyOf(groupKeys, groupCount * 2);
+            games = Arrays.copyOf(games, groupCount * 2);
+            counters = Arrays.copyOf(counters, groupCount * 2);
+        }
+        int group = groupCount++;
+        groupKeys[group] = key;
+        counters[group] = new long[0];
+        table[index] = key;
+        tableGroups[index] = group;
+        if (groupCount * 2 > table.length) {
+            rehash();
+        }
+        lastKey = key;
+        lastGroup = group;
+        return group;
+    }
+
+    private void rehash() {
+        table = new long[table.length * 2];
+        tableGroups = new int[table.length];
+        int mask = table.length - 1;
+        for (int group = 0; group < groupCount; group++) {
+            int index = Long.hashCode(groupKeys[group] * 0x9E3779B97F4A7C15L) & mask;
+            while (table[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            table[index] = groupKeys[group];
+            tableGroups[index] = group;
+        }
+    }
+
+    // Ids are stored off by one so NO_ID packs as zero; the high bit keeps every key distinct from an empty slot.
+    private static long key(int patch, int league, int side) {
+        return OCCUPIED
+                | ((patch + 1) & KEY_MASK) << (2 * KEY_BITS)
+                | ((league + 1) & KEY_MASK) << KEY_BITS
+                | ((side + 1) & KEY_MASK);
+    }
+
+    private static String decode(Dictionary dictionary, long packed) {
+        int id = (int) (packed & KEY_MASK) - 1;
+        return id == ProRow.NO_ID ? "" : dictionary.value(id);
+    }
+
+    private static int[] slots(String prefix) {
+        int[] slots = new int[5];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = ProDataColumns.OUTPUT_INDEX.get(prefix + (i + 1));
+        }
+        return slots;
+    }
+
+    private record Row(
+            String patch,
+            String league,
+            String side,
+            String champion,
+            long games,
+            long picks,
+            long bans,
+            long presence
+    ) {
+    }
+}
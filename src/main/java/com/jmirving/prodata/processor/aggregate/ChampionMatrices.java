@@ -0,0 +1,406 @@
+package com.jmirving.prodata.processor.aggregate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.model.RunDictionaries;
+import com.jmirving.prodata.processor.model.RunDictionaries.Domain;
+import com.jmirving.prodata.processor.model.Side;
+import com.jmirving.prodata.processor.write.PartitionedRowWriter;
+import com.jmirving.prodata.processor.write.RowWriter;
+
+// Per-patch champion matrices over the run's champion dictionary, stored row-major as ints:
+// synergy[a][b] counts sides that picked both a and b, counter[a][b] sides that picked a against a pick of b,
+// and banAgainst[a][b] sides that picked a while the opponent banned b.
+// Layout: magic, version, champion names, then per patch its name, game count and the three matrices.
+public final class ChampionMatrices {
+    static final int MAGIC = 0x50444D31;
+    static final short VERSION = 1;
+
+    private static final int LEAF_GAMES = 2048;
+    private static final int HALF_IDS = 10;
+
+    private final List<String> champions;
+    private final Map<String, PatchMatrices> patches;
+
+    private ChampionMatrices(List<String> champions, Map<String, PatchMatrices> patches) {
+        this.champions = champions;
+        this.patches = patches;
+    }
+
+    public static ChampionMatrices build(Drafts drafts, RunDictionaries dictionaries, ForkJoinPool pool) {
+        // Taken after every draft is in: replayed cached segments may add champions to the dictionary.
+        int championCount = dictionaries.get(Domain.CHAMPION).size();
+        List<String> patchNames = new ArrayList<>();
+        Map<String, DraftBits> byName = new HashMap<>();
+        for (Map.Entry<Integer, List<int[]>> entry : drafts.games.entrySet()) {
+            String name = entry.getKey() == ProRow.NO_ID ? "" : dictionaries.get(Domain.PATCH).value(entry.getKey());
+            DraftBits games = new DraftBits((championCount + 63) / 64);
+            for (int[] game : entry.getValue()) {
+                games.add(game);
+            }
+            patchNames.add(name);
+            byName.put(name, games);
+        }
+        patchNames.sort(PartitionedRowWriter::comparePatch);
+        Map<String, PatchMatrices> patches = new LinkedHashMap<>();
+        for (String name : patchNames) {
+            DraftBits games = byName.get(name);
+            patches.put(name, pool.invoke(new CountTask(games, championCount, 0, games.size)));
+        }
+        return new ChampionMatrices(dictionaries.get(Domain.CHAMPION).values(), patches);
+    }
+
+    public static ChampionMatrices read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a champion matrix file: " + file);
+            }
+            int version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported champion matrix version " + version + " in " + file);
+            }
+            int championCount = in.readInt();
+            List<String> champions = new ArrayList<>(championCount);
+            for (int i = 0; i < championCount; i++) {
+                champions.add(readString(in));
+            }
+            int patchCount = in.readInt();
+            Map<String, PatchMatrices> patches = new LinkedHashMap<>();
+            for (int i = 0; i < patchCount; i++) {
+                String patch = readString(in);
+                PatchMatrices matrices = new PatchMatrices(championCount);
+                matrices.games = in.readInt();
+                readMatrix(in, matrices.synergy);
+                readMatrix(in, matrices.counter);
+                readMatrix(in, matrices.banAgainst);
+                patches.put(patch, matrices);
+            }
+            return new ChampionMatrices(List.copyOf(champions), patches);
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(champions.size());
+            for (String champion : champions) {
+                writeString(out, champion);
+            }
+            out.writeInt(patches.size());
+            for (Map.Entry<String, PatchMatrices> entry : patches.entrySet()) {
+                PatchMatrices matrices = entry.getValue();
+                writeString(out, entry.getKey());
+                out.writeInt(matrices.games);
+                writeMatrix(out, matrices.synergy);
+                writeMatrix(out, matrices.counter);
+                writeMatrix(out, matrices.banAgainst);
+            }
+        }
+    }
+
+    public List<String> champions() {
+        return champions;
+    }
+
+    public List<String> patches() {
+        return List.copyOf(patches.keySet());
+    }
+
+    public int games(String patch) {
+        return patches.get(patch).games;
+    }
+
+    public int synergy(String patch, String champion, String with) {
+        return cell(patches.get(patch).synergy, champion, with);
+    }
+
+    public int counter(String patch, String champion, String against) {
+        return cell(patches.get(patch).counter, champion, against);
+    }
+
+    public int banAgainst(String patch, String champion, String banned) {
+        return cell(patches.get(patch).banAgainst, champion, banned);
+    }
+
+    private int cell(int[] matrix, String row, String column) {
+        int rowId = champions.indexOf(row);
+        int columnId = champions.indexOf(column);
+        if (rowId < 0 || columnId < 0) {
+            return 0;
+        }
+        return matrix[rowId * champions.size() + columnId];
+    }
+
+    private static int[] slots(String prefix) {
+        int[] slots = new int[5];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = ProDataColumns.OUTPUT_INDEX.get(prefix + (i + 1));
+        }
+        return slots;
+    }
+
+    // Team rows in output order, paired into games as they arrive. Teams output keeps a game's two rows adjacent, so
+    // halves wait in a map only until their partner arrives. Deferred drafts of a segment only keep its halves, and
+    // appending them pairs them in order, so halves of a game in two segments pair exactly as in one pass.
+    public static final class Drafts implements RowWriter {
+        private static final int GAME_SLOT = ProDataColumns.OUTPUT_INDEX.get("gameid");
+        private static final int PATCH_SLOT = ProDataColumns.OUTPUT_INDEX.get("patch");
+        private static final int SIDE_SLOT = ProDataColumns.OUTPUT_INDEX.get("side");
+        private static final int PARTICIPANT_SLOT = ProDataColumns.OUTPUT_INDEX.get("participantid");
+        private static final int[] PICK_SLOTS = slots("pick");
+        private static final int[] BAN_SLOTS = slots("ban");
+        private static final int SIDE = HALF_IDS;
+        private static final int PATCH = HALF_IDS + 1;
+
+        private final RunDictionaries dictionaries;
+        private final List<String> halfGames;
+        private final List<int[]> halves;
+        private final Map<String, int[]> pending = new HashMap<>();
+        private final Map<Integer, List<int[]>> games = new HashMap<>();
+
+        private Drafts(RunDictionaries dictionaries, boolean deferred) {
+            this.dictionaries = dictionaries;
+            this.halfGames = deferred ? new ArrayList<>() : null;
+            this.halves = deferred ? new ArrayList<>() : null;
+        }
+
+        public static Drafts paired(RunDictionaries dictionaries) {
+            return new Drafts(dictionaries, false);
+        }
+
+        public static Drafts deferred(RunDictionaries dictionaries) {
+            return new Drafts(dictionaries, true);
+        }
+
+        @Override
+        public void write(ProRow row) {
+            Side side = Side.parse(row.value(SIDE_SLOT));
+            if (side == Side.UNKNOWN) {
+                int participantId = ProRow.parseInt(row.value(PARTICIPANT_SLOT));
+                side = participantId == 100 ? Side.BLUE : participantId == 200 ? Side.RED : Side.UNKNOWN;
+            }
+            if (side == Side.UNKNOWN) {
+                return;
+            }
+            int[] half = new int[HALF_IDS + 2];
+            copyIds(row, PICK_SLOTS, half, 0);
+            copyIds(row, BAN_SLOTS, half, PICK_SLOTS.length);
+            half[SIDE] = side.ordinal();
+            half[PATCH] = id(row, PATCH_SLOT, Domain.PATCH);
+            if (halves != null) {
+                halfGames.add(row.value(GAME_SLOT));
+                halves.add(half);
+                return;
+            }
+            pair(row.value(GAME_SLOT), half);
+        }
+
+        public void append(Drafts segment) {
+            for (int i = 0; i < segment.halves.size(); i++) {
+                pair(segment.halfGames.get(i), segment.halves.get(i));
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void pair(String gameId, int[] half) {
+            int[] other = pending.remove(gameId);
+            if (other == null || other[SIDE] == half[SIDE]) {
+                pending.put(gameId, half);
+                return;
+            }
+            boolean blue = half[SIDE] == Side.BLUE.ordinal();
+            int[] game = new int[2 * HALF_IDS];
+            System.arraycopy(blue ? half : other, 0, game, 0, HALF_IDS);
+            System.arraycopy(blue ? other : half, 0, game, HALF_IDS, HALF_IDS);
+            games.computeIfAbsent(half[PATCH], ignored -> new ArrayList<>()).add(game);
+        }
+
+        private void copyIds(ProRow row, int[] slots, int[] ids, int offset) {
+            for (int i = 0; i < slots.length; i++) {
+                ids[offset + i] = id(row, slots[i], Domain.CHAMPION);
+            }
+        }
+
+        // Rows from the readers carry their ids; sorted and replayed rows only carry values.
+        private int id(ProRow row, int slot, Domain domain) {
+            int id = row.id(slot);
+            String value = row.value(slot);
+            if (id == ProRow.NO_ID && !value.isEmpty()) {
+                id = dictionaries.get(domain).idOf(value);
+            }
+            return id;
+        }
+    }
+
+    private static void writeMatrix(DataOutputStream out, int[] matrix) throws IOException {
+        for (int value : matrix) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void readMatrix(DataInputStream in, int[] matrix) throws IOException {
+        for (int i = 0; i < matrix.length; i++) {
+            matrix[i] = in.readInt();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // One game per stride: blue picks, blue bans, red picks, red bans, each a bitset over champion ids.
+    private static final class DraftBits {
+        private final int words;
+        private long[] bits = new long[0];
+        private int size;
+
+        DraftBits(int words) {
+            this.words = words;
+        }
+
+        // Game ids arrive as blue picks, blue bans, red picks, red bans; each group of five fills one bitset.
+        void add(int[] game) {
+            int stride = 4 * words;
+            if ((size + 1) * stride > bits.length) {
+                bits = Arrays.copyOf(bits, Math.max(stride, bits.length * 2));
+            }
+            int base = size * stride;
+            for (int i = 0; i < game.length; i++) {
+                int id = game[i];
+                if (id != ProRow.NO_ID) {
+                    bits[base + (i / 5) * words + (id >>> 6)] |= 1L << id;
+                }
+            }
+            size++;
+        }
+    }
+
+    private static final class PatchMatrices {
+        private final int[] synergy;
+        private final int[] counter;
+        private final int[] banAgainst;
+        private int games;
+
+        PatchMatrices(int championCount) {
+            this.synergy = new int[championCount * championCount];
+            this.counter = new int[championCount * championCount];
+            this.banAgainst = new int[championCount * championCount];
+        }
+
+        void merge(PatchMatrices other) {
+            games += other.games;
+            for (int i = 0; i < synergy.length; i++) {
+                synergy[i] += other.synergy[i];
+                counter[i] += other.counter[i];
+                banAgainst[i] += other.banAgainst[i];
+            }
+        }
+    }
+
+    private static final class CountTask extends RecursiveTask<PatchMatrices> {
+        private final DraftBits games;
+        private final int championCount;
+        private final int from;
+        private final int to;
+
+        CountTask(DraftBits games, int championCount, int from, int to) {
+            this.games = games;
+            this.championCount = championCount;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected PatchMatrices compute() {
+            if (to - from > LEAF_GAMES) {
+                int middle = (from + to) >>> 1;
+                CountTask right = new CountTask(games, championCount, middle, to);
+                right.fork();
+                PatchMatrices left = new CountTask(games, championCount, from, middle).compute();
+                left.merge(right.join());
+                return left;
+            }
+            PatchMatrices matrices = new PatchMatrices(championCount);
+            int words = games.words;
+            int[] picks = new int[championCount];
+            int[] opponentPicks = new int[championCount];
+            int[] opponentBans = new int[championCount];
+            for (int game = from; game < to; game++) {
+                int base = game * 4 * words;
+                count(matrices, base, base + 2 * words, picks, opponentPicks, opponentBans);
+                count(matrices, base + 2 * words, base, picks, opponentPicks, opponentBans);
+                matrices.games++;
+            }
+            return matrices;
+        }
+
+        private void count(
+                PatchMatrices matrices,
+                int side,
+                int opponent,
+                int[] picks,
+                int[] opponentPicks,
+                int[] opponentBans
+        ) {
+            int words = games.words;
+            int pickCount = ids(games.bits, side, words, picks);
+            int opponentPickCount = ids(games.bits, opponent, words, opponentPicks);
+            int opponentBanCount = ids(games.bits, opponent + words, words, opponentBans);
+            for (int i = 0; i < pickCount; i++) {
+                int row = picks[i] * championCount;
+                for (int j = 0; j < pickCount; j++) {
+                    if (i != j) {
+                        matrices.synergy[row + picks[j]]++;
+                    }
+                }
+                for (int j = 0; j < opponentPickCount; j++) {
+                    matrices.counter[row + opponentPicks[j]]++;
+                }
+                for (int j = 0; j < opponentBanCount; j++) {
+                    matrices.banAgainst[row + opponentBans[j]]++;
+                }
+            }
+        }
+
+        private static int ids(long[] bits, int offset, int words, int[] ids) {
+            int count = 0;
+            for (int word = 0; word < words; word++) {
+                long value = bits[offset + word];
+                while (value != 0) {
+                    ids[count++] = (word << 6) + Long.numberOfTrailingZeros(value);
+                    value &= value - 1;
+                }
+            }
+            return count;
+        }
+    }
+}
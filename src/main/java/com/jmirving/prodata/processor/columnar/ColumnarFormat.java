@@ -0,0 +1,62 @@
+package com.jmirving.prodata.processor.columnar;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+// Layout: header (magic, version, row group size, schema), row groups of column chunks, footer
+// (row group offsets and per-column dictionaries), then the footer offset and the magic again.
+// Version 2 lets groups be shorter than the row group size where segments were appended; the footer's per-group
+// row counts locate rows. A chunk is its encoding, bit width and int base followed by the packed codes.
+final class ColumnarFormat {
+    static final int MAGIC = 0x50444331;
+    static final short VERSION = 2;
+    static final short FIXED_GROUPS_VERSION = 1;
+    static final int DEFAULT_ROW_GROUP_SIZE = 1 << 16;
+    static final int TRAILER_BYTES = Long.BYTES + Integer.BYTES;
+    static final int CHUNK_HEADER_BYTES = 2 + Integer.BYTES;
+
+    static final byte TYPE_STRING = 0;
+    static final byte TYPE_INT = 1;
+
+    static final byte ENCODING_DICTIONARY = 0;
+    static final byte ENCODING_INT = 1;
+
+    private static final Set<String> INT_COLUMNS = Set.of("year", "game", "participantid");
+
+    private ColumnarFormat() {
+    }
+
+    static byte typeOf(String column) {
+        return INT_COLUMNS.contains(column) ? TYPE_INT : TYPE_STRING;
+    }
+
+    static int bitWidth(long maxCode) {
+        return 64 - Long.numberOfLeadingZeros(maxCode);
+    }
+
+    static int wordCount(int rows, int bitWidth) {
+        return (int) (((long) rows * bitWidth + 63) >>> 6);
+    }
+
+    static int chunkBytes(int rows, int bitWidth) {
+        return CHUNK_HEADER_BYTES + wordCount(rows, bitWidth) * Long.BYTES;
+    }
+
+    // Code number index of a chunk starting at the given buffer position.
+    static long code(ByteBuffer buffer, int chunk, long index) {
+        int bitWidth = buffer.get(chunk + 1);
+        if (bitWidth == 0) {
+            return 0;
+        }
+        int data = chunk + CHUNK_HEADER_BYTES;
+        long bit = index * bitWidth;
+        int word = (int) (bit >>> 6);
+        int shift = (int) (bit & 63);
+        long mask = bitWidth == 64 ? -1L : (1L << bitWidth) - 1;
+        long code = buffer.getLong(data + word * Long.BYTES) >>> shift;
+        if (shift + bitWidth > 64) {
+            code |= buffer.getLong(data + (word + 1) * Long.BYTES) << (64 - shift);
+        }
+        return code & mask;
+    }
+}
@@ -0,0 +1,193 @@
+package com.jmirving.prodata.processor.columnar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jmirving.prodata.processor.model.ProRow;
+
+public final class ColumnarReader implements Closeable {
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int version;
+    private final List<String> columns = new ArrayList<>();
+    private final List<Byte> types = new ArrayList<>();
+    private final long rowCount;
+    private final long[][] chunkOffsets;
+    private final long[] groupStarts;
+    private final String[][] dictionaries;
+
+    private ColumnarReader(Path file, FileChannel channel) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Columnar file exceeds 2 GB: " + file);
+        }
+        if (size < ColumnarFormat.TRAILER_BYTES + Integer.BYTES) {
+            throw new IOException("Not a columnar file: " + file);
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (buffer.getInt(0) != ColumnarFormat.MAGIC
+                || buffer.getInt((int) size - Integer.BYTES) != ColumnarFormat.MAGIC) {
+            throw new IOException("Not a columnar file: " + file);
+        }
+        this.version = buffer.getShort(4);
+        if (version != ColumnarFormat.VERSION && version != ColumnarFormat.FIXED_GROUPS_VERSION) {
+            throw new IOException("Unsupported columnar version " + version + " in " + file);
+        }
+        // The row group size at offset 6 is only the writer's target; rows are located by the footer's group sizes.
+        int position = 10;
+        int columnCount = buffer.getShort(position);
+        position += 2;
+        for (int column = 0; column < columnCount; column++) {
+            int length = buffer.getInt(position);
+            columns.add(readString(position));
+            types.add(buffer.get(position + Integer.BYTES + length));
+            position += Integer.BYTES + length + 1;
+        }
+
+        position = (int) buffer.getLong((int) size - ColumnarFormat.TRAILER_BYTES);
+        this.rowCount = buffer.getLong(position);
+        int groupCount = buffer.getInt(position + Long.BYTES);
+        position += Long.BYTES + Integer.BYTES;
+        this.chunkOffsets = new long[groupCount][columnCount];
+        this.groupStarts = new long[groupCount + 1];
+        for (int group = 0; group < groupCount; group++) {
+            groupStarts[group + 1] = groupStarts[group] + buffer.getInt(position);
+            position += Integer.BYTES;
+            for (int column = 0; column < columnCount; column++) {
+                chunkOffsets[group][column] = buffer.getLong(position);
+                position += Long.BYTES;
+            }
+        }
+        this.dictionaries = new String[columnCount][];
+        for (int column = 0; column < columnCount; column++) {
+            String[] dictionary = new String[buffer.getInt(position)];
+            position += Integer.BYTES;
+            for (int id = 0; id < dictionary.length; id++) {
+                int length = buffer.getInt(position);
+                dictionary[id] = readString(position);
+                position += Integer.BYTES + length;
+            }
+            dictionaries[column] = dictionary;
+        }
+    }
+
+    public static ColumnarReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new ColumnarReader(file, channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int version() {
+        return version;
+    }
+
+    public List<String> columns() {
+        return List.copyOf(columns);
+    }
+
+    public long rowCount() {
+        return rowCount;
+    }
+
+    public Column column(String name) {
+        int column = columns.indexOf(name);
+        if (column < 0) {
+            throw new IllegalArgumentException("Column " + name + " not present in " + file);
+        }
+        return new Column(column);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    int groupCount() {
+        return chunkOffsets.length;
+    }
+
+    int groupRows(int group) {
+        return (int) (groupStarts[group + 1] - groupStarts[group]);
+    }
+
+    // A read-only view of one column chunk, from its encoding byte to its last packed word.
+    ByteBuffer chunk(int group, int column) {
+        int offset = (int) chunkOffsets[group][column];
+        int bytes = ColumnarFormat.chunkBytes(groupRows(group), buffer.get(offset + 1));
+        return buffer.slice(offset, bytes).asReadOnlyBuffer();
+    }
+
+    String[] dictionary(int column) {
+        return dictionaries[column];
+    }
+
+    private String readString(int position) {
+        byte[] bytes = new byte[buffer.getInt(position)];
+        buffer.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public final class Column {
+        private final int column;
+
+        private Column(int column) {
+            this.column = column;
+        }
+
+        public String name() {
+            return columns.get(column);
+        }
+
+        public boolean isInt() {
+            return types.get(column) == ColumnarFormat.TYPE_INT;
+        }
+
+        public List<String> dictionary() {
+            return Arrays.asList(dictionaries[column]);
+        }
+
+        public String value(long row) {
+            int group = group(row);
+            int chunk = (int) chunkOffsets[group][column];
+            long code = ColumnarFormat.code(buffer, chunk, row - groupStarts[group]);
+            if (buffer.get(chunk) == ColumnarFormat.ENCODING_DICTIONARY) {
+                return dictionaries[column][(int) code];
+            }
+            return code == 0 ? "" : Integer.toString((int) (buffer.getInt(chunk + 2) + code - 1));
+        }
+
+        public int intValue(long row) {
+            int group = group(row);
+            int chunk = (int) chunkOffsets[group][column];
+            long code = ColumnarFormat.code(buffer, chunk, row - groupStarts[group]);
+            if (buffer.get(chunk) == ColumnarFormat.ENCODING_DICTIONARY) {
+                return ProRow.parseInt(dictionaries[column][(int) code]);
+            }
+            return code == 0 ? ProRow.MISSING : (int) (buffer.getInt(chunk + 2) + code - 1);
+        }
+
+        private int group(long row) {
+            if (row < 0 || row >= rowCount) {
+                throw new IndexOutOfBoundsException("Row " + row + " out of range 0.." + rowCount);
+            }
+            int group = Arrays.binarySearch(groupStarts, row);
+            return group >= 0 ? group : -group - 2;
+        }
+    }
+}
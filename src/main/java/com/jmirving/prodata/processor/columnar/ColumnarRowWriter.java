@@ -0,0 +1,270 @@
+package com.jmirving.prodata.processor.columnar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.write.RowWriter;
+
+public final class ColumnarRowWriter implements RowWriter {
+    private final FileChannel channel;
+    private final List<String> columns;
+    private final byte[] types;
+    private final int rowGroupSize;
+    private final String[][] group;
+    private final List<Map<String, Integer>> dictionaryIds = new ArrayList<>();
+    private final List<List<String>> dictionaries = new ArrayList<>();
+    private final List<long[]> groupOffsets = new ArrayList<>();
+    private final List<Integer> groupRows = new ArrayList<>();
+    private int groupSize;
+    private long rowCount;
+
+    public ColumnarRowWriter(Path file, List<String> columns) throws IOException {
+        this(file, columns, ColumnarFormat.DEFAULT_ROW_GROUP_SIZE);
+    }
+
+    ColumnarRowWriter(Path file, List<String> columns, int rowGroupSize) throws IOException {
+        this.columns = List.copyOf(columns);
+        this.types = new byte[columns.size()];
+        this.rowGroupSize = rowGroupSize;
+        this.group = new String[columns.size()][rowGroupSize];
+        for (int column = 0; column < types.length; column++) {
+            types[column] = ColumnarFormat.typeOf(columns.get(column));
+            dictionaryIds.add(new HashMap<>());
+            dictionaries.add(new ArrayList<>());
+        }
+        this.channel = FileChannel.open(
+                file, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            writeHeader();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(ProRow row) throws IOException {
+        String[] values = row.values();
+        if (values.length != group.length) {
+            throw new IllegalArgumentException(
+                    "Row has " + values.length + " values but the schema has " + group.length + " columns");
+        }
+        for (int column = 0; column < values.length; column++) {
+            group[column][groupSize] = values[column];
+        }
+        groupSize++;
+        rowCount++;
+        if (groupSize == rowGroupSize) {
+            flushGroup();
+        }
+    }
+
+    // Appends the row groups of a segment written with the same columns after the rows written so far. Int chunks
+    // are copied as they are and dictionary chunks are re-coded from the segment's dictionaries to this file's, so
+    // no value is parsed again. The current partial group is closed first, so groups end at segment boundaries.
+    public void append(Path segment) throws IOException {
+        try (ColumnarReader reader = ColumnarReader.open(segment)) {
+            if (!reader.columns().equals(columns)) {
+                throw new IllegalArgumentException(
+                        "Segment columns " + reader.columns() + " do not match " + columns + ": " + segment);
+            }
+            if (groupSize > 0) {
+                flushGroup();
+            }
+            int[][] ids = new int[columns.size()][];
+            for (int column = 0; column < ids.length; column++) {
+                ids[column] = dictionaryIds(column, reader.dictionary(column));
+            }
+            for (int group = 0; group < reader.groupCount(); group++) {
+                int rows = reader.groupRows(group);
+                long[] offsets = new long[columns.size()];
+                for (int column = 0; column < offsets.length; column++) {
+                    offsets[column] = channel.position();
+                    ByteBuffer chunk = reader.chunk(group, column);
+                    if (chunk.get(0) == ColumnarFormat.ENCODING_DICTIONARY) {
+                        chunk = recode(chunk, rows, ids[column], dictionaries.get(column).size());
+                    }
+                    writeFully(chunk);
+                }
+                groupOffsets.add(offsets);
+                groupRows.add(rows);
+            }
+            rowCount += reader.rowCount();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            if (groupSize > 0) {
+                flushGroup();
+            }
+            long footerOffset = channel.position();
+            writeFully(ByteBuffer.wrap(footer()));
+            ByteBuffer trailer = ByteBuffer.allocate(ColumnarFormat.TRAILER_BYTES);
+            trailer.putLong(footerOffset).putInt(ColumnarFormat.MAGIC).flip();
+            writeFully(trailer);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(ColumnarFormat.MAGIC);
+        out.writeShort(ColumnarFormat.VERSION);
+        out.writeInt(rowGroupSize);
+        out.writeShort(columns.size());
+        for (int column = 0; column < types.length; column++) {
+            writeString(out, columns.get(column));
+            out.writeByte(types[column]);
+        }
+        out.flush();
+        writeFully(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    private void flushGroup() throws IOException {
+        long[] offsets = new long[group.length];
+        for (int column = 0; column < group.length; column++) {
+            offsets[column] = channel.position();
+            writeFully(encodeChunk(column));
+            Arrays.fill(group[column], 0, groupSize, null);
+        }
+        groupOffsets.add(offsets);
+        groupRows.add(groupSize);
+        groupSize = 0;
+    }
+
+    private ByteBuffer encodeChunk(int column) {
+        String[] values = group[column];
+        long[] codes = new long[groupSize];
+        if (types[column] == ColumnarFormat.TYPE_INT) {
+            ByteBuffer chunk = encodeIntChunk(values, codes);
+            if (chunk != null) {
+                return chunk;
+            }
+        }
+        int[] ids = dictionaryIds(column, Arrays.copyOf(values, groupSize));
+        for (int row = 0; row < groupSize; row++) {
+            codes[row] = ids[row];
+        }
+        return pack(ColumnarFormat.ENCODING_DICTIONARY, 0, codes, Math.max(0, dictionaries.get(column).size() - 1));
+    }
+
+    private int[] dictionaryIds(int column, String[] values) {
+        Map<String, Integer> ids = dictionaryIds.get(column);
+        List<String> dictionary = dictionaries.get(column);
+        int[] mapped = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            Integer id = ids.get(values[i]);
+            if (id == null) {
+                id = dictionary.size();
+                ids.put(values[i], id);
+                dictionary.add(values[i]);
+            }
+            mapped[i] = id;
+        }
+        return mapped;
+    }
+
+    private ByteBuffer recode(ByteBuffer chunk, int rows, int[] ids, int dictionarySize) {
+        long[] codes = new long[rows];
+        for (int row = 0; row < rows; row++) {
+            codes[row] = ids[(int) ColumnarFormat.code(chunk, 0, row)];
+        }
+        return pack(ColumnarFormat.ENCODING_DICTIONARY, 0, codes, Math.max(0, dictionarySize - 1));
+    }
+
+    // Frame-of-reference with code 0 reserved for empty values; null when the chunk is not canonical ints.
+    private ByteBuffer encodeIntChunk(String[] values, long[] codes) {
+        int[] parsed = new int[groupSize];
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int row = 0; row < groupSize; row++) {
+            String value = values[row];
+            if (value.isEmpty()) {
+                parsed[row] = ProRow.MISSING;
+                continue;
+            }
+            int parsedValue = ProRow.parseInt(value);
+            if (parsedValue == ProRow.MISSING || !Integer.toString(parsedValue).equals(value)) {
+                return null;
+            }
+            parsed[row] = parsedValue;
+            min = Math.min(min, parsedValue);
+            max = Math.max(max, parsedValue);
+        }
+        if (min == Long.MAX_VALUE) {
+            min = 0;
+            max = -1;
+        }
+        for (int row = 0; row < groupSize; row++) {
+            codes[row] = parsed[row] == ProRow.MISSING ? 0 : parsed[row] - min + 1;
+        }
+        return pack(ColumnarFormat.ENCODING_INT, (int) min, codes, max - min + 1);
+    }
+
+    private ByteBuffer pack(byte encoding, int base, long[] codes, long maxCode) {
+        int bitWidth = ColumnarFormat.bitWidth(maxCode);
+        int words = ColumnarFormat.wordCount(codes.length, bitWidth);
+        ByteBuffer chunk = ByteBuffer.allocate(ColumnarFormat.CHUNK_HEADER_BYTES + words * Long.BYTES);
+        chunk.put(encoding).put((byte) bitWidth).putInt(base);
+        long[] packed = new long[words];
+        for (int row = 0; row < codes.length && bitWidth > 0; row++) {
+            long bit = (long) row * bitWidth;
+            int word = (int) (bit >>> 6);
+            int shift = (int) (bit & 63);
+            packed[word] |= codes[row] << shift;
+            if (shift + bitWidth > 64) {
+                packed[word + 1] |= codes[row] >>> (64 - shift);
+            }
+        }
+        chunk.asLongBuffer().put(packed);
+        chunk.position(chunk.capacity());
+        return chunk.flip();
+    }
+
+    private byte[] footer() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(rowCount);
+        out.writeInt(groupOffsets.size());
+        for (int i = 0; i < groupOffsets.size(); i++) {
+            out.writeInt(groupRows.get(i));
+            for (long offset : groupOffsets.get(i)) {
+                out.writeLong(offset);
+            }
+        }
+        for (List<String> dictionary : dictionaries) {
+            out.writeInt(dictionary.size());
+            for (String value : dictionary) {
+                writeString(out, value);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
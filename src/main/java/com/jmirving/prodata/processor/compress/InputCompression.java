@@ -0,0 +1,69 @@
+package com.jmirving.prodata.processor.compress;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+
+public enum InputCompression {
+    NONE(".csv"),
+    GZIP(".csv.gz"),
+    ZSTD(".csv.zst");
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final String suffix;
+
+    InputCompression(String suffix) {
+        this.suffix = suffix;
+    }
+
+    public String suffix() {
+        return suffix;
+    }
+
+    public static InputCompression of(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(GZIP.suffix)) {
+            return GZIP;
+        }
+        if (name.endsWith(ZSTD.suffix)) {
+            return ZSTD;
+        }
+        return NONE;
+    }
+
+    public static BufferedReader newReader(Path file, boolean readAhead) throws IOException {
+        InputCompression compression = of(file);
+        if (compression == NONE) {
+            return Files.newBufferedReader(file);
+        }
+        InputStream in = compression.open(file);
+        if (readAhead) {
+            in = new ReadAheadInputStream(in, file.getFileName().toString());
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder()));
+    }
+
+    InputStream open(Path file) throws IOException {
+        InputStream raw = new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES);
+        try {
+            return switch (this) {
+                case NONE -> raw;
+                case GZIP -> new GZIPInputStream(raw, BUFFER_BYTES);
+                case ZSTD -> new ZstdInputStream(raw);
+            };
+        } catch (IOException | RuntimeException e) {
+            raw.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.jmirving.prodata.processor.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Decompresses on its own thread so inflating the next chunks overlaps with parsing the current one.
+final class ReadAheadInputStream extends InputStream {
+    static final int CHUNK_BYTES = 1 << 20;
+    static final int CHUNKS_AHEAD = 4;
+
+    private final InputStream source;
+    private final BlockingQueue<Chunk> filled = new ArrayBlockingQueue<>(CHUNKS_AHEAD + 1);
+    private final BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(CHUNKS_AHEAD + 1);
+    private final Thread thread;
+    private final byte[] single = new byte[1];
+    private Chunk current;
+    private int offset;
+    private boolean finished;
+    private volatile boolean closed;
+
+    ReadAheadInputStream(InputStream source, String name) {
+        this.source = source;
+        for (int i = 0; i < CHUNKS_AHEAD; i++) {
+            free.add(new Chunk(new byte[CHUNK_BYTES]));
+        }
+        this.thread = new Thread(this::fill, "prodata-read-ahead-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public int read() throws IOException {
+        int read = read(single, 0, 1);
+        return read < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        int count = Math.min(len, current.length - offset);
+        System.arraycopy(current.data, offset, buffer, off, count);
+        offset += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        thread.interrupt();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        source.close();
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (finished) {
+            return false;
+        }
+        if (current != null && offset < current.length) {
+            return true;
+        }
+        if (current != null) {
+            free.add(current);
+            current = null;
+        }
+        Chunk chunk;
+        try {
+            chunk = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading ahead", e);
+        }
+        if (chunk.failure != null) {
+            finished = true;
+            throw new IOException("Read-ahead failed: " + chunk.failure.getMessage(), chunk.failure);
+        }
+        if (chunk.length < 0) {
+            finished = true;
+            return false;
+        }
+        current = chunk;
+        offset = 0;
+        return true;
+    }
+
+    private void fill() {
+        try {
+            while (!closed) {
+                Chunk chunk = free.take();
+                chunk.length = readFully(chunk.data);
+                if (chunk.length == 0) {
+                    filled.put(Chunk.endOfStream());
+                    return;
+                }
+                filled.put(chunk);
+            }
+        } catch (InterruptedException e) {
+            // Closed by the reader.
+        } catch (IOException | RuntimeException e) {
+            if (!closed) {
+                filled.offer(Chunk.failed(e));
+            }
+        }
+    }
+
+    private int readFully(byte[] data) throws IOException {
+        int total = 0;
+        while (total < data.length) {
+            int read = source.read(data, total, data.length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static final class Chunk {
+        private final byte[] data;
+        private int length;
+        private Exception failure;
+
+        Chunk(byte[] data) {
+            this.data = data;
+        }
+
+        static Chunk endOfStream() {
+            Chunk chunk = new Chunk(new byte[0]);
+            chunk.length = -1;
+            return chunk;
+        }
+
+        static Chunk failed(Exception failure) {
+            Chunk chunk = new Chunk(new byte[0]);
+            chunk.failure = failure;
+            return chunk;
+        }
+    }
+}
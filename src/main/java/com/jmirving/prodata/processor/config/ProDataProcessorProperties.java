@@ -10,6 +10,45 @@ public class ProDataProcessorProperties {
     private String inputDir = "build/prodata";
     private String outputDir = "build/prodata-processed";
     private List<Integer> years = new ArrayList<>();
+    private int parallelism = 1;
+    private long maxInFlightBytes = 256L * 1024 * 1024;
+    private InputReader reader = InputReader.COMMONS;
+    private int chunkParallelism = 1;
+    private long chunkBytes = 16L * 1024 * 1024;
+    private boolean incremental;
+    private boolean writeDictionaries;
+    private boolean columnar;
+    private boolean asyncWriters;
+    private int writerBatchRows = 1024;
+    private int writerQueueBatches = 8;
+    private CsvWriter csvWriter = CsvWriter.COMMONS;
+    private OutputCompression outputCompression = OutputCompression.NONE;
+    private int compressionBlockRows = 10_000;
+    private int compressionParallelism = Runtime.getRuntime().availableProcessors();
+    private OutputLayout outputLayout = OutputLayout.MONOLITHIC;
+    private long partitionMaxRows = 1_000_000;
+    private boolean games;
+    private int draftPendingGames = 64;
+    private boolean aggregates;
+    private boolean matrices;
+    private int matrixParallelism = Runtime.getRuntime().availableProcessors();
+    private List<String> includeLeagues = new ArrayList<>();
+    private List<String> excludeLeagues = new ArrayList<>();
+    private String minDate;
+    private String maxDate;
+    private String minPatch;
+    private String maxPatch;
+    private List<Profile> profiles = new ArrayList<>();
+    private boolean runReport = true;
+    private int metricsSampleRows = 64;
+    private int jfrBatchRows = 65_536;
+    private boolean delta;
+    private boolean dedup;
+    private boolean sortedOutput;
+    private long sortMemoryBytes = 256L * 1024 * 1024;
+    private String sortSpillDir;
+    private boolean sparseIndex;
+    private int indexIntervalRows = 4096;
 
     public String getInputDir() {
         return inputDir;
@@ -34,4 +73,428 @@ public class ProDataProcessorProperties {
     public void setYears(List<Integer> years) {
         this.years = years;
     }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+
+    public void setMaxInFlightBytes(long maxInFlightBytes) {
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+
+    public InputReader getReader() {
+        return reader;
+    }
+
+    public void setReader(InputReader reader) {
+        this.reader = reader;
+    }
+
+    public int getChunkParallelism() {
+        return chunkParallelism;
+    }
+
+    public void setChunkParallelism(int chunkParallelism) {
+        this.chunkParallelism = chunkParallelism;
+    }
+
+    public long getChunkBytes() {
+        return chunkBytes;
+    }
+
+    public void setChunkBytes(long chunkBytes) {
+        this.chunkBytes = chunkBytes;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public boolean isWriteDictionaries() {
+        return writeDictionaries;
+    }
+
+    public void setWriteDictionaries(boolean writeDictionaries) {
+        this.writeDictionaries = writeDictionaries;
+    }
+
+    public boolean isColumnar() {
+        return columnar;
+    }
+
+    public void setColumnar(boolean columnar) {
+        this.columnar = columnar;
+    }
+
+    public boolean isAsyncWriters() {
+        return asyncWriters;
+    }
+
+    public void setAsyncWriters(boolean asyncWriters) {
+        this.asyncWriters = asyncWriters;
+    }
+
+    public int getWriterBatchRows() {
+        return writerBatchRows;
+    }
+
+    public void setWriterBatchRows(int writerBatchRows) {
+        this.writerBatchRows = writerBatchRows;
+    }
+
+    public int getWriterQueueBatches() {
+        return writerQueueBatches;
+    }
+
+    public void setWriterQueueBatches(int writerQueueBatches) {
+        this.writerQueueBatches = writerQueueBatches;
+    }
+
+    public CsvWriter getCsvWriter() {
+        return csvWriter;
+    }
+
+    public void setCsvWriter(CsvWriter csvWriter) {
+        this.csvWriter = csvWriter;
+    }
+
+    public OutputCompression getOutputCompression() {
+        return outputCompression;
+    }
+
+    public void setOutputCompression(OutputCompression outputCompression) {
+        this.outputCompression = outputCompression;
+    }
+
+    public int getCompressionBlockRows() {
+        return compressionBlockRows;
+    }
+
+    public void setCompressionBlockRows(int compressionBlockRows) {
+        this.compressionBlockRows = compressionBlockRows;
+    }
+
+    public int getCompressionParallelism() {
+        return compressionParallelism;
+    }
+
+    public void setCompressionParallelism(int compressionParallelism) {
+        this.compressionParallelism = compressionParallelism;
+    }
+
+    public OutputLayout getOutputLayout() {
+        return outputLayout;
+    }
+
+    public void setOutputLayout(OutputLayout outputLayout) {
+        this.outputLayout = outputLayout;
+    }
+
+    public long getPartitionMaxRows() {
+        return partitionMaxRows;
+    }
+
+    public void setPartitionMaxRows(long partitionMaxRows) {
+        this.partitionMaxRows = partitionMaxRows;
+    }
+
+    public boolean isGames() {
+        return games;
+    }
+
+    public void setGames(boolean games) {
+        this.games = games;
+    }
+
+    public int getDraftPendingGames() {
+        return draftPendingGames;
+    }
+
+    public void setDraftPendingGames(int draftPendingGames) {
+        this.draftPendingGames = draftPendingGames;
+    }
+
+    public boolean isAggregates() {
+        return aggregates;
+    }
+
+    public void setAggregates(boolean aggregates) {
+        this.aggregates = aggregates;
+    }
+
+    public boolean isMatrices() {
+        return matrices;
+    }
+
+    public void setMatrices(boolean matrices) {
+        this.matrices = matrices;
+    }
+
+    public int getMatrixParallelism() {
+        return matrixParallelism;
+    }
+
+    public void setMatrixParallelism(int matrixParallelism) {
+        this.matrixParallelism = matrixParallelism;
+    }
+
+    public List<String> getIncludeLeagues() {
+        return includeLeagues;
+    }
+
+    public void setIncludeLeagues(List<String> includeLeagues) {
+        this.includeLeagues = includeLeagues;
+    }
+
+    public List<String> getExcludeLeagues() {
+        return excludeLeagues;
+    }
+
+    public void setExcludeLeagues(List<String> excludeLeagues) {
+        this.excludeLeagues = excludeLeagues;
+    }
+
+    public String getMinDate() {
+        return minDate;
+    }
+
+    public void setMinDate(String minDate) {
+        this.minDate = minDate;
+    }
+
+    public String getMaxDate() {
+        return maxDate;
+    }
+
+    public void setMaxDate(String maxDate) {
+        this.maxDate = maxDate;
+    }
+
+    public String getMinPatch() {
+        return minPatch;
+    }
+
+    public void setMinPatch(String minPatch) {
+        this.minPatch = minPatch;
+    }
+
+    public String getMaxPatch() {
+        return maxPatch;
+    }
+
+    public void setMaxPatch(String maxPatch) {
+        this.maxPatch = maxPatch;
+    }
+
+    public List<Profile> getProfiles() {
+        return profiles;
+    }
+
+    public void setProfiles(List<Profile> profiles) {
+        this.profiles = profiles;
+    }
+
+    public boolean isRunReport() {
+        return runReport;
+    }
+
+    public void setRunReport(boolean runReport) {
+        this.runReport = runReport;
+    }
+
+    public int getMetricsSampleRows() {
+        return metricsSampleRows;
+    }
+
+    public void setMetricsSampleRows(int metricsSampleRows) {
+        this.metricsSampleRows = metricsSampleRows;
+    }
+
+    public int getJfrBatchRows() {
+        return jfrBatchRows;
+    }
+
+    public void setJfrBatchRows(int jfrBatchRows) {
+        this.jfrBatchRows = jfrBatchRows;
+    }
+
+    public boolean isDelta() {
+        return delta;
+    }
+
+    public void setDelta(boolean delta) {
+        this.delta = delta;
+    }
+
+    public boolean isDedup() {
+        return dedup;
+    }
+
+    public void setDedup(boolean dedup) {
+        this.dedup = dedup;
+    }
+
+    public boolean isSortedOutput() {
+        return sortedOutput;
+    }
+
+    public void setSortedOutput(boolean sortedOutput) {
+        this.sortedOutput = sortedOutput;
+    }
+
+    public long getSortMemoryBytes() {
+        return sortMemoryBytes;
+    }
+
+    public void setSortMemoryBytes(long sortMemoryBytes) {
+        this.sortMemoryBytes = sortMemoryBytes;
+    }
+
+    public String getSortSpillDir() {
+        return sortSpillDir;
+    }
+
+    public void setSortSpillDir(String sortSpillDir) {
+        this.sortSpillDir = sortSpillDir;
+    }
+
+    public boolean isSparseIndex() {
+        return sparseIndex;
+    }
+
+    public void setSparseIndex(boolean sparseIndex) {
+        this.sparseIndex = sparseIndex;
+    }
+
+    public int getIndexIntervalRows() {
+        return indexIntervalRows;
+    }
+
+    public void setIndexIntervalRows(int indexIntervalRows) {
+        this.indexIntervalRows = indexIntervalRows;
+    }
+
+    // Rejects option combinations the job cannot honour; called once before a run touches any file.
+    public void validate() {
+        boolean partitioned = outputLayout == OutputLayout.PARTITIONED;
+        if (writeDictionaries && incremental) {
+            throw new IllegalStateException("write-dictionaries requires every file to be parsed; disable incremental");
+        }
+        if (partitioned && (incremental || columnar || outputCompression != OutputCompression.NONE)) {
+            throw new IllegalStateException(
+                    "output-layout=partitioned cannot be combined with incremental, columnar or output-compression");
+        }
+        if (games && (incremental || partitioned)) {
+            throw new IllegalStateException("games cannot be combined with incremental or output-layout=partitioned");
+        }
+        if (matrices && partitioned) {
+            throw new IllegalStateException("matrices reads the monolithic teams output; use output-layout=monolithic");
+        }
+        if (dedup && (incremental || partitioned)) {
+            throw new IllegalStateException("dedup cannot be combined with incremental or output-layout=partitioned");
+        }
+        if (sortedOutput && partitioned) {
+            throw new IllegalStateException("sorted-output sorts the monolithic outputs; use output-layout=monolithic");
+        }
+        if (sparseIndex && (partitioned || outputCompression != OutputCompression.NONE)) {
+            throw new IllegalStateException(
+                    "sparse-index addresses plain monolithic CSVs; disable output-compression and partitioning");
+        }
+        if (delta && partitioned) {
+            throw new IllegalStateException("delta reads the monolithic all output; use output-layout=monolithic");
+        }
+        if (aggregates && incremental) {
+            throw new IllegalStateException("aggregates requires every file to be parsed; disable incremental");
+        }
+        if (profiles != null && !profiles.isEmpty() && (incremental || partitioned)) {
+            throw new IllegalStateException(
+                    "profiles cannot be combined with incremental or output-layout=partitioned");
+        }
+    }
+
+    public static class Profile {
+        private String name;
+        private List<String> columns = new ArrayList<>();
+        private String outputDir;
+        private ProfileRows rows = ProfileRows.ALL;
+        private boolean dropIncompleteTeamRows = true;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getColumns() {
+            return columns;
+        }
+
+        public void setColumns(List<String> columns) {
+            this.columns = columns;
+        }
+
+        public String getOutputDir() {
+            return outputDir;
+        }
+
+        public void setOutputDir(String outputDir) {
+            this.outputDir = outputDir;
+        }
+
+        public ProfileRows getRows() {
+            return rows;
+        }
+
+        public void setRows(ProfileRows rows) {
+            this.rows = rows;
+        }
+
+        public boolean isDropIncompleteTeamRows() {
+            return dropIncompleteTeamRows;
+        }
+
+        public void setDropIncompleteTeamRows(boolean dropIncompleteTeamRows) {
+            this.dropIncompleteTeamRows = dropIncompleteTeamRows;
+        }
+    }
+
+    public enum InputReader {
+        COMMONS,
+        MAPPED
+    }
+
+    public enum CsvWriter {
+        COMMONS,
+        FAST
+    }
+
+    public enum OutputCompression {
+        NONE,
+        GZIP_BLOCKS
+    }
+
+    public enum OutputLayout {
+        MONOLITHIC,
+        PARTITIONED
+    }
+
+    public enum ProfileRows {
+        ALL,
+        PLAYERS,
+        TEAMS
+    }
 }
@@ -0,0 +1,198 @@
+package com.jmirving.prodata.processor.dedup;
+
+import java.util.Arrays;
+
+// Exact set of (gameid, participantid) keys with no per-key objects. Keys are appended to one byte arena as
+// [gameid length (2 bytes)][gameid UTF-8][participantid (4 bytes)]; an open-addressing long[] table holds the
+// upper 32 bits of each key's hash next to its arena offset, so most probes resolve without touching the arena.
+// Not thread-safe: each worker fills its own set and the merge thread folds them together in file order.
+public final class RowKeySet {
+    private static final int MAX_GAME_ID_BYTES = 0xFFFF;
+    private static final long EMPTY = 0L;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private byte[] arena;
+    private int arenaSize;
+    private byte[] scratch = new byte[64];
+
+    public RowKeySet() {
+        this(1 << 12);
+    }
+
+    RowKeySet(int initialCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(16, initialCapacity - 1) << 1);
+        table = new long[capacity];
+        mask = capacity - 1;
+        arena = new byte[capacity * 16];
+    }
+
+    // Returns false when the key was already present.
+    public boolean add(String gameId, int participantId) {
+        int length = encode(gameId);
+        return insert(scratch, 0, length, participantId, hash(scratch, 0, length, participantId));
+    }
+
+    public boolean containsAny(RowKeySet other) {
+        for (int offset = 0; offset < other.arenaSize; offset = other.next(offset)) {
+            int length = other.gameIdLength(offset);
+            int participantId = other.participantId(offset, length);
+            long hash = hash(other.arena, offset + 2, length, participantId);
+            if (find(other.arena, offset + 2, length, participantId, hash) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void addAll(RowKeySet other) {
+        for (int offset = 0; offset < other.arenaSize; offset = other.next(offset)) {
+            int length = other.gameIdLength(offset);
+            int participantId = other.participantId(offset, length);
+            long hash = hash(other.arena, offset + 2, length, participantId);
+            insert(other.arena, offset + 2, length, participantId, hash);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long memoryBytes() {
+        return (long) table.length * Long.BYTES + arena.length + scratch.length;
+    }
+
+    private boolean insert(byte[] source, int from, int length, int participantId, long hash) {
+        if (find(source, from, length, participantId, hash) >= 0) {
+            return false;
+        }
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length << 1);
+        }
+        int offset = append(source, from, length, participantId);
+        int slot = (int) hash & mask;
+        while (table[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry(hash, offset);
+        size++;
+        return true;
+    }
+
+    private int find(byte[] source, int from, int length, int participantId, long hash) {
+        int tag = (int) (hash >>> 32);
+        int slot = (int) hash & mask;
+        long entry;
+        while ((entry = table[slot]) != EMPTY) {
+            if ((int) (entry >>> 32) == tag) {
+                int offset = (int) entry - 1;
+                if (gameIdLength(offset) == length
+                        && participantId(offset, length) == participantId
+                        && Arrays.equals(arena, offset + 2, offset + 2 + length, source, from, from + length)) {
+                    return slot;
+                }
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        table = new long[capacity];
+        mask = capacity - 1;
+        for (long entry : old) {
+            if (entry == EMPTY) {
+                continue;
+            }
+            int offset = (int) entry - 1;
+            int length = gameIdLength(offset);
+            int slot = (int) hash(arena, offset + 2, length, participantId(offset, length)) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = entry;
+        }
+    }
+
+    private int append(byte[] source, int from, int length, int participantId) {
+        int needed = 2 + length + Integer.BYTES;
+        if (arena.length - arenaSize < needed) {
+            long grown = Math.max((long) arena.length * 2, (long) arenaSize + needed);
+            if (grown > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Dedup key arena exceeds 2 GB");
+            }
+            arena = Arrays.copyOf(arena, (int) grown);
+        }
+        int offset = arenaSize;
+        arena[offset] = (byte) (length >>> 8);
+        arena[offset + 1] = (byte) length;
+        System.arraycopy(source, from, arena, offset + 2, length);
+        int pid = offset + 2 + length;
+        arena[pid] = (byte) (participantId >>> 24);
+        arena[pid + 1] = (byte) (participantId >>> 16);
+        arena[pid + 2] = (byte) (participantId >>> 8);
+        arena[pid + 3] = (byte) participantId;
+        arenaSize = pid + Integer.BYTES;
+        return offset;
+    }
+
+    private int next(int offset) {
+        return offset + 2 + gameIdLength(offset) + Integer.BYTES;
+    }
+
+    private int gameIdLength(int offset) {
+        return (arena[offset] & 0xFF) << 8 | arena[offset + 1] & 0xFF;
+    }
+
+    private int participantId(int offset, int length) {
+        int pid = offset + 2 + length;
+        return (arena[pid] & 0xFF) << 24
+                | (arena[pid + 1] & 0xFF) << 16
+                | (arena[pid + 2] & 0xFF) << 8
+                | arena[pid + 3] & 0xFF;
+    }
+
+    // Surrogate pairs are encoded one char at a time; the bytes only need to be consistent, not valid UTF-8.
+    private int encode(String gameId) {
+        int chars = gameId.length();
+        if (scratch.length < chars * 3) {
+            scratch = new byte[chars * 3];
+        }
+        int length = 0;
+        for (int i = 0; i < chars; i++) {
+            char c = gameId.charAt(i);
+            if (c < 0x80) {
+                scratch[length++] = (byte) c;
+            } else if (c < 0x800) {
+                scratch[length++] = (byte) (0xC0 | c >>> 6);
+                scratch[length++] = (byte) (0x80 | c & 0x3F);
+            } else {
+                scratch[length++] = (byte) (0xE0 | c >>> 12);
+                scratch[length++] = (byte) (0x80 | c >>> 6 & 0x3F);
+                scratch[length++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        if (length > MAX_GAME_ID_BYTES) {
+            throw new IllegalStateException("gameid longer than " + MAX_GAME_ID_BYTES + " bytes: " + length);
+        }
+        return length;
+    }
+
+    private static long entry(long hash, int offset) {
+        return (hash & 0xFFFF_FFFF_0000_0000L) | (offset + 1L);
+    }
+
+    private static long hash(byte[] bytes, int from, int length, int participantId) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = from; i < from + length; i++) {
+            hash = (hash ^ (bytes[i] & 0xFF)) * 0x100000001B3L;
+        }
+        hash = (hash ^ participantId) * 0x100000001B3L;
+        // FNV leaves the low bits weakly mixed; fold the high half in before masking to a slot.
+        hash ^= hash >>> 29;
+        hash *= 0xBF58476D1CE4E5B9L;
+        return hash ^ hash >>> 32;
+    }
+}
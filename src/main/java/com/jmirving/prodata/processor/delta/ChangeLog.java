@@ -0,0 +1,103 @@
+package com.jmirving.prodata.processor.delta;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.index.CsvRecordCursor;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+// Changelog rows keyed by an op column: one "removed" row per vanished gameid (other columns blank), then every
+// current row of added and changed games. A loader deletes each removed or changed gameid and inserts the rest.
+// Only the runs of added and changed games are read back from the all output, in output order.
+public final class ChangeLog {
+    public static final String ADDED = "added";
+    public static final String CHANGED = "changed";
+    public static final String REMOVED = "removed";
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private ChangeLog() {
+    }
+
+    public static List<String> columns() {
+        List<String> columns = new ArrayList<>();
+        columns.add("op");
+        columns.addAll(ProDataColumns.OUTPUT_COLUMNS);
+        return columns;
+    }
+
+    public static void write(
+            Path allCsv,
+            GameHashIndex current,
+            GameHashIndex.Changes changes,
+            Path target
+    ) throws IOException {
+        int gameSlot = ProDataColumns.OUTPUT_INDEX.get("gameid");
+        CSVFormat format = CSVFormat.DEFAULT.withHeader(columns().toArray(new String[0]));
+        try (BufferedWriter writer = Files.newBufferedWriter(target);
+             CSVPrinter printer = new CSVPrinter(writer, format)) {
+            Object[] record = new Object[ProDataColumns.OUTPUT_COLUMNS.size() + 1];
+            for (String gameId : changes.removed()) {
+                record[0] = REMOVED;
+                for (int i = 1; i < record.length; i++) {
+                    record[i] = "";
+                }
+                record[gameSlot + 1] = gameId;
+                printer.printRecord(record);
+            }
+            if (changes.added().isEmpty() && changes.changed().isEmpty()) {
+                return;
+            }
+            long[] runs = ranges(current, changes);
+            try (FileChannel channel = FileChannel.open(allCsv, StandardOpenOption.READ)) {
+                List<String> fields = new ArrayList<>();
+                for (int run = 0; run < runs.length; run += 2) {
+                    CsvRecordCursor cursor = new CsvRecordCursor(channel, runs[run], READ_BUFFER_BYTES);
+                    while (cursor.next(fields) && cursor.recordStart() < runs[run + 1]) {
+                        record[0] = changes.added().contains(fields.get(gameSlot)) ? ADDED : CHANGED;
+                        for (int i = 0; i < fields.size(); i++) {
+                            record[i + 1] = fields.get(i);
+                        }
+                        printer.printRecord(record);
+                    }
+                }
+            }
+        }
+    }
+
+    // The runs of added and changed games sorted by offset, with adjacent runs joined into one read.
+    private static long[] ranges(GameHashIndex current, GameHashIndex.Changes changes) {
+        List<long[]> runs = new ArrayList<>();
+        for (Set<String> games : List.of(changes.added(), changes.changed())) {
+            for (String gameId : games) {
+                long[] offsets = current.runs(gameId);
+                for (int i = 0; i < offsets.length; i += 2) {
+                    runs.add(new long[] {offsets[i], offsets[i + 1]});
+                }
+            }
+        }
+        runs.sort(Comparator.comparingLong(run -> run[0]));
+        long[] ranges = new long[runs.size() * 2];
+        int size = 0;
+        for (long[] run : runs) {
+            if (size > 0 && ranges[size - 1] == run[0]) {
+                ranges[size - 1] = run[1];
+            } else {
+                ranges[size++] = run[0];
+                ranges[size++] = run[1];
+            }
+        }
+        return Arrays.copyOf(ranges, size);
+    }
+}
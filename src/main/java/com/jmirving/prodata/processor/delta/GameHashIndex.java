@@ -0,0 +1,232 @@
+package com.jmirving.prodata.processor.delta;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.index.CsvRecordCursor;
+import com.jmirving.prodata.processor.model.ProRow;
+
+// A 64-bit FNV-1a content hash per gameid over that game's output rows, in output order. An index built from
+// written rows also knows the byte runs each game occupies in the all output, which the changelog reads back.
+// Layout: magic, version, entry count, then per gameid (sorted) its UTF string and hash.
+public final class GameHashIndex {
+    static final int MAGIC = 0x50444831;
+    static final short VERSION = 1;
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final int FIELD_SEPARATOR = 0x1F;
+    private static final int ROW_SEPARATOR = 0x1E;
+    private static final int SCAN_BUFFER_BYTES = 1 << 20;
+
+    private final Map<String, Long> hashes;
+    private final Map<String, Runs> runs;
+
+    private GameHashIndex(Map<String, Long> hashes, Map<String, Runs> runs) {
+        this.hashes = hashes;
+        this.runs = runs;
+    }
+
+    public static GameHashIndex empty() {
+        return new GameHashIndex(new HashMap<>(), Map.of());
+    }
+
+    public static GameHashIndex read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a game hash index: " + file);
+            }
+            int version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported game hash index version " + version + " in " + file);
+            }
+            int count = in.readInt();
+            Map<String, Long> hashes = new HashMap<>(Math.max(16, count * 2));
+            for (int i = 0; i < count; i++) {
+                hashes.put(in.readUTF(), in.readLong());
+            }
+            return new GameHashIndex(hashes, Map.of());
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(hashes.size());
+            for (Map.Entry<String, Long> entry : new TreeMap<>(hashes).entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+        }
+    }
+
+    public int size() {
+        return hashes.size();
+    }
+
+    // Start and end offsets of each run of the game's rows, in output order; empty for an index read from a file.
+    long[] runs(String gameId) {
+        Runs game = runs.get(gameId);
+        return game == null ? new long[0] : Arrays.copyOf(game.offsets, game.size);
+    }
+
+    public Changes diff(GameHashIndex previous) {
+        Set<String> added = new LinkedHashSet<>();
+        Set<String> changed = new LinkedHashSet<>();
+        for (Map.Entry<String, Long> entry : new TreeMap<>(hashes).entrySet()) {
+            Long before = previous.hashes.get(entry.getKey());
+            if (before == null) {
+                added.add(entry.getKey());
+            } else if (before.longValue() != entry.getValue()) {
+                changed.add(entry.getKey());
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String gameId : new TreeMap<>(previous.hashes).keySet()) {
+            if (!hashes.containsKey(gameId)) {
+                removed.add(gameId);
+            }
+        }
+        return new Changes(added, changed, removed);
+    }
+
+    // Continues the game's running hash with the next row, so both row content and row order count.
+    private static long append(long gameHash, long rowHash) {
+        return (gameHash ^ rowHash) * FNV_PRIME;
+    }
+
+    static long hash(long seed, String[] values) {
+        long hash = seed;
+        for (String value : values) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+                hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+            }
+            hash = (hash ^ FIELD_SEPARATOR) * FNV_PRIME;
+        }
+        return (hash ^ ROW_SEPARATOR) * FNV_PRIME;
+    }
+
+    private static final class Runs {
+        private long[] offsets = new long[2];
+        private int size;
+
+        void add(long start, long end) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            offsets[size++] = start;
+            offsets[size++] = end;
+        }
+    }
+
+    // Folds rows into game hashes as they are written, given each row's byte offset, and records where each run of
+    // a gameid starts and ends. A deferred builder only keeps its rows' hashes and offsets: segments are written
+    // apart but a game's hash depends on every row before it, so the merge appends them to the file's builder in
+    // file order at the segment's offset, which gives the same index as one builder over the whole file.
+    public static final class Builder {
+        private final int gameSlot = ProDataColumns.OUTPUT_INDEX.get("gameid");
+        private final boolean deferred;
+        private final Map<String, Long> hashes = new HashMap<>();
+        private final Map<String, Runs> runs = new HashMap<>();
+        private final List<String> rowGames = new ArrayList<>();
+        private long[] rowHashes = new long[0];
+        private long[] rowOffsets = new long[0];
+        private String runGame;
+        private long runStart;
+
+        private Builder(boolean deferred) {
+            this.deferred = deferred;
+        }
+
+        public static Builder folding() {
+            return new Builder(false);
+        }
+
+        public static Builder deferred() {
+            return new Builder(true);
+        }
+
+        public void add(ProRow row, long offset) {
+            add(row.value(gameSlot), hash(FNV_OFFSET, row.values()), offset);
+        }
+
+        // Adds header-less CSV rows, with offsets from the start of the file.
+        public void scan(Path csv) throws IOException {
+            try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+                CsvRecordCursor cursor = new CsvRecordCursor(channel, 0, SCAN_BUFFER_BYTES);
+                List<String> fields = new ArrayList<>();
+                while (cursor.next(fields)) {
+                    add(fields.get(gameSlot), hash(FNV_OFFSET, fields.toArray(new String[0])), cursor.recordStart());
+                }
+            }
+        }
+
+        public void append(Builder segment, long base) {
+            for (int i = 0; i < segment.rowGames.size(); i++) {
+                add(segment.rowGames.get(i), segment.rowHashes[i], base + segment.rowOffsets[i]);
+            }
+        }
+
+        // The rows end at the given offset, which closes the last run.
+        public GameHashIndex build(long end) {
+            if (deferred) {
+                throw new IllegalStateException("A deferred builder is appended, not built");
+            }
+            if (runGame != null) {
+                runs.computeIfAbsent(runGame, game -> new Runs()).add(runStart, end);
+            }
+            return new GameHashIndex(hashes, runs);
+        }
+
+        private void add(String gameId, long rowHash, long offset) {
+            boolean newRun = !gameId.equals(runGame);
+            if (deferred) {
+                int row = rowGames.size();
+                if (row == rowHashes.length) {
+                    rowHashes = Arrays.copyOf(rowHashes, Math.max(16, row * 2));
+                    rowOffsets = Arrays.copyOf(rowOffsets, rowHashes.length);
+                }
+                rowGames.add(newRun ? gameId : runGame);
+                rowHashes[row] = rowHash;
+                rowOffsets[row] = offset;
+            } else {
+                hashes.merge(gameId, rowHash, GameHashIndex::append);
+                if (newRun && runGame != null) {
+                    runs.computeIfAbsent(runGame, game -> new Runs()).add(runStart, offset);
+                }
+            }
+            if (newRun) {
+                runGame = gameId;
+                runStart = offset;
+            }
+        }
+    }
+
+    public record Changes(Set<String> added, Set<String> changed, List<String> removed) {
+        public boolean isEmpty() {
+            return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+        }
+    }
+}
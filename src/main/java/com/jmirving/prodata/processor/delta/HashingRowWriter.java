@@ -0,0 +1,34 @@
+package com.jmirving.prodata.processor.delta;
+
+import java.io.IOException;
+
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.write.PositionedRowWriter;
+
+// Folds each row into a game hash builder at its byte offset before the row is written, so the delta never needs
+// a scan of the finished all output.
+public final class HashingRowWriter implements PositionedRowWriter {
+    private final PositionedRowWriter target;
+    private final GameHashIndex.Builder hashes;
+
+    public HashingRowWriter(PositionedRowWriter target, GameHashIndex.Builder hashes) {
+        this.target = target;
+        this.hashes = hashes;
+    }
+
+    @Override
+    public void write(ProRow row) throws IOException {
+        hashes.add(row, target.position());
+        target.write(row);
+    }
+
+    @Override
+    public long position() {
+        return target.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        target.close();
+    }
+}
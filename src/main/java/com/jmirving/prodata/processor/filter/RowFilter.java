@@ -0,0 +1,156 @@
+package com.jmirving.prodata.processor.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties;
+import com.jmirving.prodata.processor.write.PartitionedRowWriter;
+
+// League, date and patch predicates checked by the readers before the rest of a record is projected.
+// Date bounds are inclusive prefixes ("2025-01" keeps all of January); patch bounds are inclusive.
+public final class RowFilter {
+    private final int leagueSlot = ProDataColumns.OUTPUT_INDEX.get("league");
+    private final int dateSlot = ProDataColumns.OUTPUT_INDEX.get("date");
+    private final int patchSlot = ProDataColumns.OUTPUT_INDEX.get("patch");
+    private final Set<String> includeLeagues;
+    private final Set<String> excludeLeagues;
+    private final byte[] minDate;
+    private final byte[] maxDate;
+    private final String minPatch;
+    private final String maxPatch;
+    private final int[] slots;
+    private final Map<String, Boolean> patchDecisions = new ConcurrentHashMap<>();
+
+    private RowFilter(
+            Set<String> includeLeagues,
+            Set<String> excludeLeagues,
+            String minDate,
+            String maxDate,
+            String minPatch,
+            String maxPatch
+    ) {
+        this.includeLeagues = includeLeagues;
+        this.excludeLeagues = excludeLeagues;
+        this.minDate = minDate == null ? null : minDate.getBytes(StandardCharsets.UTF_8);
+        this.maxDate = maxDate == null ? null : maxDate.getBytes(StandardCharsets.UTF_8);
+        this.minPatch = minPatch;
+        this.maxPatch = maxPatch;
+        IntStream.Builder slots = IntStream.builder();
+        if (!includeLeagues.isEmpty() || !excludeLeagues.isEmpty()) {
+            slots.add(leagueSlot);
+        }
+        if (minDate != null || maxDate != null) {
+            slots.add(dateSlot);
+        }
+        if (minPatch != null || maxPatch != null) {
+            slots.add(patchSlot);
+        }
+        this.slots = slots.build().sorted().toArray();
+    }
+
+    public static RowFilter from(ProDataProcessorProperties properties) {
+        return new RowFilter(
+                leagues(properties.getIncludeLeagues()),
+                leagues(properties.getExcludeLeagues()),
+                bound(properties.getMinDate()),
+                bound(properties.getMaxDate()),
+                bound(properties.getMinPatch()),
+                bound(properties.getMaxPatch())
+        );
+    }
+
+    public boolean isActive() {
+        return slots.length > 0;
+    }
+
+    public int[] slots() {
+        return slots.clone();
+    }
+
+    public boolean isDateSlot(int slot) {
+        return slot == dateSlot && (minDate != null || maxDate != null);
+    }
+
+    public boolean accepts(String[] values) {
+        for (int slot : slots) {
+            if (!accepts(slot, values[slot])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean accepts(int slot, String value) {
+        if (slot == leagueSlot) {
+            return (includeLeagues.isEmpty() || includeLeagues.contains(value)) && !excludeLeagues.contains(value);
+        }
+        if (slot == dateSlot) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            return acceptsDate(bytes, 0, bytes.length);
+        }
+        if (slot == patchSlot) {
+            return patchDecisions.computeIfAbsent(value, this::acceptsPatch);
+        }
+        return true;
+    }
+
+    public boolean acceptsDate(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return minDate == null && maxDate == null;
+        }
+        return (minDate == null || comparePrefix(bytes, offset, length, minDate) >= 0)
+                && (maxDate == null || comparePrefix(bytes, offset, length, maxDate) <= 0);
+    }
+
+    // Folded into the incremental cache key so segments built under other filters are not reused.
+    public String settings() {
+        return String.join(";",
+                String.join("|", includeLeagues),
+                String.join("|", excludeLeagues),
+                minDate == null ? "" : new String(minDate, StandardCharsets.UTF_8),
+                maxDate == null ? "" : new String(maxDate, StandardCharsets.UTF_8),
+                minPatch == null ? "" : minPatch,
+                maxPatch == null ? "" : maxPatch
+        );
+    }
+
+    private boolean acceptsPatch(String patch) {
+        if (patch.isEmpty()) {
+            return false;
+        }
+        return (minPatch == null || PartitionedRowWriter.comparePatch(patch, minPatch) >= 0)
+                && (maxPatch == null || PartitionedRowWriter.comparePatch(patch, maxPatch) <= 0);
+    }
+
+    private static int comparePrefix(byte[] bytes, int offset, int length, byte[] bound) {
+        int compared = length < bound.length ? length : bound.length;
+        for (int i = 0; i < compared; i++) {
+            int difference = (bytes[offset + i] & 0xFF) - (bound[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length < bound.length ? -1 : 0;
+    }
+
+    private static Set<String> leagues(List<String> leagues) {
+        if (leagues == null) {
+            return Set.of();
+        }
+        return leagues.stream()
+                .filter(league -> league != null && !league.isBlank())
+                .map(String::trim)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static String bound(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,148 @@
+package com.jmirving.prodata.processor.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+// Walks CSV records from any byte position using FileChannel positional reads, so several cursors can share one
+// channel. Each call to next() reports the byte offset where the returned record starts.
+public final class CsvRecordCursor {
+    private static final byte COMMA = ',';
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private final FileChannel channel;
+    private final long size;
+    private ByteBuffer buffer;
+    private long bufferStart;
+    private long position;
+    private long recordStart = -1;
+    private byte[] field = new byte[256];
+
+    public CsvRecordCursor(FileChannel channel, long position, int bufferBytes) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.buffer = ByteBuffer.allocate(Math.max(1024, bufferBytes));
+        this.position = position;
+        this.bufferStart = position;
+        buffer.limit(0);
+    }
+
+    public long recordStart() {
+        return recordStart;
+    }
+
+    public boolean next(List<String> fields) throws IOException {
+        while (true) {
+            fields.clear();
+            int end = parse(fields);
+            if (end >= 0) {
+                position = bufferStart + end;
+                return true;
+            }
+            if (position >= size) {
+                return false;
+            }
+            refill();
+        }
+    }
+
+    // Returns the buffer index after the record, or -1 when the buffered bytes end before the record does.
+    private int parse(List<String> fields) throws IOException {
+        int limit = buffer.limit();
+        boolean atEof = bufferStart + limit >= size;
+        int i = (int) (position - bufferStart);
+        while (i < limit && (buffer.get(i) == CR || buffer.get(i) == LF)) {
+            i++;
+        }
+        if (i >= limit) {
+            if (atEof) {
+                position = size;
+            }
+            return -1;
+        }
+        recordStart = bufferStart + i;
+        while (true) {
+            int length = 0;
+            if (buffer.get(i) == QUOTE) {
+                int j = i + 1;
+                while (true) {
+                    if (j >= limit) {
+                        if (atEof) {
+                            throw new IOException("EOF reached before encapsulated token finished at byte "
+                                    + recordStart);
+                        }
+                        return -1;
+                    }
+                    byte b = buffer.get(j);
+                    if (b == QUOTE) {
+                        if (j + 1 >= limit && !atEof) {
+                            return -1;
+                        }
+                        if (j + 1 < limit && buffer.get(j + 1) == QUOTE) {
+                            length = append(length, QUOTE);
+                            j += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    length = append(length, b);
+                    j++;
+                }
+                i = j + 1;
+            } else {
+                while (i < limit) {
+                    byte b = buffer.get(i);
+                    if (b == COMMA || b == CR || b == LF) {
+                        break;
+                    }
+                    length = append(length, b);
+                    i++;
+                }
+            }
+            fields.add(new String(field, 0, length, StandardCharsets.UTF_8));
+            if (i >= limit) {
+                return atEof ? i : -1;
+            }
+            if (buffer.get(i) == COMMA) {
+                i++;
+                if (i >= limit) {
+                    if (!atEof) {
+                        return -1;
+                    }
+                    fields.add("");
+                    return i;
+                }
+                continue;
+            }
+            return i + 1;
+        }
+    }
+
+    private int append(int length, byte b) {
+        if (length == field.length) {
+            field = Arrays.copyOf(field, length * 2);
+        }
+        field[length] = b;
+        return length + 1;
+    }
+
+    // Re-reads from the end of the last record; a record longer than the buffer doubles it.
+    private void refill() throws IOException {
+        if (position == bufferStart && buffer.limit() == buffer.capacity()) {
+            buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+        }
+        bufferStart = position;
+        buffer.clear();
+        while (buffer.hasRemaining() && bufferStart + buffer.position() < size) {
+            if (channel.read(buffer, bufferStart + buffer.position()) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,113 @@
+package com.jmirving.prodata.processor.index;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Point and date-range lookups into a published CSV through its .idx sidecar. Only the runs named by the index
+// are read, with positional reads on one shared channel, so a lookup costs a few small reads rather than a scan.
+// Date bounds are inclusive prefixes, as in the row filter ("2025-01" matches all of January).
+public final class IndexedCsvReader implements Closeable {
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final SparseRowIndex index;
+    private final List<String> header;
+
+    private IndexedCsvReader(FileChannel channel, SparseRowIndex index, List<String> header) {
+        this.channel = channel;
+        this.index = index;
+        this.header = header;
+    }
+
+    public static IndexedCsvReader open(Path csv) throws IOException {
+        SparseRowIndex index = SparseRowIndex.read(SparseRowIndex.indexPath(csv));
+        FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ);
+        try {
+            List<String> header = new ArrayList<>();
+            if (!new CsvRecordCursor(channel, 0, READ_BUFFER_BYTES).next(header)) {
+                throw new IOException("Indexed CSV is empty: " + csv);
+            }
+            return new IndexedCsvReader(channel, index, List.copyOf(header));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public List<String> header() {
+        return header;
+    }
+
+    public List<List<String>> game(String gameId) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        for (long offset : index.runOffsets(gameId)) {
+            readRun(offset, gameId, null, null, rows);
+        }
+        return rows;
+    }
+
+    public List<List<String>> dateRange(String from, String to) throws IOException {
+        long[] offsets = new long[index.size()];
+        int count = 0;
+        for (int entry = 0; entry < index.size(); entry++) {
+            if (index.runStart(entry) && inRange(index.date(entry), from, to)) {
+                offsets[count++] = index.offset(entry);
+            }
+        }
+        offsets = Arrays.copyOf(offsets, count);
+        Arrays.sort(offsets);
+        List<List<String>> rows = new ArrayList<>();
+        for (long offset : offsets) {
+            readRun(offset, null, from, to, rows);
+        }
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Reads one run of a gameid starting at offset; a null gameId takes the id from the run's first row.
+    private void readRun(long offset, String gameId, String from, String to, List<List<String>> rows)
+            throws IOException {
+        CsvRecordCursor cursor = new CsvRecordCursor(channel, offset, READ_BUFFER_BYTES);
+        List<String> fields = new ArrayList<>();
+        String runGame = gameId;
+        while (cursor.next(fields)) {
+            String rowGame = value(fields, index.gameColumn());
+            if (runGame == null) {
+                runGame = rowGame;
+            } else if (!runGame.equals(rowGame)) {
+                return;
+            }
+            if ((from == null && to == null) || inRange(value(fields, index.dateColumn()), from, to)) {
+                rows.add(List.copyOf(fields));
+            }
+        }
+    }
+
+    static boolean inRange(String date, String from, String to) {
+        if (from == null && to == null) {
+            return true;
+        }
+        return !date.isEmpty()
+                && (from == null || comparePrefix(date, from) >= 0)
+                && (to == null || comparePrefix(date, to) <= 0);
+    }
+
+    private static int comparePrefix(String value, String bound) {
+        String prefix = value.length() > bound.length() ? value.substring(0, bound.length()) : value;
+        return prefix.compareTo(bound);
+    }
+
+    private static String value(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : "";
+    }
+}
@@ -0,0 +1,36 @@
+package com.jmirving.prodata.processor.index;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.write.PositionedRowWriter;
+import com.jmirving.prodata.processor.write.RowWriter;
+
+// Records each row's byte offset in an index builder before the row is written, so the index never needs a scan
+// of the finished CSV. With a file, closing writes the index there once the target closed cleanly.
+public final class IndexingRowWriter implements RowWriter {
+    private final PositionedRowWriter target;
+    private final SparseRowIndex.Builder index;
+    private final Path file;
+
+    public IndexingRowWriter(PositionedRowWriter target, SparseRowIndex.Builder index, Path file) {
+        this.target = target;
+        this.index = index;
+        this.file = file;
+    }
+
+    @Override
+    public void write(ProRow row) throws IOException {
+        index.add(row, target.position());
+        target.write(row);
+    }
+
+    @Override
+    public void close() throws IOException {
+        target.close();
+        if (file != null) {
+            index.build().write(file);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.jmirving.prodata.processor.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.jmirving.prodata.processor.model.ProRow;
+
+// Byte offsets into a published CSV: one entry where each run of a gameid starts, plus one every intervalRows
+// rows inside long runs. Entries are stored sorted by gameid then offset so point lookups binary-search them.
+// Layout: magic, version, interval, gameid and date column numbers, entry count, then per entry its gameid,
+// date, offset and whether it starts a run.
+public final class SparseRowIndex {
+    static final int MAGIC = 0x50445831;
+    static final short VERSION = 1;
+
+    private static final int SCAN_BUFFER_BYTES = 1 << 20;
+
+    private final int intervalRows;
+    private final int gameColumn;
+    private final int dateColumn;
+    private final String[] gameIds;
+    private final String[] dates;
+    private final long[] offsets;
+    private final boolean[] runStarts;
+
+    private SparseRowIndex(
+            int intervalRows,
+            int gameColumn,
+            int dateColumn,
+            String[] gameIds,
+            String[] dates,
+            long[] offsets,
+            boolean[] runStarts
+    ) {
+        this.intervalRows = intervalRows;
+        this.gameColumn = gameColumn;
+        this.dateColumn = dateColumn;
+        this.gameIds = gameIds;
+        this.dates = dates;
+        this.offsets = offsets;
+        this.runStarts = runStarts;
+    }
+
+    public static SparseRowIndex build(Path csv, int intervalRows) throws IOException {
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            CsvRecordCursor cursor = new CsvRecordCursor(channel, 0, SCAN_BUFFER_BYTES);
+            List<String> fields = new ArrayList<>();
+            if (!cursor.next(fields)) {
+                throw new IOException("Cannot index an empty CSV: " + csv);
+            }
+            if (!fields.contains("gameid")) {
+                throw new IOException("Cannot index a CSV without a gameid column: " + csv);
+            }
+            Builder builder = new Builder(fields, intervalRows);
+            builder.scan(cursor, fields);
+            return builder.build();
+        }
+    }
+
+    public static SparseRowIndex read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a sparse row index: " + file);
+            }
+            int version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported sparse row index version " + version + " in " + file);
+            }
+            int intervalRows = in.readInt();
+            int gameColumn = in.readInt();
+            int dateColumn = in.readInt();
+            int count = in.readInt();
+            String[] gameIds = new String[count];
+            String[] dates = new String[count];
+            long[] offsets = new long[count];
+            boolean[] runStarts = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                gameIds[i] = in.readUTF();
+                dates[i] = in.readUTF();
+                offsets[i] = in.readLong();
+                runStarts[i] = in.readBoolean();
+            }
+            return new SparseRowIndex(intervalRows, gameColumn, dateColumn, gameIds, dates, offsets, runStarts);
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(intervalRows);
+            out.writeInt(gameColumn);
+            out.writeInt(dateColumn);
+            out.writeInt(gameIds.length);
+            for (int i = 0; i < gameIds.length; i++) {
+                out.writeUTF(gameIds[i]);
+                out.writeUTF(dates[i]);
+                out.writeLong(offsets[i]);
+                out.writeBoolean(runStarts[i]);
+            }
+        }
+    }
+
+    public static Path indexPath(Path csv) {
+        return csv.resolveSibling(csv.getFileName() + ".idx");
+    }
+
+    public int size() {
+        return gameIds.length;
+    }
+
+    public int intervalRows() {
+        return intervalRows;
+    }
+
+    int gameColumn() {
+        return gameColumn;
+    }
+
+    int dateColumn() {
+        return dateColumn;
+    }
+
+    String date(int entry) {
+        return dates[entry];
+    }
+
+    long offset(int entry) {
+        return offsets[entry];
+    }
+
+    boolean runStart(int entry) {
+        return runStarts[entry];
+    }
+
+    // Offsets where the runs of the given gameid start, in file order.
+    long[] runOffsets(String gameId) {
+        int from = lowerBound(gameId);
+        int to = from;
+        while (to < gameIds.length && gameIds[to].equals(gameId)) {
+            to++;
+        }
+        long[] runs = new long[to - from];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (runStarts[i]) {
+                runs[count++] = offsets[i];
+            }
+        }
+        return Arrays.copyOf(runs, count);
+    }
+
+    private int lowerBound(String gameId) {
+        int low = 0;
+        int high = gameIds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (gameIds[mid].compareTo(gameId) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static String value(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : "";
+    }
+
+    private record Entry(String gameId, String date, long offset, boolean runStart) {
+        Entry rebase(long base) {
+            return new Entry(gameId, date, offset + base, runStart);
+        }
+    }
+
+    // Collects entries from rows as they are written, given each row's byte offset. Builders of segments that are
+    // concatenated later are appended at the segment's offset in the final file and give the same index as one
+    // builder over the whole file: the leading run of a segment is replayed row by row, because it may continue the
+    // last run of the rows before it.
+    public static final class Builder {
+        private final int interval;
+        private final int gameColumn;
+        private final int dateColumn;
+        private final List<Entry> entries = new ArrayList<>();
+        private final List<String> leadDates = new ArrayList<>();
+        private long[] leadOffsets = new long[16];
+        private int leadEntries;
+        private String leadGame;
+        private boolean leading = true;
+        private String previousGame;
+        private int rowsSinceEntry;
+
+        public Builder(List<String> columns, int intervalRows) {
+            this.interval = Math.max(1, intervalRows);
+            this.gameColumn = columns.indexOf("gameid");
+            this.dateColumn = columns.indexOf("date");
+            if (gameColumn < 0) {
+                throw new IllegalArgumentException("Cannot index rows without a gameid column: " + columns);
+            }
+        }
+
+        public void add(ProRow row, long offset) {
+            add(row.value(gameColumn), dateColumn < 0 ? "" : row.value(dateColumn), offset);
+        }
+
+        // Adds the entries of header-less CSV rows, with offsets from the start of the file.
+        public void scan(Path csv) throws IOException {
+            try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+                scan(new CsvRecordCursor(channel, 0, SCAN_BUFFER_BYTES), new ArrayList<>());
+            }
+        }
+
+        public void append(Builder segment, long base) {
+            for (int i = 0; i < segment.leadDates.size(); i++) {
+                add(segment.leadGame, segment.leadDates.get(i), base + segment.leadOffsets[i]);
+            }
+            if (segment.leading) {
+                return;
+            }
+            leading = false;
+            for (Entry entry : segment.entries.subList(segment.leadEntries, segment.entries.size())) {
+                entries.add(entry.rebase(base));
+            }
+            previousGame = segment.previousGame;
+            rowsSinceEntry = segment.rowsSinceEntry;
+        }
+
+        public SparseRowIndex build() {
+            List<Entry> sorted = new ArrayList<>(entries);
+            sorted.sort(Comparator.comparing(Entry::gameId).thenComparingLong(Entry::offset));
+            String[] gameIds = new String[sorted.size()];
+            String[] dates = new String[sorted.size()];
+            long[] offsets = new long[sorted.size()];
+            boolean[] runStarts = new boolean[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                Entry entry = sorted.get(i);
+                gameIds[i] = entry.gameId();
+                dates[i] = entry.date();
+                offsets[i] = entry.offset();
+                runStarts[i] = entry.runStart();
+            }
+            return new SparseRowIndex(interval, gameColumn, dateColumn, gameIds, dates, offsets, runStarts);
+        }
+
+        private void scan(CsvRecordCursor cursor, List<String> fields) throws IOException {
+            while (cursor.next(fields)) {
+                add(value(fields, gameColumn), value(fields, dateColumn), cursor.recordStart());
+            }
+        }
+
+        private void add(String gameId, String date, long offset) {
+            boolean runStart = !gameId.equals(previousGame);
+            if (leading && previousGame != null && runStart) {
+                leading = false;
+            }
+            if (leading) {
+                if (leadDates.size() == leadOffsets.length) {
+                    leadOffsets = Arrays.copyOf(leadOffsets, leadOffsets.length * 2);
+                }
+                leadOffsets[leadDates.size()] = offset;
+                leadDates.add(date);
+                leadGame = gameId;
+            }
+            if (runStart || ++rowsSinceEntry >= interval) {
+                entries.add(new Entry(gameId, date, offset, runStart));
+                rowsSinceEntry = 0;
+                if (leading) {
+                    leadEntries++;
+                }
+            }
+            previousGame = gameId;
+        }
+    }
+}
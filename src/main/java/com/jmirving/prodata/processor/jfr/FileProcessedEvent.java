@@ -0,0 +1,72 @@
+package com.jmirving.prodata.processor.jfr;
+
+import java.nio.file.Path;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.jmirving.prodata.FileProcessed")
+@Label("File Processed")
+@Category("Pro Data")
+@Description("Reading, classifying and writing one input file")
+@StackTrace(false)
+public final class FileProcessedEvent extends jdk.jfr.Event {
+    @Label("File")
+    String file;
+
+    @Label("Cached")
+    @Description("Segments were reused from the incremental cache")
+    boolean cached;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Player Rows")
+    long playerRows;
+
+    @Label("Team Rows")
+    long teamRows;
+
+    @Label("Dropped Team Rows")
+    long droppedTeamRows;
+
+    @Label("Filtered Rows")
+    long filteredRows;
+
+    @Label("Input Bytes")
+    @DataAmount(DataAmount.BYTES)
+    long inputBytes;
+
+    public static FileProcessedEvent start(Path inputFile) {
+        FileProcessedEvent event = new FileProcessedEvent();
+        event.file = inputFile.getFileName().toString();
+        event.begin();
+        return event;
+    }
+
+    public void finish(
+            boolean cached,
+            long rows,
+            long playerRows,
+            long teamRows,
+            long droppedTeamRows,
+            long filteredRows,
+            long inputBytes
+    ) {
+        end();
+        if (shouldCommit()) {
+            this.cached = cached;
+            this.rows = rows;
+            this.playerRows = playerRows;
+            this.teamRows = teamRows;
+            this.droppedTeamRows = droppedTeamRows;
+            this.filteredRows = filteredRows;
+            this.inputBytes = inputBytes;
+            commit();
+        }
+    }
+}
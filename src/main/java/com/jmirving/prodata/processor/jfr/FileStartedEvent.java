@@ -0,0 +1,28 @@
+package com.jmirving.prodata.processor.jfr;
+
+import java.nio.file.Path;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Instant marker so a file that stalls still shows up in a recording before its FileProcessed event commits.
+@Name("com.jmirving.prodata.FileStarted")
+@Label("File Started")
+@Category("Pro Data")
+@Description("An input file was opened for processing")
+@StackTrace(false)
+public final class FileStartedEvent extends jdk.jfr.Event {
+    @Label("File")
+    String file;
+
+    public static void emit(Path inputFile) {
+        FileStartedEvent event = new FileStartedEvent();
+        if (event.isEnabled()) {
+            event.file = inputFile.getFileName().toString();
+            event.commit();
+        }
+    }
+}
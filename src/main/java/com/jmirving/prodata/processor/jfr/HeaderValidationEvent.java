@@ -0,0 +1,39 @@
+package com.jmirving.prodata.processor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.jmirving.prodata.HeaderValidation")
+@Label("Header Validation")
+@Category("Pro Data")
+@Description("Parsing and checking a CSV header against the required columns")
+@StackTrace(false)
+public final class HeaderValidationEvent extends jdk.jfr.Event {
+    @Label("Columns")
+    int columns;
+
+    @Label("Required Columns")
+    int requiredColumns;
+
+    @Label("Missing Columns")
+    int missingColumns;
+
+    public static HeaderValidationEvent start(int requiredColumns) {
+        HeaderValidationEvent event = new HeaderValidationEvent();
+        event.requiredColumns = requiredColumns;
+        event.begin();
+        return event;
+    }
+
+    public void finish(int columns, int missingColumns) {
+        end();
+        if (shouldCommit()) {
+            this.columns = columns;
+            this.missingColumns = missingColumns;
+            commit();
+        }
+    }
+}
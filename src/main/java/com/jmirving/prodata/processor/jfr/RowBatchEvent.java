@@ -0,0 +1,23 @@
+package com.jmirving.prodata.processor.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.jmirving.prodata.RowBatch")
+@Label("Row Batch")
+@Category("Pro Data")
+@Description("A fixed number of rows read and written from one input file")
+@StackTrace(false)
+public final class RowBatchEvent extends jdk.jfr.Event {
+    @Label("File")
+    String file;
+
+    @Label("Batch")
+    long batch;
+
+    @Label("Rows")
+    int rows;
+}
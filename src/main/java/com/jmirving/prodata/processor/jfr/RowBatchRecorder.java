@@ -0,0 +1,50 @@
+package com.jmirving.prodata.processor.jfr;
+
+import java.nio.file.Path;
+
+// Cuts a file's row stream into RowBatch events; one event object per batch keeps the per-row cost to a counter.
+public final class RowBatchRecorder {
+    private final String file;
+    private final int batchRows;
+    private RowBatchEvent event;
+    private long batch;
+    private int rows;
+
+    public RowBatchRecorder(Path inputFile, int batchRows) {
+        this.file = inputFile.getFileName().toString();
+        this.batchRows = batchRows;
+        if (batchRows > 0) {
+            start();
+        }
+    }
+
+    public void row() {
+        if (batchRows > 0 && ++rows == batchRows) {
+            commit();
+            start();
+        }
+    }
+
+    public void finish() {
+        if (batchRows > 0 && rows > 0) {
+            commit();
+        }
+    }
+
+    private void start() {
+        event = new RowBatchEvent();
+        rows = 0;
+        event.begin();
+    }
+
+    private void commit() {
+        event.end();
+        if (event.shouldCommit()) {
+            event.file = file;
+            event.batch = batch;
+            event.rows = rows;
+            event.commit();
+        }
+        batch++;
+    }
+}
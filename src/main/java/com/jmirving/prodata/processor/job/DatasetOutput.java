@@ -0,0 +1,85 @@
+package com.jmirving.prodata.processor.job;
+
+import java.nio.file.Path;
+import java.util.List;
+
+// One monolithic CSV of a run: the temp it is written to and the path it is published under.
+final class DatasetOutput {
+    static final List<String> BASE_DATASETS = List.of("all", "players", "teams");
+
+    private final String name;
+    private final List<String> columns;
+    private final Path temp;
+    private final Path output;
+    private final Path columnar;
+    private final Path index;
+    private final Path blocks;
+    private final Path blockIndex;
+
+    DatasetOutput(
+            String name,
+            List<String> columns,
+            Path temp,
+            Path output,
+            Path columnar,
+            Path index,
+            Path blocks,
+            Path blockIndex
+    ) {
+        this.name = name;
+        this.columns = columns;
+        this.temp = temp;
+        this.output = output;
+        this.columnar = columnar;
+        this.index = index;
+        this.blocks = blocks;
+        this.blockIndex = blockIndex;
+    }
+
+    String name() {
+        return name;
+    }
+
+    List<String> columns() {
+        return columns;
+    }
+
+    Path temp() {
+        return temp;
+    }
+
+    Path output() {
+        return output;
+    }
+
+    // The temp of the .pdc twin written alongside the CSV; null without columnar output.
+    Path columnar() {
+        return columnar;
+    }
+
+    // The temp of the sparse gameid index, recorded while the CSV is written; null without one.
+    Path index() {
+        return index;
+    }
+
+    // The temps of the block-gzipped copy and its block index, compressed while the CSV is written; null without
+    // output compression.
+    Path blocks() {
+        return blocks;
+    }
+
+    Path blockIndex() {
+        return blockIndex;
+    }
+
+    // all, players and teams share the output schema; games and profiles carry their own columns.
+    boolean base() {
+        return BASE_DATASETS.contains(name);
+    }
+
+    // The output path with its .csv suffix swapped for another extension.
+    Path sibling(String extension) {
+        String fileName = output.getFileName().toString();
+        return output.resolveSibling(fileName.substring(0, fileName.length() - ".csv".length()) + extension);
+    }
+}
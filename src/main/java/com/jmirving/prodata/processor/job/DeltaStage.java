@@ -0,0 +1,34 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.jmirving.prodata.processor.delta.ChangeLog;
+import com.jmirving.prodata.processor.delta.GameHashIndex;
+
+// Diffs the game hashes folded while the all rows were written against the previous run's.
+final class DeltaStage implements OutputStage {
+    @Override
+    public String phase() {
+        return "delta";
+    }
+
+    @Override
+    public void write(RunOutputs outputs, RunStats totals) throws IOException {
+        Path deltaDir = outputs.outputDir().resolve("delta");
+        Files.createDirectories(deltaDir);
+        Path allTemp = outputs.dataset("all").temp();
+        Path indexFile = deltaDir.resolve("game_hashes.bin");
+        GameHashIndex current = outputs.hashes().build(Files.size(allTemp));
+        GameHashIndex.Changes changes = current.diff(GameHashIndex.read(indexFile));
+        Path changesTemp = OutputFiles.createTempFile(deltaDir, "tmp_changes_");
+        outputs.sidecar(changesTemp, deltaDir.resolve("changes_" + outputs.runId() + ".csv"));
+        ChangeLog.write(allTemp, current, changes, changesTemp);
+        // Published with the other sidecars only after the run succeeds, so a failed run keeps the old baseline.
+        Path indexTemp = Files.createTempFile(deltaDir, "tmp_game_hashes_", ".bin");
+        current.write(indexTemp);
+        outputs.sidecar(indexTemp, indexFile);
+        totals.delta = changes;
+    }
+}
@@ -0,0 +1,39 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import com.jmirving.prodata.processor.model.RunDictionaries.Domain;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+// Publishes the run's dictionaries as id,value CSVs so encoded columns can be decoded outside the job.
+final class DictionaryStage implements OutputStage {
+    @Override
+    public String phase() {
+        return "dictionaries";
+    }
+
+    @Override
+    public void write(RunOutputs outputs, RunStats totals) throws IOException {
+        Path dictionaryDir = outputs.outputDir().resolve("dictionaries");
+        Files.createDirectories(dictionaryDir);
+        CSVFormat format = CSVFormat.DEFAULT.withHeader("id", "value");
+        for (Domain domain : Domain.values()) {
+            String name = domain.name().toLowerCase(Locale.ROOT);
+            Path temp = OutputFiles.createTempFile(dictionaryDir, "tmp_" + name + "_");
+            outputs.sidecar(temp, dictionaryDir.resolve(name + "_" + outputs.runId() + ".csv"));
+            List<String> values = outputs.dictionaries().get(domain).values();
+            try (BufferedWriter writer = Files.newBufferedWriter(temp);
+                 CSVPrinter printer = new CSVPrinter(writer, format)) {
+                for (int id = 0; id < values.size(); id++) {
+                    printer.printRecord(id, values.get(id));
+                }
+            }
+        }
+    }
+}
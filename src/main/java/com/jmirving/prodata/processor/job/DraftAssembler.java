@@ -0,0 +1,177 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.model.Side;
+import com.jmirving.prodata.processor.sort.ExternalRowSorter;
+import com.jmirving.prodata.processor.write.RowWriter;
+
+// Pairs the blue and red team rows of each game while streaming. Oracle's Elixir keeps a game's rows
+// together, so only a small window of half-drafts is held; halves evicted from it are sorted by gameid in
+// runs of the same size and paired from the merge once the input file is exhausted.
+final class DraftAssembler {
+    private static final int[] SHARED_SLOTS =
+            slots("gameid", "league", "split", "year", "date", "game", "patch");
+    private static final int[] SIDE_SLOTS =
+            slots("teamid", "ban1", "ban2", "ban3", "ban4", "ban5", "pick1", "pick2", "pick3", "pick4", "pick5");
+
+    private final RowWriter games;
+    private final ExternalRowSorter spill;
+    private final int maxPending;
+    private final int width;
+    private final int gameIdSlot = slot("gameid");
+    private final int sideSlot = slot("side");
+    private final int participantSlot = slot("participantid");
+    private final LinkedHashMap<String, ProRow> pending = new LinkedHashMap<>();
+    private final ArrayDeque<ProRow> free = new ArrayDeque<>();
+    private final ProRow gameRow = new ProRow(ProDataColumns.GAME_COLUMNS.size());
+    private long gameCount;
+    private long unpairedCount;
+    private long spilledCount;
+
+    DraftAssembler(RowWriter games, Path spillDir, int width, int maxPending) {
+        this.games = games;
+        this.width = width;
+        this.maxPending = Math.max(1, maxPending);
+        this.spill = ExternalRowSorter.byGameId(spillDir, this.maxPending);
+    }
+
+    void accept(ProRow teamRow) throws IOException {
+        String gameId = teamRow.value(gameIdSlot);
+        ProRow other = pending.remove(gameId);
+        if (other != null) {
+            if (sideOf(other.values()) != sideOf(teamRow.values())) {
+                emit(other.values(), teamRow.values());
+                free.push(other);
+                return;
+            }
+            unpairedCount++;
+            free.push(other);
+        }
+        ProRow half = free.isEmpty() ? new ProRow(width) : free.pop();
+        half.copyFrom(teamRow);
+        pending.put(gameId, half);
+        if (pending.size() > maxPending) {
+            Iterator<ProRow> eldest = pending.values().iterator();
+            ProRow evicted = eldest.next();
+            eldest.remove();
+            spill(evicted.values());
+            free.push(evicted);
+        }
+    }
+
+    void finish() throws IOException {
+        if (spilledCount == 0) {
+            unpairedCount += pending.size();
+            pending.clear();
+            return;
+        }
+        for (ProRow half : pending.values()) {
+            spill(half.values());
+        }
+        pending.clear();
+        SpillPairer pairer = new SpillPairer();
+        spill.finish(pairer);
+        pairer.close();
+    }
+
+    void discard() throws IOException {
+        spill.discard();
+    }
+
+    long gameCount() {
+        return gameCount;
+    }
+
+    long unpairedCount() {
+        return unpairedCount;
+    }
+
+    long spilledCount() {
+        return spilledCount;
+    }
+
+    private void spill(String[] values) throws IOException {
+        spill.add(values);
+        spilledCount++;
+    }
+
+    private void emit(String[] first, String[] second) throws IOException {
+        String[] blue = sideOf(first) == Side.BLUE ? first : second;
+        String[] red = blue == first ? second : first;
+        String[] out = gameRow.values();
+        int column = 0;
+        for (int slot : SHARED_SLOTS) {
+            out[column++] = blue[slot].isEmpty() ? red[slot] : blue[slot];
+        }
+        for (int slot : SIDE_SLOTS) {
+            out[column++] = blue[slot];
+        }
+        for (int slot : SIDE_SLOTS) {
+            out[column++] = red[slot];
+        }
+        games.write(gameRow);
+        gameCount++;
+    }
+
+    private Side sideOf(String[] values) {
+        Side side = Side.parse(values[sideSlot]);
+        if (side != Side.UNKNOWN) {
+            return side;
+        }
+        return switch (values[participantSlot]) {
+            case "100" -> Side.BLUE;
+            case "200" -> Side.RED;
+            default -> Side.UNKNOWN;
+        };
+    }
+
+    // Sees spilled halves grouped by gameid in spill order, so one held half per game replaces the old map.
+    private final class SpillPairer implements RowWriter {
+        private final ProRow waiting = new ProRow(width);
+        private boolean holding;
+
+        @Override
+        public void write(ProRow half) throws IOException {
+            String[] values = half.values();
+            if (holding) {
+                String[] other = waiting.values();
+                boolean sameGame = other[gameIdSlot].equals(values[gameIdSlot]);
+                if (sameGame && sideOf(other) != sideOf(values)) {
+                    emit(other, values);
+                    holding = false;
+                    return;
+                }
+                unpairedCount++;
+            }
+            waiting.copyFrom(half);
+            holding = true;
+        }
+
+        @Override
+        public void close() {
+            if (holding) {
+                unpairedCount++;
+                holding = false;
+            }
+        }
+    }
+
+    private static int slot(String column) {
+        return ProDataColumns.OUTPUT_INDEX.get(column);
+    }
+
+    private static int[] slots(String... columns) {
+        int[] slots = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            slots[i] = slot(columns[i]);
+        }
+        return slots;
+    }
+}
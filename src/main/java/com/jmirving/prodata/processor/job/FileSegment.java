@@ -0,0 +1,43 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.write.RowWriter;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+record FileSegment(Path path) implements Segment {
+    @Override
+    public void copyTo(OutputStream target) throws IOException {
+        Files.copy(path, target);
+    }
+
+    @Override
+    public long size() throws IOException {
+        return Files.size(path);
+    }
+
+    @Override
+    public void discard() {
+    }
+
+    // Parses the header-less rows back for targets that take rows rather than bytes.
+    void replay(RowWriter target, int width) throws IOException {
+        ProRow row = new ProRow(width);
+        try (BufferedReader reader = Files.newBufferedReader(path);
+             CSVParser parser = CSVParser.parse(reader, CSVFormat.DEFAULT)) {
+            for (CSVRecord record : parser) {
+                for (int i = 0; i < width; i++) {
+                    row.values()[i] = record.get(i);
+                }
+                target.write(row);
+            }
+        }
+    }
+}
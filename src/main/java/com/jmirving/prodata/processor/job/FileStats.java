@@ -0,0 +1,64 @@
+package com.jmirving.prodata.processor.job;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+import com.jmirving.prodata.processor.aggregate.ChampionAggregates;
+import com.jmirving.prodata.processor.metrics.StageSampler;
+import org.slf4j.Logger;
+
+class FileStats {
+    Path inputFile;
+    boolean cached;
+    long allCount;
+    long playerCount;
+    long teamCount;
+    long droppedTeamCount;
+    long duplicateCount;
+    long filteredCount;
+    long gameCount;
+    long unpairedGameCount;
+    long spilledDraftCount;
+    ChampionAggregates champions;
+    long[] profileRows = new long[0];
+    long inputBytes;
+    long elapsedNanos;
+    long[] stageNanos = new long[StageSampler.STAGES.length];
+
+    double megabytesPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return (inputBytes / (1024.0 * 1024.0)) / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    void logProcessed(Logger logger) {
+        logger.info(
+                "Processed {} (all={}, players={}, teams={}, droppedTeamRows={}, duplicateRows={}, filteredRows={}, "
+                        + "games={}, unpairedGames={}, spilledDraftHalves={}, {} MB/s)",
+                inputFile.getFileName(),
+                allCount,
+                playerCount,
+                teamCount,
+                droppedTeamCount,
+                duplicateCount,
+                filteredCount,
+                gameCount,
+                unpairedGameCount,
+                spilledDraftCount,
+                String.format(Locale.ROOT, "%.1f", megabytesPerSecond())
+        );
+    }
+
+    void logCached(Logger logger) {
+        logger.info(
+                "Reused cached segments for {} (all={}, players={}, teams={}, droppedTeamRows={}, filteredRows={})",
+                inputFile.getFileName(),
+                allCount,
+                playerCount,
+                teamCount,
+                droppedTeamCount,
+                filteredCount
+        );
+    }
+}
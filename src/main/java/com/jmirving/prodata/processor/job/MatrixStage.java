@@ -0,0 +1,36 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import com.jmirving.prodata.processor.aggregate.ChampionMatrices;
+
+// Counts the drafts collected from the teams rows as they were written.
+final class MatrixStage implements OutputStage {
+    private final int parallelism;
+
+    MatrixStage(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    @Override
+    public String phase() {
+        return "matrices";
+    }
+
+    @Override
+    public void write(RunOutputs outputs, RunStats totals) throws IOException {
+        Path matrixDir = outputs.outputDir().resolve("matrices");
+        Files.createDirectories(matrixDir);
+        Path temp = Files.createTempFile(matrixDir, "tmp_champions_", ".bin");
+        outputs.sidecar(temp, matrixDir.resolve("champions_" + outputs.runId() + ".bin"));
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            ChampionMatrices.build(outputs.drafts(), outputs.dictionaries(), pool).write(temp);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.jmirving.prodata.processor.job;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+final class MemoryBudget {
+    private final long limitBytes;
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final AtomicLong peakBytes = new AtomicLong();
+
+    MemoryBudget(long limitBytes) {
+        this.limitBytes = Math.max(0, limitBytes);
+    }
+
+    boolean tryReserve(long bytes) {
+        while (true) {
+            long current = reservedBytes.get();
+            long next = current + bytes;
+            if (next > limitBytes) {
+                return false;
+            }
+            if (reservedBytes.compareAndSet(current, next)) {
+                peakBytes.accumulateAndGet(next, Math::max);
+                return true;
+            }
+        }
+    }
+
+    void release(long bytes) {
+        reservedBytes.addAndGet(-bytes);
+    }
+
+    long reservedBytes() {
+        return reservedBytes.get();
+    }
+
+    long peakBytes() {
+        return peakBytes.get();
+    }
+
+    long limitBytes() {
+        return limitBytes;
+    }
+}
@@ -0,0 +1,61 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Temp-file and publish helpers shared by the monolithic and partitioned runs.
+final class OutputFiles {
+    private static final Logger logger = LoggerFactory.getLogger(OutputFiles.class);
+
+    private OutputFiles() {
+    }
+
+    static Path createTempFile(Path dir, String prefix) throws IOException {
+        return Files.createTempFile(dir, prefix, ".csv");
+    }
+
+    static void moveAtomic(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new IOException("Atomic move failed for " + target, e);
+        }
+    }
+
+    static void deleteIfExists(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete temp file {}", path, e);
+        }
+    }
+
+    static void deleteRecursively(Path dir) {
+        try (var stream = Files.walk(dir)) {
+            for (Path path : stream.sorted(Comparator.reverseOrder()).toList()) {
+                deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to delete temp directory {}", dir, e);
+        }
+    }
+
+    // A profile with its own output-dir can land on a base output or a sidecar; refuse before anything is replaced.
+    static void requireDistinctTargets(Collection<Path> targets) {
+        Set<Path> seen = new HashSet<>();
+        for (Path target : targets) {
+            if (!seen.add(target.toAbsolutePath().normalize())) {
+                throw new IllegalStateException("Two outputs of this run would be published to " + target);
+            }
+        }
+    }
+}
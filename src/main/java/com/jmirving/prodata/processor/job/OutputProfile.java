@@ -0,0 +1,86 @@
+package com.jmirving.prodata.processor.job;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties.Profile;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties.ProfileRows;
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
+
+// A configured output schema resolved against the run projection; slots index OUTPUT_COLUMNS followed by extras.
+record OutputProfile(
+        String name,
+        List<String> columns,
+        int[] slots,
+        ProfileRows rows,
+        boolean dropIncompleteTeamRows,
+        Path outputDir
+) {
+    // Directories the job itself writes under the output dir; a profile named after one would share it.
+    static final Set<String> RESERVED_NAMES = Set.of(
+            "all", "players", "teams", "games", "segments", "delta", "reports", "dictionaries", "aggregates",
+            "matrices", "sort", "index");
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_.-]*");
+
+    static List<String> requiredColumns(List<Profile> configured) {
+        List<String> columns = new ArrayList<>();
+        for (Profile profile : configured) {
+            if (profile.getColumns() != null) {
+                columns.addAll(profile.getColumns());
+            }
+        }
+        return columns;
+    }
+
+    static List<OutputProfile> resolve(List<Profile> configured, List<String> extraColumns, Path outputDir) {
+        List<String> planColumns = new ArrayList<>(ProDataColumns.OUTPUT_COLUMNS);
+        planColumns.addAll(extraColumns);
+        Set<String> names = new HashSet<>();
+        List<OutputProfile> profiles = new ArrayList<>();
+        for (Profile profile : configured) {
+            String name = profile.getName() == null ? "" : profile.getName().trim();
+            if (name.isEmpty() || !names.add(name)) {
+                throw new IllegalStateException("Output profiles need unique, non-blank names: '" + name + "'");
+            }
+            if (!NAME.matcher(name).matches()) {
+                throw new IllegalStateException(
+                        "Output profile name must be a plain directory name (letters, digits, '_', '-', '.'): '"
+                                + name + "'");
+            }
+            if (RESERVED_NAMES.contains(name.toLowerCase(Locale.ROOT))) {
+                throw new IllegalStateException("Output profile name is reserved for a built-in output: " + name);
+            }
+            if (profile.getColumns() == null || profile.getColumns().isEmpty()) {
+                throw new IllegalStateException("Output profile " + name + " has no columns");
+            }
+            List<String> columns = profile.getColumns().stream().map(CsvHeaderValidator::normalize).toList();
+            int[] slots = new int[columns.size()];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = planColumns.indexOf(columns.get(i));
+            }
+            Path dir = profile.getOutputDir() == null || profile.getOutputDir().isBlank()
+                    ? outputDir.resolve(name)
+                    : Path.of(profile.getOutputDir()).toAbsolutePath().normalize();
+            ProfileRows rows = profile.getRows() == null ? ProfileRows.ALL : profile.getRows();
+            profiles.add(new OutputProfile(name, columns, slots, rows, profile.isDropIncompleteTeamRows(), dir));
+        }
+        return List.copyOf(profiles);
+    }
+
+    boolean accepts(int flags, boolean incompleteTeamRow) {
+        if (incompleteTeamRow && dropIncompleteTeamRows) {
+            return false;
+        }
+        return switch (rows) {
+            case ALL -> true;
+            case PLAYERS -> (flags & RowClassifier.PLAYER_ROW) != 0;
+            case TEAMS -> (flags & RowClassifier.TEAM_ROW) != 0;
+        };
+    }
+}
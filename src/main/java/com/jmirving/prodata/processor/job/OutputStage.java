@@ -0,0 +1,10 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.IOException;
+
+// A post-processing step run over a run's finished outputs, timed as its own phase in the run report.
+interface OutputStage {
+    String phase();
+
+    void write(RunOutputs outputs, RunStats totals) throws IOException;
+}
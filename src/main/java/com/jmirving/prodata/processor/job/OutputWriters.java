@@ -0,0 +1,72 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties.CsvWriter;
+import com.jmirving.prodata.processor.write.CsvPrinterRowWriter;
+import com.jmirving.prodata.processor.write.FastCsvRowWriter;
+import com.jmirving.prodata.processor.write.PositionedRowWriter;
+import org.apache.commons.csv.CSVFormat;
+
+// Opens CSV row writers with the configured csv-writer implementation.
+final class OutputWriters {
+    private final ProDataProcessorProperties properties;
+
+    OutputWriters(ProDataProcessorProperties properties) {
+        this.properties = properties;
+    }
+
+    PositionedRowWriter csv(Path file, boolean header) throws IOException {
+        return csv(file, header, FastCsvRowWriter.DEFAULT_BUFFER_BYTES);
+    }
+
+    PositionedRowWriter csv(Path file, boolean header, int fastBufferBytes) throws IOException {
+        return csv(file, header ? ProDataColumns.OUTPUT_COLUMNS : null, fastBufferBytes);
+    }
+
+    PositionedRowWriter csv(Path file, List<String> header) throws IOException {
+        return csv(file, header, FastCsvRowWriter.DEFAULT_BUFFER_BYTES);
+    }
+
+    PositionedRowWriter csv(Path file, List<String> header, int fastBufferBytes) throws IOException {
+        if (properties.getCsvWriter() == CsvWriter.FAST) {
+            return FastCsvRowWriter.open(file, header, fastBufferBytes);
+        }
+        CSVFormat format = header == null
+                ? CSVFormat.DEFAULT
+                : CSVFormat.DEFAULT.withHeader(header.toArray(new String[0]));
+        BufferedWriter writer = Files.newBufferedWriter(file);
+        try {
+            return new CsvPrinterRowWriter(writer, format);
+        } catch (IOException | RuntimeException e) {
+            writer.close();
+            throw e;
+        }
+    }
+
+    PositionedRowWriter csv(OutputStream out, List<String> header) throws IOException {
+        if (properties.getCsvWriter() == CsvWriter.FAST) {
+            return new FastCsvRowWriter(Channels.newChannel(out), header);
+        }
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        return new CsvPrinterRowWriter(writer, CSVFormat.DEFAULT.withHeader(header.toArray(new String[0])));
+    }
+
+    PositionedRowWriter segment(SegmentBuffer segment) throws IOException {
+        if (properties.getCsvWriter() == CsvWriter.FAST) {
+            return new FastCsvRowWriter(Channels.newChannel(segment), null);
+        }
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(segment, StandardCharsets.UTF_8));
+        return new CsvPrinterRowWriter(writer, CSVFormat.DEFAULT);
+    }
+}
@@ -0,0 +1,158 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.write.PartitionedRowWriter;
+import com.jmirving.prodata.processor.write.RowWriter;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// output-layout=partitioned: every worker writes its file's rows straight into year/league part files under a
+// staging directory per dataset. Each staging directory gets a manifest and is moved to <dataset>/<runId>.
+final class PartitionedRun {
+    static final List<String> DATASETS = DatasetOutput.BASE_DATASETS;
+    static final String MANIFEST_FILE = "manifest.csv";
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionedRun.class);
+    private static final int PARTITION_BUFFER_BYTES = 64 * 1024;
+    private static final String[] MANIFEST_HEADER = {
+            "path", "year", "league", "rows", "bytes", "minDate", "maxDate", "minPatch", "maxPatch"
+    };
+
+    private final OutputWriters writers;
+    private final long partitionMaxRows;
+    private final int workers;
+    private final FileProcessor processor;
+    private final Map<String, Path> staging = new LinkedHashMap<>();
+    private final Map<String, AtomicInteger> partNumbers = new HashMap<>();
+    private final Map<String, List<PartitionedRowWriter.Partition>> partitions = new HashMap<>();
+
+    PartitionedRun(OutputWriters writers, long partitionMaxRows, int workers, FileProcessor processor) {
+        this.writers = writers;
+        this.partitionMaxRows = partitionMaxRows;
+        this.workers = Math.max(1, workers);
+        this.processor = processor;
+    }
+
+    interface FileProcessor {
+        FileStats process(Path inputFile, RowWriter all, RowWriter players, RowWriter teams) throws IOException;
+    }
+
+    RunStats run(List<Path> inputFiles, RunOutputs outputs, List<OutputStage> stages) throws IOException {
+        Path outputDir = outputs.outputDir();
+        try {
+            long phase = System.nanoTime();
+            for (String dataset : DATASETS) {
+                Path datasetDir = outputDir.resolve(dataset);
+                Files.createDirectories(datasetDir);
+                staging.put(dataset, Files.createTempDirectory(datasetDir, "tmp_" + dataset + "_"));
+                partNumbers.put(dataset, new AtomicInteger());
+                partitions.put(dataset, new ArrayList<>());
+            }
+            RunStats totals = process(inputFiles);
+            phase = totals.phase("process", phase);
+            for (String dataset : DATASETS) {
+                writeManifest(staging.get(dataset), partitions.get(dataset));
+            }
+            phase = outputs.run(stages, totals, phase);
+            for (String dataset : DATASETS) {
+                OutputFiles.moveAtomic(staging.get(dataset), outputDir.resolve(dataset).resolve(outputs.runId()));
+            }
+            outputs.publish();
+            totals.phase("publish", phase);
+            return totals;
+        } catch (Exception e) {
+            staging.values().forEach(OutputFiles::deleteRecursively);
+            outputs.discard();
+            throw e;
+        }
+    }
+
+    private RunStats process(List<Path> inputFiles) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(workers, Math.max(1, inputFiles.size())), Workers.threadFactory("prodata-worker-"));
+        List<Future<FileStats>> futures = new ArrayList<>();
+        RunStats totals = new RunStats();
+        try {
+            for (Path inputFile : inputFiles) {
+                futures.add(executor.submit(() -> processFile(inputFile)));
+            }
+            for (Future<FileStats> future : futures) {
+                FileStats stats = Workers.await(future, "year partitions");
+                stats.logProcessed(logger);
+                totals.add(stats);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return totals;
+    }
+
+    private FileStats processFile(Path inputFile) throws IOException {
+        PartitionedRowWriter all = newWriter("all");
+        PartitionedRowWriter players = newWriter("players");
+        PartitionedRowWriter teams = newWriter("teams");
+        FileStats stats;
+        try (all; players; teams) {
+            stats = processor.process(inputFile, all, players, teams);
+        }
+        record("all", all);
+        record("players", players);
+        record("teams", teams);
+        return stats;
+    }
+
+    private PartitionedRowWriter newWriter(String dataset) {
+        return new PartitionedRowWriter(
+                staging.get(dataset),
+                ProDataColumns.OUTPUT_COLUMNS,
+                file -> writers.csv(file, true, PARTITION_BUFFER_BYTES),
+                partNumbers.get(dataset),
+                partitionMaxRows
+        );
+    }
+
+    private synchronized void record(String dataset, PartitionedRowWriter writer) {
+        partitions.get(dataset).addAll(writer.partitions());
+    }
+
+    private void writeManifest(Path dir, List<PartitionedRowWriter.Partition> partitions) throws IOException {
+        List<PartitionedRowWriter.Partition> sorted = new ArrayList<>(partitions);
+        sorted.sort(Comparator.comparing(PartitionedRowWriter.Partition::year)
+                .thenComparing(PartitionedRowWriter.Partition::league)
+                .thenComparing(PartitionedRowWriter.Partition::path));
+        CSVFormat format = CSVFormat.DEFAULT.withHeader(MANIFEST_HEADER);
+        try (BufferedWriter writer = Files.newBufferedWriter(dir.resolve(MANIFEST_FILE));
+             CSVPrinter printer = new CSVPrinter(writer, format)) {
+            for (PartitionedRowWriter.Partition partition : sorted) {
+                printer.printRecord(
+                        partition.path(),
+                        partition.year(),
+                        partition.league(),
+                        partition.rows(),
+                        partition.bytes(),
+                        partition.minDate(),
+                        partition.maxDate(),
+                        partition.minPatch(),
+                        partition.maxPatch()
+                );
+            }
+        }
+    }
+}
@@ -1,31 +1,69 @@
 package com.jmirving.prodata.processor.job;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.OptionalInt;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.aggregate.ChampionAggregates;
+import com.jmirving.prodata.processor.aggregate.ChampionMatrices;
+import com.jmirving.prodata.processor.columnar.ColumnarRowWriter;
+import com.jmirving.prodata.processor.compress.InputCompression;
 import com.jmirving.prodata.processor.config.ProDataProcessorProperties;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties.OutputCompression;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties.OutputLayout;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties.Profile;
+import com.jmirving.prodata.processor.dedup.RowKeySet;
+import com.jmirving.prodata.processor.delta.GameHashIndex;
+import com.jmirving.prodata.processor.delta.HashingRowWriter;
+import com.jmirving.prodata.processor.filter.RowFilter;
+import com.jmirving.prodata.processor.index.IndexingRowWriter;
+import com.jmirving.prodata.processor.index.SparseRowIndex;
+import com.jmirving.prodata.processor.jfr.FileProcessedEvent;
+import com.jmirving.prodata.processor.jfr.FileStartedEvent;
+import com.jmirving.prodata.processor.jfr.RowBatchRecorder;
+import com.jmirving.prodata.processor.metrics.RunReport;
+import com.jmirving.prodata.processor.metrics.StageSampler;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.model.RunDictionaries;
+import com.jmirving.prodata.processor.read.ProjectedRowReader;
+import com.jmirving.prodata.processor.read.RowReaderFactory;
 import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
-import com.jmirving.prodata.processor.validate.CsvHeaderValidator.HeaderIndex;
+import com.jmirving.prodata.processor.validate.ProjectionPlan;
+import com.jmirving.prodata.processor.write.AsyncRowWriter;
+import com.jmirving.prodata.processor.write.BlockGzipCompressor;
+import com.jmirving.prodata.processor.write.PositionedRowWriter;
+import com.jmirving.prodata.processor.write.RowWriter;
+import com.jmirving.prodata.processor.write.TeeOutputStream;
+import com.jmirving.prodata.processor.write.TeeRowWriter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVPrinter;
-import org.apache.commons.csv.CSVRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -34,17 +72,25 @@ import org.springframework.stereotype.Component;
 public class ProDataProcessorJob {
     private static final Logger logger = LoggerFactory.getLogger(ProDataProcessorJob.class);
     private static final Pattern FILE_PATTERN =
-            Pattern.compile("(?<year>\\d{4})_LoL_esports_match_data_from_OraclesElixir\\.csv");
+            Pattern.compile("(?<year>\\d{4})_LoL_esports_match_data_from_OraclesElixir\\.csv(\\.gz|\\.zst)?");
 
     private final ProDataProcessorProperties properties;
     private final CsvHeaderValidator headerValidator;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final OutputWriters writers;
 
     public ProDataProcessorJob(
             ProDataProcessorProperties properties,
-            CsvHeaderValidator headerValidator
+            CsvHeaderValidator headerValidator,
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper
     ) {
         this.properties = properties;
         this.headerValidator = headerValidator;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.writers = new OutputWriters(properties);
     }
 
     public int run() {
@@ -58,98 +104,978 @@ public class ProDataProcessorJob {
     }
 
     void execute() throws IOException {
+        properties.validate();
         Path inputDir = resolveInputDir();
         Path outputDir = resolveOutputDir();
         List<Path> inputFiles = resolveInputFiles(inputDir);
         String runId = runId();
+        long startNanos = System.nanoTime();
+        RunReport report = new RunReport(runId, Instant.now());
+        List<Profile> configuredProfiles = properties.getProfiles() == null ? List.of() : properties.getProfiles();
+        // Inputs must carry the union of every profile's columns so one parse can feed all schemas.
+        CsvHeaderValidator inputValidator =
+                headerValidator.withExtraColumns(OutputProfile.requiredColumns(configuredProfiles));
+        List<OutputProfile> profiles =
+                OutputProfile.resolve(configuredProfiles, inputValidator.extraColumns(), outputDir);
 
-        Path allOutput = outputDir.resolve("all").resolve("all_" + runId + ".csv");
-        Path playersOutput = outputDir.resolve("players").resolve("players_" + runId + ".csv");
-        Path teamsOutput = outputDir.resolve("teams").resolve("teams_" + runId + ".csv");
+        RunDictionaries dictionaries = new RunDictionaries();
+        RunStats totals = properties.getOutputLayout() == OutputLayout.PARTITIONED
+                ? executePartitioned(inputFiles, outputDir, runId, dictionaries)
+                : executeMonolithic(inputFiles, outputDir, runId, dictionaries, inputValidator, profiles);
+        if (properties.isAggregates()) {
+            long phase = System.nanoTime();
+            writeAggregates(totals.champions, dictionaries, outputDir.resolve("aggregates"), runId);
+            totals.phase("aggregates", phase);
+        }
+        fillReport(report, totals, profiles);
+        report.finish(System.nanoTime() - startNanos);
+        report.publish(meterRegistry);
+        if (properties.isRunReport()) {
+            writeRunReport(report, outputDir.resolve("reports"), runId);
+        }
 
-        Files.createDirectories(allOutput.getParent());
-        Files.createDirectories(playersOutput.getParent());
-        Files.createDirectories(teamsOutput.getParent());
+        logger.info(
+                "Pro data processing complete (all={}, players={}, teams={}, droppedTeamRows={}, duplicateRows={}, "
+                        + "filteredRows={}, games={}, unpairedGames={}) -> {}",
+                totals.allCount,
+                totals.playerCount,
+                totals.teamCount,
+                totals.droppedTeamCount,
+                totals.duplicateCount,
+                totals.filteredCount,
+                totals.gameCount,
+                totals.unpairedGameCount,
+                outputDir
+        );
+        logger.info("Peak heap {} MB", report.peakHeapBytes() / (1024 * 1024));
+        if (totals.seenKeys != null) {
+            logger.info(
+                    "Dedup index held {} (gameid, participantid) keys in {} KB",
+                    totals.seenKeys.size(),
+                    totals.seenKeys.memoryBytes() / 1024
+            );
+        }
+        if (totals.delta != null) {
+            logger.info(
+                    "Delta: {} added, {} changed, {} removed games",
+                    totals.delta.added().size(),
+                    totals.delta.changed().size(),
+                    totals.delta.removed().size()
+            );
+        }
+        for (int i = 0; i < profiles.size(); i++) {
+            long rows = i < totals.profileRows.length ? totals.profileRows[i] : 0;
+            logger.info("Profile {} wrote {} rows -> {}", profiles.get(i).name(), rows, profiles.get(i).outputDir());
+        }
+    }
 
-        Path allTemp = createTempFile(allOutput.getParent(), "tmp_all_");
-        Path playersTemp = createTempFile(playersOutput.getParent(), "tmp_players_");
-        Path teamsTemp = createTempFile(teamsOutput.getParent(), "tmp_teams_");
+    private RunStats executeMonolithic(
+            List<Path> inputFiles,
+            Path outputDir,
+            String runId,
+            RunDictionaries dictionaries,
+            CsvHeaderValidator inputValidator,
+            List<OutputProfile> profiles
+    ) throws IOException {
+        RunOutputs outputs = new RunOutputs(outputDir, runId, dictionaries);
+        int compressionThreads = Math.max(1, properties.getCompressionParallelism());
+        ExecutorService compressionPool = properties.getOutputCompression() == OutputCompression.GZIP_BLOCKS
+                ? Executors.newFixedThreadPool(compressionThreads, Workers.threadFactory("prodata-compress-"))
+                : null;
+        RunStats totals;
+        try (RowReaderFactory readers = new RowReaderFactory(properties, inputValidator, dictionaries)) {
+            long phase = System.nanoTime();
+            if (compressionPool != null) {
+                outputs.compressWith(new BlockGzipCompressor(
+                        compressionPool, compressionThreads, properties.getCompressionBlockRows()));
+            }
+            for (String dataset : DatasetOutput.BASE_DATASETS) {
+                addDataset(outputs, dataset, ProDataColumns.OUTPUT_COLUMNS, outputDir.resolve(dataset));
+            }
+            if (properties.isGames()) {
+                addDataset(outputs, "games", ProDataColumns.GAME_COLUMNS, gamesSpillDir());
+            }
+            for (OutputProfile profile : profiles) {
+                addDataset(outputs, profile.name(), profile.columns(), profile.outputDir());
+            }
+            if (properties.isMatrices()) {
+                outputs.collectDrafts(ChampionMatrices.Drafts.paired(dictionaries));
+            }
+            if (properties.isDelta()) {
+                outputs.collectHashes(GameHashIndex.Builder.folding());
+            }
+            OutputFiles.requireDistinctTargets(outputs.targets());
+            if (properties.isIncremental()) {
+                totals = processIncremental(readers, inputFiles, outputDir, outputs);
+            } else if (workerCount(inputFiles) > 1) {
+                totals = processParallel(readers, inputFiles, outputs, profiles);
+            } else {
+                totals = processSerial(readers, inputFiles, outputs, profiles);
+            }
+            phase = totals.phase("process", phase);
+            phase = outputs.run(outputStages(), totals, phase);
+            if (outputs.compressor() != null) {
+                // The block-gzipped copies written alongside the CSVs are published in their place.
+                outputs.dropCsv();
+            }
+            outputs.publish();
+            totals.phase("publish", phase);
+        } catch (Exception e) {
+            outputs.discard();
+            throw e;
+        } finally {
+            if (compressionPool != null) {
+                compressionPool.shutdownNow();
+            }
+        }
+        return totals;
+    }
 
-        long allCount = 0;
-        long playerCount = 0;
-        long teamCount = 0;
-        long droppedTeamCount = 0;
+    private RunStats executePartitioned(
+            List<Path> inputFiles,
+            Path outputDir,
+            String runId,
+            RunDictionaries dictionaries
+    ) throws IOException {
+        try (RowReaderFactory readers = new RowReaderFactory(properties, headerValidator, dictionaries)) {
+            PartitionedRun run = new PartitionedRun(
+                    writers,
+                    properties.getPartitionMaxRows(),
+                    workerCount(inputFiles),
+                    (inputFile, all, players, teams) ->
+                            processFile(readers, inputFile, all, players, teams, null, List.of(), null)
+            );
+            return run.run(inputFiles, new RunOutputs(outputDir, runId, dictionaries), outputStages());
+        }
+    }
 
+    private SortedDatasets sortedDatasets(List<Path> inputFiles) throws IOException {
+        if (!properties.isSortedOutput()) {
+            return null;
+        }
+        return new SortedDatasets(sortSpillDir(), properties.getSortMemoryBytes(), inputFiles);
+    }
+
+    // Sort runs never go to the output directory, which only ever holds outputs being published.
+    private Path sortSpillDir() throws IOException {
+        String spillDir = properties.getSortSpillDir();
+        Path resolved = (spillDir == null || spillDir.isBlank())
+                ? Paths.get(System.getProperty("java.io.tmpdir"))
+                : Paths.get(spillDir);
+        return Files.createDirectories(resolved.toAbsolutePath());
+    }
+
+    private void addDataset(RunOutputs outputs, String name, List<String> columns, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Path temp = OutputFiles.createTempFile(dir, "tmp_" + name + "_");
+        Path columnar = properties.isColumnar() ? Files.createTempFile(dir, "tmp_columnar_", ".pdc") : null;
+        Path index = properties.isSparseIndex() && columns.contains("gameid")
+                ? Files.createTempFile(dir, "tmp_index_", ".idx")
+                : null;
+        Path output = dir.resolve(name + "_" + outputs.runId() + ".csv");
+        Path blocks = null;
+        Path blockIndex = null;
+        if (outputs.compressor() != null) {
+            blocks = Files.createTempFile(dir, "tmp_blocks_", ".csv.gz");
+            blockIndex = OutputFiles.createTempFile(dir, "tmp_block_index_");
+            outputs.sidecar(blocks, output.resolveSibling(output.getFileName() + ".gz"));
+            outputs.sidecar(blockIndex, output.resolveSibling(output.getFileName() + ".gz.idx"));
+        }
+        DatasetOutput dataset = new DatasetOutput(name, columns, temp, output, columnar, index, blocks, blockIndex);
+        outputs.add(dataset);
+        if (columnar != null) {
+            outputs.sidecar(columnar, dataset.sibling(".pdc"));
+        }
+        if (index != null) {
+            outputs.sidecar(index, SparseRowIndex.indexPath(output));
+        }
+    }
+
+    // Post-processing over the finished outputs.
+    private List<OutputStage> outputStages() {
+        List<OutputStage> stages = new ArrayList<>();
+        if (properties.isMatrices()) {
+            stages.add(new MatrixStage(properties.getMatrixParallelism()));
+        }
+        if (properties.isWriteDictionaries()) {
+            stages.add(new DictionaryStage());
+        }
+        if (properties.isDelta()) {
+            stages.add(new DeltaStage());
+        }
+        return stages;
+    }
+
+    private RunStats processSerial(
+            RowReaderFactory readers,
+            List<Path> inputFiles,
+            RunOutputs outputs,
+            List<OutputProfile> profiles
+    ) throws IOException {
+        RunStats totals = new RunStats();
+        totals.seenKeys = properties.isDedup() ? new RowKeySet() : null;
+        SortedDatasets sorted = sortedDatasets(inputFiles);
+        List<ProfileWriter> profileWriters = new ArrayList<>();
+        try (RowWriter allPrinter = sorted == null ? outputWriter(outputs, outputs.dataset("all"), totals) : null;
+             RowWriter playersPrinter =
+                     sorted == null ? outputWriter(outputs, outputs.dataset("players"), totals) : null;
+             RowWriter teamsPrinter = sorted == null ? outputWriter(outputs, outputs.dataset("teams"), totals) : null;
+             RowWriter gamesPrinter =
+                     properties.isGames() ? outputWriter(outputs, outputs.dataset("games"), totals) : null
+        ) {
+            for (OutputProfile profile : profiles) {
+                RowWriter writer = outputWriter(outputs, outputs.dataset(profile.name()), totals);
+                profileWriters.add(new ProfileWriter(profile, writer));
+            }
+            for (Path inputFile : inputFiles) {
+                List<RowWriter> base = sorted == null
+                        ? Arrays.asList(allPrinter, playersPrinter, teamsPrinter)
+                        : sorted.writers(inputFile);
+                FileStats stats = processFile(
+                        readers,
+                        inputFile,
+                        base.get(0),
+                        base.get(1),
+                        base.get(2),
+                        gamesPrinter,
+                        profileWriters,
+                        totals.seenKeys
+                );
+                stats.logProcessed(logger);
+                totals.add(stats);
+            }
+            if (sorted != null) {
+                sorted.writeTo(outputs, dataset -> outputWriter(outputs, dataset, totals));
+            }
+        } finally {
+            ProfileWriter.closeAll(profileWriters);
+            if (sorted != null) {
+                sorted.discard();
+            }
+        }
+        return totals;
+    }
+
+    private RunStats processParallel(
+            RowReaderFactory readers,
+            List<Path> inputFiles,
+            RunOutputs outputs,
+            List<OutputProfile> profiles
+    ) throws IOException {
+        MemoryBudget budget = new MemoryBudget(properties.getMaxInFlightBytes());
+        SortedDatasets sorted = sortedDatasets(inputFiles);
         try {
-            try (BufferedWriter allWriter = Files.newBufferedWriter(allTemp);
-                 BufferedWriter playersWriter = Files.newBufferedWriter(playersTemp);
-                 BufferedWriter teamsWriter = Files.newBufferedWriter(teamsTemp);
-                 CSVPrinter allPrinter = new CSVPrinter(allWriter, CSVFormat.DEFAULT.withHeader(headerArray()));
-                 CSVPrinter playersPrinter = new CSVPrinter(playersWriter, CSVFormat.DEFAULT.withHeader(headerArray()));
-                 CSVPrinter teamsPrinter = new CSVPrinter(teamsWriter, CSVFormat.DEFAULT.withHeader(headerArray()))
+            RunStats totals = mergeSegments(
+                    inputFiles,
+                    outputs,
+                    sorted,
+                    properties.isDedup() ? new RowKeySet() : null,
+                    (inputFile, keys) -> processSegments(readers, inputFile, outputs, budget, profiles, sorted, keys)
+            );
+            totals.segmentBudget = budget;
+            return totals;
+        } finally {
+            if (sorted != null) {
+                sorted.discard();
+            }
+        }
+    }
+
+    private RunStats processIncremental(
+            RowReaderFactory readers,
+            List<Path> inputFiles,
+            Path outputDir,
+            RunOutputs outputs
+    ) throws IOException {
+        SegmentCache cache = SegmentCache.load(outputDir, segmentSettings());
+        SortedDatasets sorted = sortedDatasets(inputFiles);
+        try {
+            RunStats totals = mergeSegments(
+                    inputFiles,
+                    outputs,
+                    sorted,
+                    null,
+                    (inputFile, keys) -> cachedSegments(readers, cache, inputFile, outputs, sorted)
+            );
+            cache.save(inputFiles);
+            return totals;
+        } finally {
+            if (sorted != null) {
+                sorted.discard();
+            }
+        }
+    }
+
+    // Segments come back in file order and are appended byte for byte; each dataset's header is written once.
+    // Columnar segments are appended group by group to the dataset's .pdc twin in the same order, and segment
+    // indexes are rebased to where their segment lands.
+    // Sorted base datasets have no segments: their rows sit in the file's sorters until every file is in.
+    private RunStats mergeSegments(
+            List<Path> inputFiles,
+            RunOutputs outputs,
+            SortedDatasets sorted,
+            RowKeySet seenKeys,
+            SegmentTask task
+    ) throws IOException {
+        ExecutorService executor =
+                Executors.newFixedThreadPool(workerCount(inputFiles), Workers.threadFactory("prodata-worker-"));
+        List<Future<YearSegments>> futures = new ArrayList<>();
+        RunStats totals = new RunStats();
+        totals.seenKeys = seenKeys;
+        List<OutputStream> streams = new ArrayList<>();
+        List<ColumnarRowWriter> columnar = new ArrayList<>();
+        List<SparseRowIndex.Builder> indexes = new ArrayList<>();
+        long[] positions = new long[outputs.datasets().size()];
+        try {
+            for (Path inputFile : inputFiles) {
+                futures.add(executor.submit(() -> task.process(inputFile, seenKeys == null ? null : new RowKeySet())));
+            }
+            for (DatasetOutput dataset : outputs.datasets()) {
+                if (sorted != null && dataset.base()) {
+                    streams.add(null);
+                    columnar.add(null);
+                    indexes.add(null);
+                    continue;
+                }
+                OutputStream stream = new BufferedOutputStream(datasetStream(outputs, dataset));
+                positions[streams.size()] = writeHeader(stream, dataset.columns());
+                streams.add(stream);
+                indexes.add(dataset.index() == null ? null : indexBuilder(dataset.columns()));
+                columnar.add(dataset.columnar() == null
+                        ? null
+                        : new ColumnarRowWriter(dataset.columnar(), dataset.columns()));
+            }
+            for (int i = 0; i < inputFiles.size(); i++) {
+                YearSegments segments = Workers.await(futures.get(i), "year segment");
+                if (seenKeys != null) {
+                    segments = claimKeys(segments, seenKeys, inputFiles.get(i), task);
+                }
+                try {
+                    List<Segment> inOrder = segments.inOrder();
+                    for (int d = 0; d < streams.size(); d++) {
+                        if (streams.get(d) == null) {
+                            continue;
+                        }
+                        Segment segment = inOrder.get(d);
+                        if (indexes.get(d) != null) {
+                            indexes.get(d).append(segments.indexes.get(segment), positions[d]);
+                        }
+                        if (segment == segments.all && segments.hashes != null) {
+                            outputs.hashes().append(segments.hashes, positions[d]);
+                        }
+                        segment.copyTo(streams.get(d));
+                        positions[d] += segment.size();
+                        if (columnar.get(d) != null) {
+                            columnar.get(d).append(segments.columnar.get(segment));
+                        }
+                    }
+                    if (segments.drafts != null) {
+                        outputs.drafts().append(segments.drafts);
+                    }
+                } finally {
+                    segments.discard();
+                }
+                if (segments.cached) {
+                    segments.stats.logCached(logger);
+                } else {
+                    segments.stats.logProcessed(logger);
+                }
+                totals.add(segments.stats);
+            }
+            for (OutputStream stream : streams) {
+                if (stream != null) {
+                    stream.close();
+                }
+            }
+            for (ColumnarRowWriter writer : columnar) {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+            for (int d = 0; d < indexes.size(); d++) {
+                if (indexes.get(d) != null) {
+                    indexes.get(d).build().write(outputs.datasets().get(d).index());
+                }
+            }
+            if (sorted != null) {
+                sorted.writeTo(outputs, dataset -> outputWriter(outputs, dataset, totals));
+            }
+        } finally {
+            streams.stream().filter(Objects::nonNull).forEach(this::closeQuietly);
+            columnar.stream().filter(Objects::nonNull).forEach(this::closeQuietly);
+            executor.shutdownNow();
+            for (Future<YearSegments> future : futures) {
+                discardWhenDone(future);
+            }
+        }
+        return totals;
+    }
+
+    // Workers only see their own file's keys. A file that repeats keys of an earlier file is re-run against the
+    // merged set, so the earliest file keeps each key exactly as in a serial run; clean files are merged as-is.
+    private YearSegments claimKeys(YearSegments segments, RowKeySet seenKeys, Path inputFile, SegmentTask task)
+            throws IOException {
+        if (!seenKeys.containsAny(segments.keys)) {
+            seenKeys.addAll(segments.keys);
+            segments.keys = null;
+            return segments;
+        }
+        segments.discard();
+        segments.keys = null;
+        logger.info("Re-processing {} to drop rows already seen in earlier files", inputFile.getFileName());
+        return task.process(inputFile, seenKeys);
+    }
+
+    private YearSegments processSegments(
+            RowReaderFactory readers,
+            Path inputFile,
+            RunOutputs outputs,
+            MemoryBudget budget,
+            List<OutputProfile> profiles,
+            SortedDatasets sorted,
+            RowKeySet keys
+    ) throws IOException {
+        Path outputDir = outputs.outputDir();
+        SegmentBuffer all = sorted == null ? segmentBuffer(budget, outputDir, "all") : null;
+        SegmentBuffer players = sorted == null ? segmentBuffer(budget, outputDir, "players") : null;
+        SegmentBuffer teams = sorted == null ? segmentBuffer(budget, outputDir, "teams") : null;
+        SegmentBuffer games = properties.isGames()
+                ? new SegmentBuffer(budget, gamesSpillDir(), "tmp_segment_games_")
+                : null;
+        List<Segment> profileSegments = new ArrayList<>();
+        YearSegments segments = new YearSegments(all, players, teams, games, profileSegments);
+        segments.keys = keys;
+        segments.drafts = segmentDrafts(outputs, sorted);
+        segments.hashes = segmentHashes(outputs, sorted);
+        try {
+            List<ProfileWriter> profileWriters = new ArrayList<>();
+            List<RowWriter> base = sorted == null ? null : sorted.writers(inputFile);
+            List<String> columns = ProDataColumns.OUTPUT_COLUMNS;
+            try (RowWriter allPrinter = sorted == null ? segmentWriter(segments, all, columns) : base.get(0);
+                 RowWriter playersPrinter = sorted == null ? segmentWriter(segments, players, columns) : base.get(1);
+                 RowWriter teamsPrinter = sorted == null
+                         ? withDrafts(segmentWriter(segments, teams, columns), segments.drafts)
+                         : base.get(2);
+                 RowWriter gamesPrinter =
+                         games == null ? null : segmentWriter(segments, games, ProDataColumns.GAME_COLUMNS)
             ) {
-                for (Path inputFile : inputFiles) {
-                    logger.info("Processing {}", inputFile);
-                    long fileAllCount = 0;
-                    long filePlayerCount = 0;
-                    long fileTeamCount = 0;
-                    long fileDroppedTeamCount = 0;
-                    try (BufferedReader reader = Files.newBufferedReader(inputFile)) {
-                        String headerLine = reader.readLine();
-                        HeaderIndex headerIndex = headerValidator.validate(headerLine);
-                        try (CSVParser parser = CSVParser.parse(reader, CSVFormat.DEFAULT)) {
-                            for (CSVRecord record : parser) {
-                                List<String> values = buildValues(record, headerIndex);
-                                RowFlags flags = classifyRow(values);
-                                if (flags.isTeam() && hasMissingPick(values)) {
-                                    fileDroppedTeamCount++;
-                                    droppedTeamCount++;
-                                    continue;
-                                }
-                                allPrinter.printRecord(values);
-                                allCount++;
-                                fileAllCount++;
-                                if (flags.isPlayer()) {
-                                    playersPrinter.printRecord(values);
-                                    playerCount++;
-                                    filePlayerCount++;
-                                }
-                                if (flags.isTeam()) {
-                                    teamsPrinter.printRecord(values);
-                                    teamCount++;
-                                    fileTeamCount++;
-                                }
-                            }
+                for (OutputProfile profile : profiles) {
+                    SegmentBuffer buffer =
+                            new SegmentBuffer(budget, profile.outputDir(), "tmp_segment_" + profile.name() + "_");
+                    profileSegments.add(buffer);
+                    profileWriters.add(new ProfileWriter(profile, segmentWriter(segments, buffer, profile.columns())));
+                }
+                segments.stats = processFile(
+                        readers,
+                        inputFile,
+                        allPrinter,
+                        playersPrinter,
+                        teamsPrinter,
+                        gamesPrinter,
+                        profileWriters,
+                        keys
+                );
+            } finally {
+                ProfileWriter.closeAll(profileWriters);
+            }
+            return segments;
+        } catch (IOException | RuntimeException e) {
+            segments.discard();
+            throw e;
+        }
+    }
+
+    private SegmentBuffer segmentBuffer(MemoryBudget budget, Path outputDir, String dataset) {
+        return new SegmentBuffer(budget, outputDir.resolve(dataset), "tmp_segment_" + dataset + "_");
+    }
+
+    private RowWriter segmentWriter(YearSegments segments, SegmentBuffer buffer, List<String> columns)
+            throws IOException {
+        PositionedRowWriter segment = writers.segment(buffer);
+        if (buffer == segments.all) {
+            segment = withHashes(segment, segments.hashes);
+        }
+        RowWriter writer = withIndex(segment, indexSegment(segments, buffer, columns));
+        return withColumnar(writer, columnarSegment(segments, buffer, buffer.spillDir()), columns);
+    }
+
+    // The index of one file's rows of a dataset, rebased by the merge; null without a sparse index.
+    private SparseRowIndex.Builder indexSegment(YearSegments segments, Segment segment, List<String> columns) {
+        SparseRowIndex.Builder index = indexBuilder(columns);
+        if (index != null) {
+            segments.indexes.put(segment, index);
+        }
+        return index;
+    }
+
+    private SparseRowIndex.Builder indexBuilder(List<String> columns) {
+        if (!properties.isSparseIndex() || !columns.contains("gameid")) {
+            return null;
+        }
+        return new SparseRowIndex.Builder(columns, properties.getIndexIntervalRows());
+    }
+
+    private RowWriter withIndex(PositionedRowWriter writer, SparseRowIndex.Builder index) {
+        return index == null ? writer : new IndexingRowWriter(writer, index, null);
+    }
+
+    // A temp .pdc of one file's rows of a dataset, appended to the dataset's twin by the merge; null without
+    // columnar output.
+    private Path columnarSegment(YearSegments segments, Segment segment, Path dir) throws IOException {
+        if (!properties.isColumnar()) {
+            return null;
+        }
+        Path columnar = Files.createTempFile(dir, "tmp_segment_columnar_", ".pdc");
+        segments.columnar.put(segment, columnar);
+        return columnar;
+    }
+
+    private YearSegments cachedSegments(
+            RowReaderFactory readers,
+            SegmentCache cache,
+            Path inputFile,
+            RunOutputs outputs,
+            SortedDatasets sorted
+    ) throws IOException {
+        SegmentCache.Lookup lookup = cache.lookup(inputFile);
+        SegmentCache.Entry entry = lookup.reusable();
+        if (entry != null) {
+            List<FileSegment> base = new ArrayList<>();
+            for (String dataset : DatasetOutput.BASE_DATASETS) {
+                base.add(new FileSegment(cache.segmentPath(entry, dataset)));
+            }
+            YearSegments segments = new YearSegments(base.get(0), base.get(1), base.get(2), null, List.of());
+            segments.cached = true;
+            segments.stats = new FileStats();
+            segments.stats.inputFile = inputFile;
+            segments.stats.cached = true;
+            segments.stats.allCount = entry.all();
+            segments.stats.playerCount = entry.players();
+            segments.stats.teamCount = entry.teams();
+            segments.stats.droppedTeamCount = entry.droppedTeamRows();
+            segments.stats.filteredCount = entry.filteredRows();
+            FileProcessedEvent.start(inputFile).finish(
+                    true,
+                    entry.all(),
+                    entry.players(),
+                    entry.teams(),
+                    entry.droppedTeamRows(),
+                    entry.filteredRows(),
+                    0
+            );
+            if (sorted != null) {
+                for (int d = 0; d < base.size(); d++) {
+                    sorted.load(inputFile, d, base.get(d).path());
+                }
+                return segments;
+            }
+            // Cached segments are the one case where rows are parsed again: only their CSV form is kept.
+            segments.drafts = segmentDrafts(outputs, sorted);
+            segments.hashes = segmentHashes(outputs, sorted);
+            try {
+                for (int d = 0; d < base.size(); d++) {
+                    FileSegment segment = base.get(d);
+                    SparseRowIndex.Builder index = indexSegment(segments, segment, ProDataColumns.OUTPUT_COLUMNS);
+                    if (index != null) {
+                        index.scan(segment.path());
+                    }
+                    if (segment == segments.all && segments.hashes != null) {
+                        segments.hashes.scan(segment.path());
+                    }
+                    List<RowWriter> targets = new ArrayList<>();
+                    Path dir = outputs.outputDir().resolve(DatasetOutput.BASE_DATASETS.get(d));
+                    Path columnar = columnarSegment(segments, segment, dir);
+                    if (columnar != null) {
+                        targets.add(new ColumnarRowWriter(columnar, ProDataColumns.OUTPUT_COLUMNS));
+                    }
+                    if (segment == segments.teams && segments.drafts != null) {
+                        targets.add(segments.drafts);
+                    }
+                    if (!targets.isEmpty()) {
+                        try (RowWriter writer = new TeeRowWriter(targets)) {
+                            segment.replay(writer, ProDataColumns.OUTPUT_COLUMNS.size());
                         }
                     }
-                    logger.info(
-                            "Processed {} (all={}, players={}, teams={}, droppedTeamRows={})",
-                            inputFile.getFileName(),
-                            fileAllCount,
-                            filePlayerCount,
-                            fileTeamCount,
-                            fileDroppedTeamCount
-                    );
                 }
+            } catch (IOException | RuntimeException e) {
+                segments.discard();
+                throw e;
             }
-            moveAtomic(allTemp, allOutput);
-            moveAtomic(playersTemp, playersOutput);
-            moveAtomic(teamsTemp, teamsOutput);
-        } catch (Exception e) {
-            deleteIfExists(allTemp);
-            deleteIfExists(playersTemp);
-            deleteIfExists(teamsTemp);
+            return segments;
+        }
+
+        Path segmentDir = cache.segmentDir(lookup);
+        List<FileSegment> base = new ArrayList<>();
+        for (String dataset : DatasetOutput.BASE_DATASETS) {
+            base.add(new FileSegment(segmentDir.resolve(dataset + ".csv")));
+        }
+        YearSegments segments = new YearSegments(base.get(0), base.get(1), base.get(2), null, List.of());
+        segments.drafts = segmentDrafts(outputs, sorted);
+        segments.hashes = segmentHashes(outputs, sorted);
+        // The cache always keeps file-order segments; with sorted-output the rows also go to the file's sorters.
+        List<RowWriter> sortedWriters = sorted == null ? List.of() : sorted.writers(inputFile);
+        try (RowWriter allPrinter = cacheWriter(segments, base.get(0), sortedWriters, 0);
+             RowWriter playersPrinter = cacheWriter(segments, base.get(1), sortedWriters, 1);
+             RowWriter teamsPrinter = withDrafts(cacheWriter(segments, base.get(2), sortedWriters, 2), segments.drafts)
+        ) {
+            segments.stats =
+                    processFile(readers, inputFile, allPrinter, playersPrinter, teamsPrinter, null, List.of(), null);
+        } catch (IOException | RuntimeException e) {
+            segments.discard();
             throw e;
         }
+        FileStats stats = segments.stats;
+        cache.record(
+                lookup,
+                segmentDir,
+                stats.allCount,
+                stats.playerCount,
+                stats.teamCount,
+                stats.droppedTeamCount,
+                stats.filteredCount
+        );
+        return segments;
+    }
 
-        logger.info(
-                "Pro data processing complete (all={}, players={}, teams={}, droppedTeamRows={}) -> {}",
-                allCount,
-                playerCount,
-                teamCount,
-                droppedTeamCount,
-                outputDir
+    private RowWriter cacheWriter(YearSegments segments, FileSegment segment, List<RowWriter> sorted, int dataset)
+            throws IOException {
+        PositionedRowWriter csv = writers.csv(segment.path(), false);
+        if (!sorted.isEmpty()) {
+            return new TeeRowWriter(List.of(csv, sorted.get(dataset)));
+        }
+        if (segment == segments.all) {
+            csv = withHashes(csv, segments.hashes);
+        }
+        List<String> columns = ProDataColumns.OUTPUT_COLUMNS;
+        RowWriter writer = withIndex(csv, indexSegment(segments, segment, columns));
+        Path dir = resolveOutputDir().resolve(DatasetOutput.BASE_DATASETS.get(dataset));
+        return withColumnar(writer, columnarSegment(segments, segment, dir), columns);
+    }
+
+    private FileStats processFile(
+            RowReaderFactory readers,
+            Path inputFile,
+            RowWriter allPrinter,
+            RowWriter playersPrinter,
+            RowWriter teamsPrinter,
+            RowWriter gamesPrinter,
+            List<ProfileWriter> profileWriters,
+            RowKeySet seenKeys
+    ) throws IOException {
+        logger.info("Processing {}", inputFile);
+        FileStats stats = new FileStats();
+        stats.inputFile = inputFile;
+        stats.profileRows = new long[profileWriters.size()];
+        StageSampler sampler = new StageSampler(properties.getMetricsSampleRows());
+        FileStartedEvent.emit(inputFile);
+        FileProcessedEvent fileEvent = FileProcessedEvent.start(inputFile);
+        RowBatchRecorder batches = new RowBatchRecorder(inputFile, properties.getJfrBatchRows());
+        long startNanos = System.nanoTime();
+        DraftAssembler drafts = null;
+        if (properties.isAggregates()) {
+            stats.champions = new ChampionAggregates();
+        }
+        try (ProjectedRowReader reader = readers.open(inputFile)) {
+            ProjectionPlan plan = reader.plan();
+            ProRow row = new ProRow(plan.width());
+            int baseWidth = ProDataColumns.OUTPUT_COLUMNS.size();
+            int gameSlot = ProDataColumns.OUTPUT_INDEX.get("gameid");
+            // Profile-only columns trail the base slots; the base datasets get a row trimmed back to them.
+            ProRow base = plan.width() > baseWidth ? new ProRow(baseWidth) : null;
+            if (gamesPrinter != null) {
+                drafts = new DraftAssembler(
+                        gamesPrinter, gamesSpillDir(), baseWidth, properties.getDraftPendingGames());
+            }
+            while (true) {
+                sampler.begin();
+                if (!reader.next(row)) {
+                    break;
+                }
+                batches.row();
+                sampler.lap(StageSampler.READ);
+                int flags = RowClassifier.classifyRow(row);
+                boolean incompleteTeamRow =
+                        (flags & RowClassifier.TEAM_ROW) != 0 && RowClassifier.hasMissingPick(row, plan);
+                // Only rows that survive the incomplete-row drop claim a key, so a later complete copy still wins.
+                String gameId = row.value(gameSlot);
+                if (seenKeys != null && !incompleteTeamRow && !gameId.isEmpty()
+                        && !seenKeys.add(gameId, row.participantId())) {
+                    stats.duplicateCount++;
+                    sampler.lap(StageSampler.CLASSIFY);
+                    continue;
+                }
+                sampler.lap(StageSampler.CLASSIFY);
+                for (int i = 0; i < profileWriters.size(); i++) {
+                    if (profileWriters.get(i).offer(row, flags, incompleteTeamRow)) {
+                        stats.profileRows[i]++;
+                    }
+                }
+                if (incompleteTeamRow) {
+                    stats.droppedTeamCount++;
+                    sampler.lap(StageSampler.WRITE);
+                    continue;
+                }
+                ProRow output = row;
+                if (base != null) {
+                    base.copyFrom(row);
+                    output = base;
+                }
+                allPrinter.write(output);
+                stats.allCount++;
+                if ((flags & RowClassifier.PLAYER_ROW) != 0) {
+                    playersPrinter.write(output);
+                    stats.playerCount++;
+                }
+                if ((flags & RowClassifier.TEAM_ROW) != 0) {
+                    teamsPrinter.write(output);
+                    stats.teamCount++;
+                    if (drafts != null) {
+                        drafts.accept(output);
+                    }
+                    if (stats.champions != null) {
+                        stats.champions.accept(output);
+                    }
+                }
+                sampler.lap(StageSampler.WRITE);
+            }
+            stats.filteredCount = reader.filteredRows();
+            batches.finish();
+            if (drafts != null) {
+                drafts.finish();
+                stats.gameCount = drafts.gameCount();
+                stats.unpairedGameCount = drafts.unpairedCount();
+                stats.spilledDraftCount = drafts.spilledCount();
+            }
+        } finally {
+            if (drafts != null) {
+                drafts.discard();
+            }
+        }
+        stats.inputBytes = Files.size(inputFile);
+        stats.elapsedNanos = System.nanoTime() - startNanos;
+        for (int stage = 0; stage < stats.stageNanos.length; stage++) {
+            stats.stageNanos[stage] = sampler.estimatedNanos(stage);
+        }
+        fileEvent.finish(
+                false,
+                stats.allCount,
+                stats.playerCount,
+                stats.teamCount,
+                stats.droppedTeamCount,
+                stats.filteredCount,
+                stats.inputBytes
         );
+        return stats;
+    }
+
+    private void writeAggregates(
+            ChampionAggregates champions,
+            RunDictionaries dictionaries,
+            Path aggregateDir,
+            String runId
+    ) throws IOException {
+        Files.createDirectories(aggregateDir);
+        Path temp = OutputFiles.createTempFile(aggregateDir, "tmp_champions_");
+        try {
+            champions.write(temp, dictionaries);
+            OutputFiles.moveAtomic(temp, aggregateDir.resolve("champions_" + runId + ".csv"));
+        } catch (IOException | RuntimeException e) {
+            OutputFiles.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private void fillReport(RunReport report, RunStats totals, List<OutputProfile> profiles) {
+        report.setting("reader", properties.getReader().name().toLowerCase(Locale.ROOT));
+        report.setting("parallelism", properties.getParallelism());
+        report.setting("chunkParallelism", properties.getChunkParallelism());
+        report.setting("csvWriter", properties.getCsvWriter().name().toLowerCase(Locale.ROOT));
+        report.setting("asyncWriters", properties.isAsyncWriters());
+        report.setting("outputLayout", properties.getOutputLayout().name().toLowerCase(Locale.ROOT));
+        report.setting("outputCompression", properties.getOutputCompression().name().toLowerCase(Locale.ROOT));
+        report.setting("incremental", properties.isIncremental());
+        report.setting("metricsSampleRows", properties.getMetricsSampleRows());
+        report.setting("delta", properties.isDelta());
+        report.setting("dedup", properties.isDedup());
+        report.setting("sortedOutput", properties.isSortedOutput());
+        report.setting("sparseIndex", properties.isSparseIndex());
+        report.rows("all", totals.allCount);
+        report.rows("players", totals.playerCount);
+        report.rows("teams", totals.teamCount);
+        report.rows("dropped_team", totals.droppedTeamCount);
+        report.rows("duplicate", totals.duplicateCount);
+        report.rows("filtered", totals.filteredCount);
+        report.rows("games", totals.gameCount);
+        report.rows("unpaired_games", totals.unpairedGameCount);
+        report.rows("spilled_draft_halves", totals.spilledDraftCount);
+        for (int i = 0; i < profiles.size(); i++) {
+            report.rows("profile_" + profiles.get(i).name(), i < totals.profileRows.length ? totals.profileRows[i] : 0);
+        }
+        if (totals.delta != null) {
+            report.rows("delta_added_games", totals.delta.added().size());
+            report.rows("delta_changed_games", totals.delta.changed().size());
+            report.rows("delta_removed_games", totals.delta.removed().size());
+        }
+        for (int stage = 0; stage < StageSampler.STAGES.length; stage++) {
+            report.stage(StageSampler.STAGES[stage], totals.stageNanos[stage]);
+        }
+        totals.phaseNanos.forEach(report::stage);
+        for (FileStats file : totals.files) {
+            Map<String, Long> stages = new LinkedHashMap<>();
+            for (int stage = 0; stage < StageSampler.STAGES.length; stage++) {
+                stages.put(StageSampler.STAGES[stage], file.stageNanos[stage]);
+            }
+            report.file(
+                    file.inputFile.getFileName().toString(),
+                    file.cached,
+                    file.inputBytes,
+                    file.allCount + file.droppedTeamCount,
+                    file.elapsedNanos,
+                    stages
+            );
+        }
+        totals.writerQueues.forEach((name, writer) ->
+                report.queue(name, writer.peakQueuedBatches(), writer.capacityBatches()));
+        if (totals.segmentBudget != null) {
+            report.segmentBudget(totals.segmentBudget.peakBytes(), totals.segmentBudget.limitBytes());
+        }
+    }
+
+    private void writeRunReport(RunReport report, Path reportDir, String runId) throws IOException {
+        Files.createDirectories(reportDir);
+        Path temp = Files.createTempFile(reportDir, "tmp_run_", ".json");
+        try {
+            report.write(temp, objectMapper);
+            OutputFiles.moveAtomic(temp, reportDir.resolve("run_" + runId + ".json"));
+        } catch (IOException | RuntimeException e) {
+            OutputFiles.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private String segmentSettings() {
+        String settings = String.join(",", ProDataColumns.OUTPUT_COLUMNS);
+        RowFilter filter = RowFilter.from(properties);
+        if (filter.isActive()) {
+            settings += "#" + filter.settings();
+        }
+        return Integer.toHexString(settings.hashCode());
+    }
+
+    private Path gamesSpillDir() {
+        return resolveOutputDir().resolve("games");
+    }
+
+    private int workerCount(List<Path> inputFiles) {
+        return Math.max(1, Math.min(properties.getParallelism(), inputFiles.size()));
+    }
+
+    private void discardWhenDone(Future<YearSegments> future) {
+        if (future.isCancelled()) {
+            return;
+        }
+        try {
+            future.get().discard();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Failed workers discard their own segments.
+        }
+    }
+
+    private RowWriter outputWriter(RunOutputs outputs, DatasetOutput dataset, RunStats totals) throws IOException {
+        PositionedRowWriter csv = dataset.blocks() == null
+                ? writers.csv(dataset.temp(), dataset.columns())
+                : compressedCsv(outputs, dataset);
+        if (dataset.name().equals("all")) {
+            csv = withHashes(csv, outputs.hashes());
+        }
+        RowWriter writer = dataset.index() == null
+                ? csv
+                : new IndexingRowWriter(csv, indexBuilder(dataset.columns()), dataset.index());
+        writer = withColumnar(writer, dataset.columnar(), dataset.columns());
+        if (dataset.name().equals("teams")) {
+            writer = withDrafts(writer, outputs.drafts());
+        }
+        if (!properties.isAsyncWriters()) {
+            return writer;
+        }
+        AsyncRowWriter async = new AsyncRowWriter(
+                writer, dataset.name(), properties.getWriterBatchRows(), properties.getWriterQueueBatches());
+        totals.writerQueues.put(dataset.name(), async);
+        return async;
+    }
+
+    private PositionedRowWriter compressedCsv(RunOutputs outputs, DatasetOutput dataset) throws IOException {
+        OutputStream out = datasetStream(outputs, dataset);
+        try {
+            return writers.csv(out, dataset.columns());
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(out);
+            throw e;
+        }
+    }
+
+    // With output compression the CSV bytes are also cut into blocks and compressed as they are written.
+    private OutputStream datasetStream(RunOutputs outputs, DatasetOutput dataset) throws IOException {
+        OutputStream csv = Files.newOutputStream(dataset.temp());
+        if (dataset.blocks() == null) {
+            return csv;
+        }
+        try {
+            return new TeeOutputStream(
+                    List.of(csv, outputs.compressor().open(dataset.blocks(), dataset.blockIndex())));
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(csv);
+            throw e;
+        }
+    }
+
+    private PositionedRowWriter withHashes(PositionedRowWriter writer, GameHashIndex.Builder hashes) {
+        return hashes == null ? writer : new HashingRowWriter(writer, hashes);
+    }
+
+    // The hashes of one file's all rows, folded by the merge after the rows of every earlier file; null without
+    // delta or when the sorted output folds them.
+    private GameHashIndex.Builder segmentHashes(RunOutputs outputs, SortedDatasets sorted) {
+        return sorted != null || outputs.hashes() == null ? null : GameHashIndex.Builder.deferred();
+    }
+
+    private RowWriter withDrafts(RowWriter writer, ChampionMatrices.Drafts drafts) {
+        return drafts == null ? writer : new TeeRowWriter(List.of(writer, drafts));
+    }
+
+    // The drafts of one file's teams rows, paired by the merge after the drafts of every earlier file; null when
+    // matrices are off or the sorted output collects them.
+    private ChampionMatrices.Drafts segmentDrafts(RunOutputs outputs, SortedDatasets sorted) {
+        if (sorted != null || outputs.drafts() == null) {
+            return null;
+        }
+        return ChampionMatrices.Drafts.deferred(outputs.dictionaries());
+    }
+
+    // With columnar output each row is also encoded into a .pdc file as it is written.
+    private RowWriter withColumnar(RowWriter writer, Path columnar, List<String> columns) throws IOException {
+        if (columnar == null) {
+            return writer;
+        }
+        try {
+            return new TeeRowWriter(List.of(writer, new ColumnarRowWriter(columnar, columns)));
+        } catch (IOException | RuntimeException e) {
+            writer.close();
+            throw e;
+        }
+    }
+
+    private int writeHeader(OutputStream stream, List<String> columns) throws IOException {
+        StringBuilder header = new StringBuilder();
+        CSVFormat format = CSVFormat.DEFAULT.withHeader(columns.toArray(new String[0]));
+        try (CSVPrinter printer = new CSVPrinter(header, format)) {
+            printer.flush();
+        }
+        byte[] bytes = header.toString().getBytes(StandardCharsets.UTF_8);
+        stream.write(bytes);
+        return bytes.length;
     }
 
     private Path resolveInputDir() {
@@ -175,11 +1101,7 @@ public class ProDataProcessorJob {
                 if (year == null) {
                     continue;
                 }
-                Path candidate = inputDir.resolve(fileNameForYear(year));
-                if (!Files.exists(candidate)) {
-                    throw new IllegalStateException("Missing input CSV for year " + year + ": " + candidate);
-                }
-                resolved.add(candidate);
+                resolved.add(resolveYearFile(inputDir, year));
             }
             return resolved;
         }
@@ -194,14 +1116,29 @@ public class ProDataProcessorJob {
             if (matches.isEmpty()) {
                 throw new IllegalStateException("No Oracle's Elixir CSVs found in " + inputDir);
             }
-            return matches.stream()
-                    .sorted(Comparator.comparingInt(this::extractYear).thenComparing(Path::toString))
-                    .toList();
+            Map<Integer, Path> byYear = new TreeMap<>();
+            matches.stream()
+                    .sorted(Comparator.comparing(InputCompression::of).thenComparing(Path::toString))
+                    .forEach(path -> {
+                        Path kept = byYear.putIfAbsent(extractYear(path), path);
+                        if (kept != null) {
+                            logger.warn("Ignoring {}; {} covers the same year", path.getFileName(), kept.getFileName());
+                        }
+                    });
+            return List.copyOf(byYear.values());
         }
     }
 
-    private String fileNameForYear(int year) {
-        return String.format(Locale.ROOT, "%d_LoL_esports_match_data_from_OraclesElixir.csv", year);
+    private Path resolveYearFile(Path inputDir, int year) {
+        String baseName = String.format(Locale.ROOT, "%d_LoL_esports_match_data_from_OraclesElixir", year);
+        for (InputCompression compression : InputCompression.values()) {
+            Path candidate = inputDir.resolve(baseName + compression.suffix());
+            if (Files.exists(candidate)) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException(
+                "Missing input CSV for year " + year + ": " + inputDir.resolve(baseName + ".csv"));
     }
 
     private int extractYear(Path path) {
@@ -217,83 +1154,58 @@ public class ProDataProcessorJob {
         return formatter.format(Instant.now());
     }
 
-    private List<String> buildValues(CSVRecord record, HeaderIndex headerIndex) {
-        List<String> values = new ArrayList<>(ProDataColumns.OUTPUT_COLUMNS.size());
-        for (String column : ProDataColumns.OUTPUT_COLUMNS) {
-            values.add(readValue(record, headerIndex, column));
-        }
-        return values;
-    }
-
-    private RowFlags classifyRow(List<String> values) {
-        String participantText = values.get(ProDataColumns.OUTPUT_INDEX.get("participantid"));
-        OptionalInt participantId = parseInt(participantText);
-        boolean isTeam = participantId.isPresent() && (participantId.getAsInt() == 100 || participantId.getAsInt() == 200);
-        boolean isPlayer = participantId.isPresent() && participantId.getAsInt() >= 1 && participantId.getAsInt() <= 10;
-        return new RowFlags(isPlayer, isTeam);
-    }
-
-    private boolean hasMissingPick(List<String> values) {
-        for (String column : ProDataColumns.PICK_COLUMNS) {
-            Integer index = ProDataColumns.OUTPUT_INDEX.get(column);
-            if (index == null) {
-                continue;
-            }
-            String value = values.get(index);
-            if (value == null || value.isBlank()) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private String readValue(CSVRecord record, HeaderIndex headerIndex, String column) {
-        int index = headerIndex.indexOf(column);
-        if (index < 0 || index >= record.size()) {
-            return "";
-        }
-        String value = record.get(index);
-        if (value == null) {
-            return "";
-        }
-        return value.trim();
-    }
-
-    private OptionalInt parseInt(String value) {
-        if (value == null || value.isBlank()) {
-            return OptionalInt.empty();
-        }
+    private void closeQuietly(Closeable stream) {
         try {
-            return OptionalInt.of(Integer.parseInt(value.trim()));
-        } catch (NumberFormatException e) {
-            return OptionalInt.empty();
+            stream.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close segment output", e);
         }
     }
 
-    private String[] headerArray() {
-        return ProDataColumns.OUTPUT_COLUMNS.toArray(new String[0]);
+    private interface SegmentTask {
+        YearSegments process(Path inputFile, RowKeySet keys) throws IOException;
     }
 
-    private Path createTempFile(Path dir, String prefix) throws IOException {
-        return Files.createTempFile(dir, prefix, ".csv");
-    }
+    private static final class YearSegments {
+        private final Segment all;
+        private final Segment players;
+        private final Segment teams;
+        private final Segment games;
+        private final List<Segment> profiles;
+        private final Map<Segment, Path> columnar = new HashMap<>();
+        private final Map<Segment, SparseRowIndex.Builder> indexes = new HashMap<>();
+        private ChampionMatrices.Drafts drafts;
+        private GameHashIndex.Builder hashes;
+        private FileStats stats;
+        private boolean cached;
+        private RowKeySet keys;
 
-    private void moveAtomic(Path source, Path target) throws IOException {
-        try {
-            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException e) {
-            throw new IOException("Atomic move failed for " + target, e);
+        YearSegments(Segment all, Segment players, Segment teams, Segment games, List<Segment> profiles) {
+            this.all = all;
+            this.players = players;
+            this.teams = teams;
+            this.games = games;
+            this.profiles = profiles;
         }
-    }
 
-    private void deleteIfExists(Path path) {
-        try {
-            Files.deleteIfExists(path);
-        } catch (IOException e) {
-            logger.warn("Failed to delete temp file {}", path, e);
+        // Matches the order of the run's datasets: all, players, teams, games, then profiles. The base segments are
+        // null when their rows went to sorters instead.
+        List<Segment> inOrder() {
+            List<Segment> segments = new ArrayList<>(Arrays.asList(all, players, teams));
+            if (games != null) {
+                segments.add(games);
+            }
+            segments.addAll(profiles);
+            return segments;
         }
-    }
 
-    private record RowFlags(boolean isPlayer, boolean isTeam) {
+        void discard() {
+            for (Segment segment : inOrder()) {
+                if (segment != null) {
+                    segment.discard();
+                }
+            }
+            columnar.values().forEach(OutputFiles::deleteIfExists);
+        }
     }
 }
@@ -0,0 +1,61 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.write.RowWriter;
+
+// Projects full-width rows onto one profile's columns before handing them to that profile's writer.
+final class ProfileWriter implements RowWriter {
+    private final OutputProfile profile;
+    private final RowWriter delegate;
+    private final ProRow projected;
+
+    ProfileWriter(OutputProfile profile, RowWriter delegate) {
+        this.profile = profile;
+        this.delegate = delegate;
+        this.projected = new ProRow(profile.slots().length);
+    }
+
+    boolean offer(ProRow row, int flags, boolean incompleteTeamRow) throws IOException {
+        if (!profile.accepts(flags, incompleteTeamRow)) {
+            return false;
+        }
+        write(row);
+        return true;
+    }
+
+    @Override
+    public void write(ProRow row) throws IOException {
+        int[] slots = profile.slots();
+        String[] values = projected.values();
+        for (int i = 0; i < slots.length; i++) {
+            values[i] = row.value(slots[i]);
+        }
+        delegate.write(projected);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    static void closeAll(List<ProfileWriter> writers) throws IOException {
+        IOException failure = null;
+        for (ProfileWriter writer : writers) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.jmirving.prodata.processor.job;
+
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.validate.ProjectionPlan;
+
+public final class RowClassifier {
+    public static final int PLAYER_ROW = 1;
+    public static final int TEAM_ROW = 2;
+
+    private RowClassifier() {
+    }
+
+    public static int classifyRow(ProRow row) {
+        if (row.isTeam()) {
+            return TEAM_ROW;
+        }
+        if (row.isPlayer()) {
+            return PLAYER_ROW;
+        }
+        return 0;
+    }
+
+    public static boolean hasMissingPick(ProRow row, ProjectionPlan plan) {
+        for (int i = 0; i < plan.pickSlotCount(); i++) {
+            if (row.value(plan.pickSlot(i)).isBlank()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,134 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jmirving.prodata.processor.aggregate.ChampionMatrices;
+import com.jmirving.prodata.processor.delta.GameHashIndex;
+import com.jmirving.prodata.processor.model.RunDictionaries;
+import com.jmirving.prodata.processor.write.BlockGzipCompressor;
+
+// Everything a run has written but not yet published. Output stages read the CSV temps and register sidecar
+// temps; publish() moves them all into place only after every stage succeeded.
+final class RunOutputs {
+    private final Path outputDir;
+    private final String runId;
+    private final RunDictionaries dictionaries;
+    private final List<DatasetOutput> datasets = new ArrayList<>();
+    private final Map<Path, Path> sidecars = new LinkedHashMap<>();
+    private ChampionMatrices.Drafts drafts;
+    private GameHashIndex.Builder hashes;
+    private BlockGzipCompressor compressor;
+    private boolean csvDropped;
+
+    RunOutputs(Path outputDir, String runId, RunDictionaries dictionaries) {
+        this.outputDir = outputDir;
+        this.runId = runId;
+        this.dictionaries = dictionaries;
+    }
+
+    Path outputDir() {
+        return outputDir;
+    }
+
+    String runId() {
+        return runId;
+    }
+
+    RunDictionaries dictionaries() {
+        return dictionaries;
+    }
+
+    List<DatasetOutput> datasets() {
+        return datasets;
+    }
+
+    DatasetOutput dataset(String name) {
+        for (DatasetOutput dataset : datasets) {
+            if (dataset.name().equals(name)) {
+                return dataset;
+            }
+        }
+        throw new IllegalArgumentException("No dataset named " + name);
+    }
+
+    void add(DatasetOutput dataset) {
+        datasets.add(dataset);
+    }
+
+    // Team rows paired into drafts while they are written; null without matrices.
+    ChampionMatrices.Drafts drafts() {
+        return drafts;
+    }
+
+    void collectDrafts(ChampionMatrices.Drafts drafts) {
+        this.drafts = drafts;
+    }
+
+    // Game hashes of the all rows folded while they are written; null without delta.
+    GameHashIndex.Builder hashes() {
+        return hashes;
+    }
+
+    void collectHashes(GameHashIndex.Builder hashes) {
+        this.hashes = hashes;
+    }
+
+    // Compresses each dataset's CSV bytes into blocks as they are written; null without output compression.
+    BlockGzipCompressor compressor() {
+        return compressor;
+    }
+
+    void compressWith(BlockGzipCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    // Runs each stage in order and records its time as a run phase; returns the end of the last phase.
+    long run(List<OutputStage> stages, RunStats totals, long phase) throws IOException {
+        for (OutputStage stage : stages) {
+            stage.write(this, totals);
+            phase = totals.phase(stage.phase(), phase);
+        }
+        return phase;
+    }
+
+    void sidecar(Path temp, Path target) {
+        sidecars.put(temp, target);
+    }
+
+    // The CSVs are replaced by sidecars (e.g. their compressed form) and are not published themselves.
+    void dropCsv() {
+        datasets.forEach(dataset -> OutputFiles.deleteIfExists(dataset.temp()));
+        csvDropped = true;
+    }
+
+    List<Path> targets() {
+        List<Path> targets = new ArrayList<>();
+        if (!csvDropped) {
+            datasets.forEach(dataset -> targets.add(dataset.output()));
+        }
+        targets.addAll(sidecars.values());
+        return targets;
+    }
+
+    void publish() throws IOException {
+        OutputFiles.requireDistinctTargets(targets());
+        if (!csvDropped) {
+            for (DatasetOutput dataset : datasets) {
+                OutputFiles.moveAtomic(dataset.temp(), dataset.output());
+            }
+        }
+        for (Map.Entry<Path, Path> sidecar : sidecars.entrySet()) {
+            OutputFiles.moveAtomic(sidecar.getKey(), sidecar.getValue());
+        }
+    }
+
+    void discard() {
+        datasets.forEach(dataset -> OutputFiles.deleteIfExists(dataset.temp()));
+        sidecars.keySet().forEach(OutputFiles::deleteIfExists);
+    }
+}
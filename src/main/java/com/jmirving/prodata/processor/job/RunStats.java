@@ -0,0 +1,57 @@
+package com.jmirving.prodata.processor.job;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jmirving.prodata.processor.aggregate.ChampionAggregates;
+import com.jmirving.prodata.processor.dedup.RowKeySet;
+import com.jmirving.prodata.processor.delta.GameHashIndex;
+import com.jmirving.prodata.processor.write.AsyncRowWriter;
+
+final class RunStats extends FileStats {
+    final List<FileStats> files = new ArrayList<>();
+    final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    final Map<String, AsyncRowWriter> writerQueues = new LinkedHashMap<>();
+    MemoryBudget segmentBudget;
+    GameHashIndex.Changes delta;
+    RowKeySet seenKeys;
+
+    RunStats() {
+        champions = new ChampionAggregates();
+    }
+
+    long phase(String name, long startNanos) {
+        long now = System.nanoTime();
+        phaseNanos.merge(name, now - startNanos, Long::sum);
+        return now;
+    }
+
+    void add(FileStats stats) {
+        files.add(stats);
+        inputBytes += stats.inputBytes;
+        for (int stage = 0; stage < stageNanos.length; stage++) {
+            stageNanos[stage] += stats.stageNanos[stage];
+        }
+        allCount += stats.allCount;
+        playerCount += stats.playerCount;
+        teamCount += stats.teamCount;
+        droppedTeamCount += stats.droppedTeamCount;
+        duplicateCount += stats.duplicateCount;
+        filteredCount += stats.filteredCount;
+        gameCount += stats.gameCount;
+        unpairedGameCount += stats.unpairedGameCount;
+        spilledDraftCount += stats.spilledDraftCount;
+        if (stats.champions != null) {
+            champions.merge(stats.champions);
+        }
+        if (profileRows.length < stats.profileRows.length) {
+            profileRows = Arrays.copyOf(profileRows, stats.profileRows.length);
+        }
+        for (int i = 0; i < stats.profileRows.length; i++) {
+            profileRows[i] += stats.profileRows[i];
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+interface Segment {
+    void copyTo(OutputStream target) throws IOException;
+
+    long size() throws IOException;
+
+    void discard();
+}
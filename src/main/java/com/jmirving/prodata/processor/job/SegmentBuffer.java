@@ -0,0 +1,133 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+final class SegmentBuffer extends OutputStream implements Segment {
+    private static final Logger logger = LoggerFactory.getLogger(SegmentBuffer.class);
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final MemoryBudget budget;
+    private final Path spillDir;
+    private final String spillPrefix;
+    private final List<byte[]> chunks = new ArrayList<>();
+    private int chunkPosition = CHUNK_SIZE;
+    private long reservedBytes;
+    private long size;
+    private Path spillFile;
+    private OutputStream spillStream;
+
+    SegmentBuffer(MemoryBudget budget, Path spillDir, String spillPrefix) {
+        this.budget = budget;
+        this.spillDir = spillDir;
+        this.spillPrefix = spillPrefix;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        size += length;
+        if (spillStream != null) {
+            spillStream.write(bytes, offset, length);
+            return;
+        }
+        while (length > 0) {
+            if (chunkPosition == CHUNK_SIZE) {
+                if (!budget.tryReserve(CHUNK_SIZE)) {
+                    spill();
+                    spillStream.write(bytes, offset, length);
+                    return;
+                }
+                reservedBytes += CHUNK_SIZE;
+                chunks.add(new byte[CHUNK_SIZE]);
+                chunkPosition = 0;
+            }
+            int count = Math.min(length, CHUNK_SIZE - chunkPosition);
+            System.arraycopy(bytes, offset, chunks.get(chunks.size() - 1), chunkPosition, count);
+            chunkPosition += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (spillStream != null) {
+            spillStream.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (spillStream != null) {
+            spillStream.close();
+        }
+    }
+
+    Path spillDir() {
+        return spillDir;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    @Override
+    public void copyTo(OutputStream target) throws IOException {
+        if (spillFile != null) {
+            Files.copy(spillFile, target);
+            return;
+        }
+        for (int i = 0; i < chunks.size(); i++) {
+            int length = i == chunks.size() - 1 ? chunkPosition : CHUNK_SIZE;
+            target.write(chunks.get(i), 0, length);
+        }
+    }
+
+    @Override
+    public void discard() {
+        chunks.clear();
+        chunkPosition = CHUNK_SIZE;
+        budget.release(reservedBytes);
+        reservedBytes = 0;
+        if (spillFile != null) {
+            try {
+                if (spillStream != null) {
+                    spillStream.close();
+                }
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                logger.warn("Failed to delete segment spill file {}", spillFile, e);
+            }
+        }
+    }
+
+    private void spill() throws IOException {
+        Path file = Files.createTempFile(spillDir, spillPrefix, ".csv");
+        OutputStream stream = new BufferedOutputStream(Files.newOutputStream(file), CHUNK_SIZE);
+        copyTo(stream);
+        spillFile = file;
+        spillStream = stream;
+        chunks.clear();
+        chunkPosition = CHUNK_SIZE;
+        budget.release(reservedBytes);
+        reservedBytes = 0;
+    }
+}
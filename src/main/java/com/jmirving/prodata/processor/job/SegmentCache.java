@@ -0,0 +1,252 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+final class SegmentCache {
+    static final String MANIFEST_FILE = "segment-manifest.csv";
+    static final String CACHE_DIR = "segments";
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentCache.class);
+    private static final String[] MANIFEST_HEADER = {
+            "file", "size", "mtime", "sha256", "settings", "segment", "all", "players", "teams", "droppedTeamRows",
+            "filteredRows"
+    };
+
+    private final Path manifestPath;
+    private final Path cacheDir;
+    private final String settings;
+    private final Map<String, Entry> previousEntries;
+    private final Map<String, Entry> currentEntries = new ConcurrentHashMap<>();
+
+    private SegmentCache(Path outputDir, String settings, Map<String, Entry> previousEntries) {
+        this.manifestPath = outputDir.resolve(MANIFEST_FILE);
+        this.cacheDir = outputDir.resolve(CACHE_DIR);
+        this.settings = settings;
+        this.previousEntries = previousEntries;
+    }
+
+    static SegmentCache load(Path outputDir, String settings) throws IOException {
+        Path manifestPath = outputDir.resolve(MANIFEST_FILE);
+        Map<String, Entry> entries = new HashMap<>();
+        if (Files.exists(manifestPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(manifestPath);
+                 CSVParser parser = CSVParser.parse(reader, CSVFormat.DEFAULT)) {
+                boolean header = true;
+                for (CSVRecord record : parser) {
+                    if (header) {
+                        header = false;
+                        continue;
+                    }
+                    Entry entry = Entry.fromRecord(record);
+                    entries.put(entry.file(), entry);
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Ignoring unreadable segment manifest {}", manifestPath, e);
+                entries.clear();
+            }
+        }
+        Files.createDirectories(outputDir.resolve(CACHE_DIR));
+        return new SegmentCache(outputDir, settings, entries);
+    }
+
+    Lookup lookup(Path inputFile) throws IOException {
+        String file = inputFile.getFileName().toString();
+        long size = Files.size(inputFile);
+        long mtime = Files.getLastModifiedTime(inputFile).toMillis();
+        Entry previous = previousEntries.get(file);
+        boolean usable = previous != null && previous.settings().equals(settings) && segmentsExist(previous);
+        if (usable && previous.size() == size && previous.mtime() == mtime) {
+            currentEntries.put(file, previous);
+            return new Lookup(previous, file, size, mtime, previous.sha256());
+        }
+        String sha256 = sha256(inputFile);
+        if (usable && previous.size() == size && previous.sha256().equals(sha256)) {
+            Entry touched = previous.withMtime(mtime);
+            currentEntries.put(file, touched);
+            return new Lookup(touched, file, size, mtime, sha256);
+        }
+        return new Lookup(null, file, size, mtime, sha256);
+    }
+
+    Path segmentDir(Lookup lookup) throws IOException {
+        String name = stripExtension(lookup.file()) + "_" + lookup.sha256().substring(0, 16) + "_" + settings;
+        Path dir = cacheDir.resolve(name);
+        Files.createDirectories(dir);
+        return dir;
+    }
+
+    Path segmentPath(Entry entry, String dataset) {
+        return cacheDir.resolve(entry.segment()).resolve(dataset + ".csv");
+    }
+
+    void record(
+            Lookup lookup,
+            Path segmentDir,
+            long all,
+            long players,
+            long teams,
+            long droppedTeamRows,
+            long filteredRows
+    ) {
+        Entry entry = new Entry(
+                lookup.file(),
+                lookup.size(),
+                lookup.mtime(),
+                lookup.sha256(),
+                settings,
+                segmentDir.getFileName().toString(),
+                all,
+                players,
+                teams,
+                droppedTeamRows,
+                filteredRows
+        );
+        currentEntries.put(entry.file(), entry);
+    }
+
+    void save(List<Path> inputFiles) throws IOException {
+        Path temp = Files.createTempFile(manifestPath.getParent(), "tmp_segment_manifest_", ".csv");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp);
+                 CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader(MANIFEST_HEADER))) {
+                for (Path inputFile : inputFiles) {
+                    Entry entry = currentEntries.get(inputFile.getFileName().toString());
+                    if (entry != null) {
+                        printer.printRecord(entry.toRecord());
+                    }
+                }
+            }
+            Files.move(temp, manifestPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        pruneUnreferenced();
+    }
+
+    private void pruneUnreferenced() throws IOException {
+        Set<String> referenced = new HashSet<>();
+        for (Entry entry : currentEntries.values()) {
+            referenced.add(entry.segment());
+        }
+        List<Path> stale = new ArrayList<>();
+        try (var stream = Files.list(cacheDir)) {
+            stream.filter(path -> !referenced.contains(path.getFileName().toString())).forEach(stale::add);
+        }
+        for (Path dir : stale) {
+            try (var files = Files.list(dir)) {
+                for (Path file : files.toList()) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    private boolean segmentsExist(Entry entry) {
+        return Files.exists(segmentPath(entry, "all"))
+                && Files.exists(segmentPath(entry, "players"))
+                && Files.exists(segmentPath(entry, "teams"));
+    }
+
+    private String sha256(Path inputFile) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        byte[] buffer = new byte[1 << 20];
+        try (InputStream in = Files.newInputStream(inputFile)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String stripExtension(String file) {
+        int dot = file.indexOf('.');
+        return (dot < 0 ? file : file.substring(0, dot)).toLowerCase(Locale.ROOT);
+    }
+
+    record Lookup(Entry reusable, String file, long size, long mtime, String sha256) {
+    }
+
+    record Entry(
+            String file,
+            long size,
+            long mtime,
+            String sha256,
+            String settings,
+            String segment,
+            long all,
+            long players,
+            long teams,
+            long droppedTeamRows,
+            long filteredRows
+    ) {
+        Entry withMtime(long newMtime) {
+            return new Entry(
+                    file,
+                    size,
+                    newMtime,
+                    sha256,
+                    settings,
+                    segment,
+                    all,
+                    players,
+                    teams,
+                    droppedTeamRows,
+                    filteredRows
+            );
+        }
+
+        Object[] toRecord() {
+            return new Object[] {
+                    file, size, mtime, sha256, settings, segment, all, players, teams, droppedTeamRows, filteredRows
+            };
+        }
+
+        static Entry fromRecord(CSVRecord record) {
+            return new Entry(
+                    record.get(0),
+                    Long.parseLong(record.get(1)),
+                    Long.parseLong(record.get(2)),
+                    record.get(3),
+                    record.get(4),
+                    record.get(5),
+                    Long.parseLong(record.get(6)),
+                    Long.parseLong(record.get(7)),
+                    Long.parseLong(record.get(8)),
+                    Long.parseLong(record.get(9)),
+                    Long.parseLong(record.get(10))
+            );
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.sort.ExternalRowSorter;
+import com.jmirving.prodata.processor.write.RowWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// sorted-output: the base rows of each input file go into one external sorter per dataset while they are produced.
+// Once every file is in, each dataset's sorters are k-way merged in file order straight into its output writer.
+// sort-memory-bytes is shared evenly by all sorters of the run.
+final class SortedDatasets {
+    private static final Logger logger = LoggerFactory.getLogger(SortedDatasets.class);
+
+    private final Path spillDir;
+    private final Map<Path, List<ExternalRowSorter>> byFile = new LinkedHashMap<>();
+
+    SortedDatasets(Path spillDir, long memoryBytes, List<Path> inputFiles) {
+        this.spillDir = spillDir;
+        long share = Math.max(1, memoryBytes / ((long) inputFiles.size() * DatasetOutput.BASE_DATASETS.size()));
+        for (Path inputFile : inputFiles) {
+            List<ExternalRowSorter> sorters = new ArrayList<>();
+            for (int i = 0; i < DatasetOutput.BASE_DATASETS.size(); i++) {
+                sorters.add(new ExternalRowSorter(spillDir, share));
+            }
+            byFile.put(inputFile, sorters);
+        }
+    }
+
+    interface Target {
+        RowWriter open(DatasetOutput dataset) throws IOException;
+    }
+
+    // Writers for all, players and teams of one file. Rows left from an earlier attempt at the file are dropped,
+    // so a file re-processed for dedup starts clean.
+    List<RowWriter> writers(Path inputFile) throws IOException {
+        List<RowWriter> writers = new ArrayList<>();
+        for (ExternalRowSorter sorter : byFile.get(inputFile)) {
+            sorter.discard();
+            writers.add(sorter.asWriter());
+        }
+        return writers;
+    }
+
+    // Feeds a header-less segment CSV kept by the incremental cache into the file's sorter for a base dataset.
+    void load(Path inputFile, int dataset, Path segment) throws IOException {
+        ExternalRowSorter sorter = byFile.get(inputFile).get(dataset);
+        new FileSegment(segment).replay(sorter.asWriter(), ProDataColumns.OUTPUT_COLUMNS.size());
+    }
+
+    void writeTo(RunOutputs outputs, Target target) throws IOException {
+        int spilledRuns = 0;
+        for (List<ExternalRowSorter> sorters : byFile.values()) {
+            for (ExternalRowSorter sorter : sorters) {
+                spilledRuns += sorter.spilledRuns();
+            }
+        }
+        for (int d = 0; d < DatasetOutput.BASE_DATASETS.size(); d++) {
+            DatasetOutput dataset = outputs.dataset(DatasetOutput.BASE_DATASETS.get(d));
+            List<ExternalRowSorter> sorters = new ArrayList<>();
+            for (List<ExternalRowSorter> fileSorters : byFile.values()) {
+                sorters.add(fileSorters.get(d));
+            }
+            long rows;
+            try (RowWriter writer = target.open(dataset)) {
+                rows = ExternalRowSorter.merge(sorters, writer);
+            }
+            logger.info("Sorted {} rows of {}", rows, dataset.name());
+        }
+        logger.info("Sort spilled {} runs to {}", spilledRuns, spillDir);
+    }
+
+    void discard() {
+        for (List<ExternalRowSorter> sorters : byFile.values()) {
+            for (ExternalRowSorter sorter : sorters) {
+                try {
+                    sorter.discard();
+                } catch (IOException e) {
+                    logger.warn("Failed to delete sort runs in {}", spillDir, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.jmirving.prodata.processor.metrics;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Per-run instrumentation collected by the job, published as Micrometer meters and written as JSON per runId.
+public final class RunReport {
+    private final String runId;
+    private final Instant startedAt;
+    private final Map<String, Object> settings = new LinkedHashMap<>();
+    private final Map<String, Long> rows = new LinkedHashMap<>();
+    private final Map<String, Long> stageNanos = new LinkedHashMap<>();
+    private final List<FileEntry> files = new ArrayList<>();
+    private final List<QueueEntry> queues = new ArrayList<>();
+    private long inputBytes;
+    private long elapsedNanos;
+    private long segmentPeakBytes = -1;
+    private long segmentLimitBytes = -1;
+    private long peakHeapBytes;
+
+    public RunReport(String runId, Instant startedAt) {
+        this.runId = runId;
+        this.startedAt = startedAt;
+        resetHeapPeak();
+    }
+
+    public void setting(String name, Object value) {
+        settings.put(name, value);
+    }
+
+    public void rows(String dataset, long count) {
+        rows.put(dataset, count);
+    }
+
+    public void stage(String stage, long nanos) {
+        stageNanos.merge(stage, nanos, Long::sum);
+    }
+
+    public void file(String file, boolean cached, long bytes, long rowCount, long nanos, Map<String, Long> stages) {
+        files.add(new FileEntry(file, cached, bytes, rowCount, nanos, new LinkedHashMap<>(stages)));
+        inputBytes += bytes;
+    }
+
+    public void queue(String name, int peakBatches, int capacityBatches) {
+        queues.add(new QueueEntry(name, peakBatches, capacityBatches));
+    }
+
+    public void segmentBudget(long peakBytes, long limitBytes) {
+        segmentPeakBytes = peakBytes;
+        segmentLimitBytes = limitBytes;
+    }
+
+    public void finish(long nanos) {
+        elapsedNanos = nanos;
+        peakHeapBytes = heapPeakBytes();
+    }
+
+    public long peakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    public void publish(MeterRegistry registry) {
+        Timer.builder("prodata.run.duration").register(registry).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        for (Map.Entry<String, Long> stage : stageNanos.entrySet()) {
+            Timer.builder("prodata.stage.duration")
+                    .tag("stage", stage.getKey())
+                    .register(registry)
+                    .record(stage.getValue(), TimeUnit.NANOSECONDS);
+        }
+        for (Map.Entry<String, Long> count : rows.entrySet()) {
+            Counter.builder("prodata.rows")
+                    .tag("dataset", count.getKey())
+                    .register(registry)
+                    .increment(count.getValue());
+        }
+        Counter.builder("prodata.input.bytes").baseUnit("bytes").register(registry).increment(inputBytes);
+        for (FileEntry file : files) {
+            if (file.cached()) {
+                continue;
+            }
+            Timer.builder("prodata.file.duration")
+                    .tag("file", file.file())
+                    .register(registry)
+                    .record(file.elapsedNanos(), TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("prodata.file.rows.per.second")
+                    .tag("file", file.file())
+                    .baseUnit("rows")
+                    .register(registry)
+                    .record(file.rowsPerSecond());
+            DistributionSummary.builder("prodata.file.bytes.per.second")
+                    .tag("file", file.file())
+                    .baseUnit("bytes")
+                    .register(registry)
+                    .record(file.bytesPerSecond());
+        }
+        // Peaks are recorded as summaries rather than gauges so a second run in the same JVM reports its own values.
+        for (QueueEntry queue : queues) {
+            DistributionSummary.builder("prodata.writer.queue.peak")
+                    .tag("writer", queue.name())
+                    .baseUnit("batches")
+                    .register(registry)
+                    .record(queue.peakBatches());
+        }
+        if (segmentPeakBytes >= 0) {
+            DistributionSummary.builder("prodata.segments.peak")
+                    .baseUnit("bytes")
+                    .register(registry)
+                    .record(segmentPeakBytes);
+        }
+        DistributionSummary.builder("prodata.heap.peak").baseUnit("bytes").register(registry).record(peakHeapBytes);
+    }
+
+    public void write(Path file, ObjectMapper mapper) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("runId", runId);
+        json.put("startedAt", startedAt.toString());
+        json.put("elapsedMillis", millis(elapsedNanos));
+        json.put("peakHeapBytes", peakHeapBytes);
+        json.put("settings", settings);
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("inputBytes", inputBytes);
+        totals.put("rowsPerSecond", perSecond(rows.getOrDefault("all", 0L), elapsedNanos));
+        totals.put("bytesPerSecond", perSecond(inputBytes, elapsedNanos));
+        totals.put("rows", rows);
+        json.put("totals", totals);
+        json.put("stagesMillis", millis(stageNanos));
+        List<Map<String, Object>> fileEntries = new ArrayList<>();
+        for (FileEntry entry : files) {
+            Map<String, Object> fileJson = new LinkedHashMap<>();
+            fileJson.put("file", entry.file());
+            fileJson.put("cached", entry.cached());
+            fileJson.put("inputBytes", entry.inputBytes());
+            fileJson.put("rows", entry.rows());
+            fileJson.put("elapsedMillis", millis(entry.elapsedNanos()));
+            fileJson.put("rowsPerSecond", entry.rowsPerSecond());
+            fileJson.put("bytesPerSecond", entry.bytesPerSecond());
+            fileJson.put("stagesMillis", millis(entry.stageNanos()));
+            fileEntries.add(fileJson);
+        }
+        json.put("files", fileEntries);
+        Map<String, Object> writerQueues = new LinkedHashMap<>();
+        for (QueueEntry queue : queues) {
+            Map<String, Object> queueJson = new LinkedHashMap<>();
+            queueJson.put("peakBatches", queue.peakBatches());
+            queueJson.put("capacityBatches", queue.capacityBatches());
+            writerQueues.put(queue.name(), queueJson);
+        }
+        json.put("writerQueues", writerQueues);
+        Map<String, Object> segmentBudget = null;
+        if (segmentPeakBytes >= 0) {
+            segmentBudget = new LinkedHashMap<>();
+            segmentBudget.put("peakBytes", segmentPeakBytes);
+            segmentBudget.put("limitBytes", segmentLimitBytes);
+        }
+        json.put("segmentBudget", segmentBudget);
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), json);
+    }
+
+    // Pool peaks are reset per run and summed, which is an upper bound: pools may peak at different moments.
+    static void resetHeapPeak() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    static long heapPeakBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid() && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static Map<String, Object> millis(Map<String, Long> nanos) {
+        Map<String, Object> millis = new LinkedHashMap<>();
+        nanos.forEach((name, value) -> millis.put(name, millis(value)));
+        return millis;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    private static double perSecond(long amount, long nanos) {
+        return nanos <= 0 ? 0 : Math.round(amount / (nanos / 1_000_000_000.0) * 10) / 10.0;
+    }
+
+    private record FileEntry(
+            String file,
+            boolean cached,
+            long inputBytes,
+            long rows,
+            long elapsedNanos,
+            Map<String, Long> stageNanos
+    ) {
+        double rowsPerSecond() {
+            return perSecond(rows, elapsedNanos);
+        }
+
+        double bytesPerSecond() {
+            return perSecond(inputBytes, elapsedNanos);
+        }
+    }
+
+    private record QueueEntry(String name, int peakBatches, int capacityBatches) {
+    }
+}
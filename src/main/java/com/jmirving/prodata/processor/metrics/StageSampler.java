@@ -0,0 +1,46 @@
+package com.jmirving.prodata.processor.metrics;
+
+// Times the per-row stages on every Nth row only, so the hot loop pays two nanoTime calls per stage on a sample
+// and a countdown on every other row. Totals are scaled up from the sampled rows. Instances are thread-confined.
+public final class StageSampler {
+    public static final int READ = 0;
+    public static final int CLASSIFY = 1;
+    public static final int WRITE = 2;
+    public static final String[] STAGES = {"read", "classify", "write"};
+
+    private final int interval;
+    private final long[] sampledNanos = new long[STAGES.length];
+    private int countdown = 1;
+    private long rows;
+    private long sampledRows;
+    private boolean sampling;
+    private long mark;
+
+    public StageSampler(int interval) {
+        this.interval = Math.max(1, interval);
+    }
+
+    public void begin() {
+        rows++;
+        if (--countdown > 0) {
+            sampling = false;
+            return;
+        }
+        countdown = interval;
+        sampling = true;
+        sampledRows++;
+        mark = System.nanoTime();
+    }
+
+    public void lap(int stage) {
+        if (sampling) {
+            long now = System.nanoTime();
+            sampledNanos[stage] += now - mark;
+            mark = now;
+        }
+    }
+
+    public long estimatedNanos(int stage) {
+        return sampledRows == 0 ? 0 : Math.round(sampledNanos[stage] * ((double) rows / sampledRows));
+    }
+}
@@ -0,0 +1,34 @@
+package com.jmirving.prodata.processor.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class Dictionary {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public synchronized int idOf(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        int next = values.size();
+        ids.put(value, next);
+        values.add(value);
+        return next;
+    }
+
+    public synchronized String value(int id) {
+        return values.get(id);
+    }
+
+    public synchronized int size() {
+        return values.size();
+    }
+
+    public synchronized List<String> values() {
+        return List.copyOf(values);
+    }
+}
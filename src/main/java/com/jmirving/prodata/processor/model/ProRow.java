@@ -0,0 +1,117 @@
+package com.jmirving.prodata.processor.model;
+
+import java.util.Arrays;
+
+import com.jmirving.prodata.processor.validate.ProjectionPlan;
+
+public final class ProRow {
+    public static final int MISSING = Integer.MIN_VALUE;
+    public static final int NO_ID = -1;
+
+    private final String[] values;
+    private final int[] ids;
+    private int year = MISSING;
+    private int game = MISSING;
+    private int participantId = MISSING;
+    private Side side = Side.UNKNOWN;
+
+    public ProRow(int width) {
+        this.values = new String[width];
+        this.ids = new int[width];
+        Arrays.fill(ids, NO_ID);
+    }
+
+    public String[] values() {
+        return values;
+    }
+
+    public String value(int slot) {
+        return values[slot];
+    }
+
+    public int id(int slot) {
+        return ids[slot];
+    }
+
+    int[] ids() {
+        return ids;
+    }
+
+    public void reset() {
+        Arrays.fill(values, "");
+        Arrays.fill(ids, NO_ID);
+    }
+
+    public int year() {
+        return year;
+    }
+
+    public int game() {
+        return game;
+    }
+
+    public int participantId() {
+        return participantId;
+    }
+
+    public Side side() {
+        return side;
+    }
+
+    public boolean isTeam() {
+        return participantId == 100 || participantId == 200;
+    }
+
+    public boolean isPlayer() {
+        return participantId >= 1 && participantId <= 10;
+    }
+
+    public void parseFields(ProjectionPlan plan) {
+        year = parseInt(values[plan.yearSlot()]);
+        game = parseInt(values[plan.gameSlot()]);
+        participantId = parseInt(values[plan.participantSlot()]);
+        side = Side.parse(values[plan.sideSlot()]);
+    }
+
+    public void copyFrom(ProRow other) {
+        System.arraycopy(other.values, 0, values, 0, values.length);
+        System.arraycopy(other.ids, 0, ids, 0, ids.length);
+        year = other.year;
+        game = other.game;
+        participantId = other.participantId;
+        side = other.side;
+    }
+
+    public static int parseInt(String value) {
+        int length = value.length();
+        if (length == 0) {
+            return MISSING;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (length == 1) {
+                return MISSING;
+            }
+        }
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return MISSING;
+            }
+            result = result * 10 + digit;
+            if (result > Integer.MAX_VALUE + 1L) {
+                return MISSING;
+            }
+        }
+        result = negative ? -result : result;
+        if (result < Integer.MIN_VALUE + 1L || result > Integer.MAX_VALUE) {
+            return MISSING;
+        }
+        return (int) result;
+    }
+}
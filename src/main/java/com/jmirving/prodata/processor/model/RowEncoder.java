@@ -0,0 +1,145 @@
+package com.jmirving.prodata.processor.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.jmirving.prodata.processor.model.RunDictionaries.Domain;
+import com.jmirving.prodata.processor.validate.ProjectionPlan;
+
+// Thread-confined front for the shared run dictionaries; hits cost no allocation and no locking.
+// The mapped reader looks values up by their raw bytes, the Commons reader by the parsed String.
+public final class RowEncoder {
+    private final Dictionary[] dictionaryBySlot;
+    private final LocalTable[] tableBySlot;
+    private final StringTable[] stringsBySlot;
+
+    RowEncoder(RunDictionaries dictionaries, ProjectionPlan plan) {
+        this.dictionaryBySlot = new Dictionary[plan.width()];
+        this.tableBySlot = new LocalTable[plan.width()];
+        this.stringsBySlot = new StringTable[plan.width()];
+        Map<Domain, LocalTable> tables = new EnumMap<>(Domain.class);
+        Map<Domain, StringTable> strings = new EnumMap<>(Domain.class);
+        for (int slot = 0; slot < plan.width(); slot++) {
+            Domain domain = RunDictionaries.domainOf(plan.column(slot));
+            if (domain != null) {
+                dictionaryBySlot[slot] = dictionaries.get(domain);
+                tableBySlot[slot] = tables.computeIfAbsent(domain, ignored -> new LocalTable());
+                stringsBySlot[slot] = strings.computeIfAbsent(domain, ignored -> new StringTable());
+            }
+        }
+    }
+
+    public boolean isEncoded(int slot) {
+        return dictionaryBySlot[slot] != null;
+    }
+
+    public void encode(ProRow row) {
+        String[] values = row.values();
+        for (int slot = 0; slot < values.length; slot++) {
+            if (dictionaryBySlot[slot] != null) {
+                encode(row, slot, values[slot]);
+            }
+        }
+    }
+
+    private void encode(ProRow row, int slot, String value) {
+        if (value.isEmpty()) {
+            row.ids()[slot] = ProRow.NO_ID;
+            return;
+        }
+        Map<String, Entry> entries = stringsBySlot[slot].entries;
+        Entry entry = entries.get(value);
+        if (entry == null) {
+            Dictionary dictionary = dictionaryBySlot[slot];
+            int id = dictionary.idOf(value);
+            entry = new Entry(id, dictionary.value(id));
+            entries.put(entry.value(), entry);
+        }
+        row.values()[slot] = entry.value();
+        row.ids()[slot] = entry.id();
+    }
+
+    public void decode(ProRow row, int slot, byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            row.values()[slot] = "";
+            row.ids()[slot] = ProRow.NO_ID;
+            return;
+        }
+        LocalTable table = tableBySlot[slot];
+        int index = table.find(bytes, offset, length);
+        if (table.keys[index] == null) {
+            String value = new String(bytes, offset, length, StandardCharsets.UTF_8);
+            Dictionary dictionary = dictionaryBySlot[slot];
+            int id = dictionary.idOf(value);
+            index = table.insert(index, Arrays.copyOfRange(bytes, offset, offset + length), id, dictionary.value(id));
+        }
+        row.values()[slot] = table.values[index];
+        row.ids()[slot] = table.ids[index];
+    }
+
+    private record Entry(int id, String value) {
+    }
+
+    private static final class StringTable {
+        private final Map<String, Entry> entries = new HashMap<>();
+    }
+
+    private static final class LocalTable {
+        private byte[][] keys = new byte[256][];
+        private int[] ids = new int[256];
+        private String[] values = new String[256];
+        private int size;
+
+        int find(byte[] bytes, int offset, int length) {
+            int mask = keys.length - 1;
+            int index = hash(bytes, offset, length) & mask;
+            while (true) {
+                byte[] key = keys[index];
+                if (key == null || Arrays.equals(key, 0, key.length, bytes, offset, offset + length)) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+        }
+
+        int insert(int index, byte[] key, int id, String value) {
+            keys[index] = key;
+            ids[index] = id;
+            values[index] = value;
+            size++;
+            if (size * 2 <= keys.length) {
+                return index;
+            }
+            byte[][] oldKeys = keys;
+            int[] oldIds = ids;
+            String[] oldValues = values;
+            keys = new byte[oldKeys.length * 2][];
+            ids = new int[oldKeys.length * 2];
+            values = new String[oldKeys.length * 2];
+            int moved = index;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != null) {
+                    int slot = find(oldKeys[i], 0, oldKeys[i].length);
+                    keys[slot] = oldKeys[i];
+                    ids[slot] = oldIds[i];
+                    values[slot] = oldValues[i];
+                    if (i == index) {
+                        moved = slot;
+                    }
+                }
+            }
+            return moved;
+        }
+
+        private static int hash(byte[] bytes, int offset, int length) {
+            int hash = 0x811C9DC5;
+            for (int i = offset; i < offset + length; i++) {
+                hash = (hash ^ bytes[i]) * 0x01000193;
+            }
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.jmirving.prodata.processor.model;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.jmirving.prodata.processor.validate.ProjectionPlan;
+
+public final class RunDictionaries {
+    private final Map<Domain, Dictionary> dictionaries = new EnumMap<>(Domain.class);
+
+    public RunDictionaries() {
+        for (Domain domain : Domain.values()) {
+            dictionaries.put(domain, new Dictionary());
+        }
+    }
+
+    public Dictionary get(Domain domain) {
+        return dictionaries.get(domain);
+    }
+
+    public RowEncoder newEncoder(ProjectionPlan plan) {
+        return new RowEncoder(this, plan);
+    }
+
+    public static Domain domainOf(String column) {
+        return switch (column) {
+            case "league" -> Domain.LEAGUE;
+            case "split" -> Domain.SPLIT;
+            case "patch" -> Domain.PATCH;
+            case "side" -> Domain.SIDE;
+            case "ban1", "ban2", "ban3", "ban4", "ban5", "pick1", "pick2", "pick3", "pick4", "pick5" ->
+                    Domain.CHAMPION;
+            default -> null;
+        };
+    }
+
+    public enum Domain {
+        LEAGUE,
+        SPLIT,
+        PATCH,
+        SIDE,
+        CHAMPION
+    }
+}
@@ -0,0 +1,17 @@
+package com.jmirving.prodata.processor.model;
+
+public enum Side {
+    BLUE,
+    RED,
+    UNKNOWN;
+
+    public static Side parse(String value) {
+        if ("Blue".equalsIgnoreCase(value)) {
+            return BLUE;
+        }
+        if ("Red".equalsIgnoreCase(value)) {
+            return RED;
+        }
+        return UNKNOWN;
+    }
+}
@@ -0,0 +1,219 @@
+package com.jmirving.prodata.processor.read;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.jmirving.prodata.processor.filter.RowFilter;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.model.RunDictionaries;
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
+import com.jmirving.prodata.processor.validate.ProjectionPlan;
+
+public final class ChunkedCsvRowReader implements ProjectedRowReader {
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_SEEN = 3;
+    private static final long SCAN_WINDOW_BYTES = 64L * 1024 * 1024;
+
+    private final Path inputFile;
+    private final MappedCsvRowReader headerReader;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final ProjectionPlan plan;
+    private final ForkJoinPool pool;
+    private final long chunkBytes;
+    private final int maxChunksInFlight;
+    private final ArrayDeque<ForkJoinTask<ProRow[]>> pending = new ArrayDeque<>();
+    private final LongAdder filteredRows = new LongAdder();
+    private long scanPosition;
+    private ProRow[] currentRows = new ProRow[0];
+    private int currentIndex;
+
+    private ChunkedCsvRowReader(
+            Path inputFile,
+            MappedCsvRowReader headerReader,
+            ForkJoinPool pool,
+            long chunkBytes
+    ) throws IOException {
+        this.inputFile = inputFile;
+        this.headerReader = headerReader;
+        this.channel = headerReader.channel();
+        this.fileSize = channel.size();
+        this.plan = headerReader.plan();
+        this.pool = pool;
+        this.chunkBytes = Math.max(1, chunkBytes);
+        this.maxChunksInFlight = Math.max(2, pool.getParallelism() * 2);
+        this.scanPosition = headerReader.position();
+    }
+
+    public static ChunkedCsvRowReader open(
+            Path inputFile,
+            CsvHeaderValidator headerValidator,
+            RunDictionaries dictionaries,
+            ForkJoinPool pool,
+            long chunkBytes
+    ) throws IOException {
+        return open(inputFile, headerValidator, dictionaries, null, pool, chunkBytes);
+    }
+
+    public static ChunkedCsvRowReader open(
+            Path inputFile,
+            CsvHeaderValidator headerValidator,
+            RunDictionaries dictionaries,
+            RowFilter filter,
+            ForkJoinPool pool,
+            long chunkBytes
+    ) throws IOException {
+        MappedCsvRowReader headerReader = MappedCsvRowReader.open(inputFile, headerValidator, dictionaries, filter);
+        try {
+            return new ChunkedCsvRowReader(inputFile, headerReader, pool, chunkBytes);
+        } catch (IOException | RuntimeException e) {
+            headerReader.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public ProjectionPlan plan() {
+        return plan;
+    }
+
+    @Override
+    public boolean next(ProRow row) throws IOException {
+        while (currentIndex == currentRows.length) {
+            fillPipeline();
+            if (pending.isEmpty()) {
+                return false;
+            }
+            currentRows = await(pending.removeFirst());
+            currentIndex = 0;
+        }
+        row.copyFrom(currentRows[currentIndex]);
+        currentRows[currentIndex++] = null;
+        return true;
+    }
+
+    @Override
+    public long filteredRows() {
+        return filteredRows.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (ForkJoinTask<ProRow[]> task : pending) {
+            task.cancel(true);
+        }
+        pending.clear();
+        headerReader.close();
+    }
+
+    private void fillPipeline() throws IOException {
+        while (pending.size() < maxChunksInFlight && scanPosition < fileSize) {
+            long start = scanPosition;
+            long end = nextRecordBoundary(start, Math.min(fileSize, start + chunkBytes));
+            scanPosition = end;
+            pending.addLast(pool.submit(() -> parseRange(start, end)));
+        }
+    }
+
+    private ProRow[] parseRange(long start, long end) throws IOException {
+        List<ProRow> rows = new ArrayList<>();
+        MappedCsvRowReader reader = new MappedCsvRowReader(
+                inputFile,
+                channel,
+                plan,
+                start,
+                end,
+                MappedCsvRowReader.DEFAULT_WINDOW_BYTES,
+                headerReader.dictionaries(),
+                headerReader.filter()
+        );
+        try (reader) {
+            ProRow row = new ProRow(plan.width());
+            while (reader.next(row)) {
+                rows.add(row);
+                row = new ProRow(plan.width());
+            }
+        }
+        filteredRows.add(reader.filteredRows());
+        return rows.toArray(new ProRow[0]);
+    }
+
+    // Walks forward from a known record start so quoted commas and newlines never split a range.
+    long nextRecordBoundary(long recordStart, long target) throws IOException {
+        int state = FIELD_START;
+        long position = recordStart;
+        while (position < fileSize) {
+            long size = Math.min(SCAN_WINDOW_BYTES, fileSize - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            for (int i = 0; i < size; i++) {
+                byte b = window.get(i);
+                switch (state) {
+                    case QUOTED -> {
+                        if (b == '"') {
+                            state = QUOTE_SEEN;
+                        }
+                    }
+                    case QUOTE_SEEN -> {
+                        if (b == '"') {
+                            state = QUOTED;
+                        } else if (b == ',') {
+                            state = FIELD_START;
+                        } else if (b == '\r' || b == '\n') {
+                            if (position + i >= target) {
+                                return position + i + 1;
+                            }
+                            state = FIELD_START;
+                        } else {
+                            state = UNQUOTED;
+                        }
+                    }
+                    default -> {
+                        if (b == ',') {
+                            state = FIELD_START;
+                        } else if (b == '\r' || b == '\n') {
+                            if (position + i >= target) {
+                                return position + i + 1;
+                            }
+                            state = FIELD_START;
+                        } else if (b == '"' && state == FIELD_START) {
+                            state = QUOTED;
+                        } else {
+                            state = UNQUOTED;
+                        }
+                    }
+                }
+            }
+            position += size;
+        }
+        return fileSize;
+    }
+
+    private ProRow[] await(ForkJoinTask<ProRow[]> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing " + inputFile, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Chunk parsing failed for " + inputFile, cause);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.jmirving.prodata.processor.read;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import com.jmirving.prodata.processor.filter.RowFilter;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.model.RowEncoder;
+import com.jmirving.prodata.processor.model.RunDictionaries;
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
+import com.jmirving.prodata.processor.validate.ProjectionPlan;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+public final class CommonsCsvRowReader implements ProjectedRowReader {
+    private final BufferedReader reader;
+    private final ProjectionPlan plan;
+    private final RowEncoder encoder;
+    private final CSVParser parser;
+    private final Iterator<CSVRecord> records;
+    private final RowFilter filter;
+    private final int[] filterSlots;
+    private long filteredRows;
+
+    private CommonsCsvRowReader(
+            BufferedReader reader,
+            ProjectionPlan plan,
+            RunDictionaries dictionaries,
+            RowFilter filter
+    ) throws IOException {
+        this.reader = reader;
+        this.plan = plan;
+        this.encoder = dictionaries == null ? null : dictionaries.newEncoder(plan);
+        this.filter = filter;
+        this.filterSlots = filter == null ? new int[0] : filter.slots();
+        this.parser = CSVParser.parse(reader, CSVFormat.DEFAULT);
+        this.records = parser.iterator();
+    }
+
+    public static CommonsCsvRowReader open(Path inputFile, CsvHeaderValidator headerValidator) throws IOException {
+        return open(inputFile, headerValidator, null);
+    }
+
+    public static CommonsCsvRowReader open(
+            Path inputFile,
+            CsvHeaderValidator headerValidator,
+            RunDictionaries dictionaries
+    ) throws IOException {
+        return open(Files.newBufferedReader(inputFile), headerValidator, dictionaries);
+    }
+
+    public static CommonsCsvRowReader open(
+            BufferedReader reader,
+            CsvHeaderValidator headerValidator,
+            RunDictionaries dictionaries
+    ) throws IOException {
+        return open(reader, headerValidator, dictionaries, null);
+    }
+
+    public static CommonsCsvRowReader open(
+            BufferedReader reader,
+            CsvHeaderValidator headerValidator,
+            RunDictionaries dictionaries,
+            RowFilter filter
+    ) throws IOException {
+        try {
+            String headerLine = reader.readLine();
+            ProjectionPlan plan = headerValidator.validate(headerLine).projection();
+            return new CommonsCsvRowReader(reader, plan, dictionaries, filter);
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public ProjectionPlan plan() {
+        return plan;
+    }
+
+    @Override
+    public boolean next(ProRow row) {
+        while (records.hasNext()) {
+            CSVRecord record = records.next();
+            if (filter != null && !accepts(record)) {
+                filteredRows++;
+                continue;
+            }
+            buildValues(record, plan, row.values());
+            if (encoder != null) {
+                encoder.encode(row);
+            }
+            row.parseFields(plan);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public long filteredRows() {
+        return filteredRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            parser.close();
+        } finally {
+            reader.close();
+        }
+    }
+
+    // Runs on the raw record so rejected rows are never projected or encoded.
+    private boolean accepts(CSVRecord record) {
+        for (int slot : filterSlots) {
+            int index = plan.sourceIndex(slot);
+            String value = index < 0 || index >= record.size() ? null : record.get(index);
+            if (!filter.accepts(slot, value == null ? "" : value.trim())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static void buildValues(CSVRecord record, ProjectionPlan plan, String[] row) {
+        int recordSize = record.size();
+        for (int slot = 0; slot < row.length; slot++) {
+            int index = plan.sourceIndex(slot);
+            if (index < 0 || index >= recordSize) {
+                row[slot] = "";
+                continue;
+            }
+            String value = record.get(index);
+            row[slot] = value == null ? "" : value.trim();
+        }
+    }
+}
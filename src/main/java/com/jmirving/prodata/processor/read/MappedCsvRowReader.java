@@ -0,0 +1,429 @@
+package com.jmirving.prodata.processor.read;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.jmirving.prodata.processor.filter.RowFilter;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.model.RowEncoder;
+import com.jmirving.prodata.processor.model.RunDictionaries;
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
+import com.jmirving.prodata.processor.validate.ProjectionPlan;
+
+public final class MappedCsvRowReader implements ProjectedRowReader {
+    static final long DEFAULT_WINDOW_BYTES = 1L << 30;
+
+    private static final byte COMMA = ',';
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final int END_OF_DATA = -1;
+    private static final int TRUNCATED = -2;
+
+    private final Path inputFile;
+    private final FileChannel channel;
+    private final boolean ownsChannel;
+    private final long endPosition;
+    private final long windowBytes;
+    private final RunDictionaries dictionaries;
+    private final RowFilter filter;
+    private ProjectionPlan plan;
+    private RowEncoder encoder;
+    private boolean[] filterSlots;
+    private int filterSlotCount;
+    private int checkedSlots;
+    private boolean rejected;
+    private long filteredRows;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLimit;
+    private long position;
+    private byte[] scratch = new byte[256];
+    private int valueFrom;
+    private int valueTo;
+    private int[] fieldSlots;
+    private int[] fieldStarts;
+    private int[] fieldEnds;
+    private boolean[] fieldEscaped;
+    private int fieldCount;
+
+    private MappedCsvRowReader(
+            Path inputFile,
+            FileChannel channel,
+            long windowBytes,
+            RunDictionaries dictionaries,
+            RowFilter filter
+    ) throws IOException {
+        this.inputFile = inputFile;
+        this.channel = channel;
+        this.ownsChannel = true;
+        this.endPosition = channel.size();
+        this.windowBytes = windowBytes;
+        this.dictionaries = dictionaries;
+        this.filter = filter;
+    }
+
+    MappedCsvRowReader(
+            Path inputFile,
+            FileChannel channel,
+            ProjectionPlan plan,
+            long startPosition,
+            long endPosition,
+            long windowBytes,
+            RunDictionaries dictionaries,
+            RowFilter filter
+    ) {
+        this.inputFile = inputFile;
+        this.channel = channel;
+        this.ownsChannel = false;
+        this.dictionaries = dictionaries;
+        this.filter = filter;
+        this.plan = plan;
+        this.encoder = dictionaries == null ? null : dictionaries.newEncoder(plan);
+        initSlots();
+        this.position = startPosition;
+        this.windowStart = startPosition;
+        this.endPosition = endPosition;
+        this.windowBytes = windowBytes;
+    }
+
+    public static MappedCsvRowReader open(Path inputFile, CsvHeaderValidator headerValidator) throws IOException {
+        return open(inputFile, headerValidator, null, null, DEFAULT_WINDOW_BYTES);
+    }
+
+    public static MappedCsvRowReader open(
+            Path inputFile,
+            CsvHeaderValidator headerValidator,
+            RunDictionaries dictionaries
+    ) throws IOException {
+        return open(inputFile, headerValidator, dictionaries, null, DEFAULT_WINDOW_BYTES);
+    }
+
+    public static MappedCsvRowReader open(
+            Path inputFile,
+            CsvHeaderValidator headerValidator,
+            RunDictionaries dictionaries,
+            RowFilter filter
+    ) throws IOException {
+        return open(inputFile, headerValidator, dictionaries, filter, DEFAULT_WINDOW_BYTES);
+    }
+
+    static MappedCsvRowReader open(
+            Path inputFile,
+            CsvHeaderValidator headerValidator,
+            RunDictionaries dictionaries,
+            RowFilter filter,
+            long windowBytes
+    ) throws IOException {
+        FileChannel channel = FileChannel.open(inputFile, StandardOpenOption.READ);
+        try {
+            MappedCsvRowReader reader =
+                    new MappedCsvRowReader(inputFile, channel, windowBytes, dictionaries, filter);
+            String headerLine = reader.readHeaderLine();
+            reader.plan = headerValidator.validate(headerLine).projection();
+            reader.encoder = dictionaries == null ? null : dictionaries.newEncoder(reader.plan);
+            reader.initSlots();
+            return reader;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public ProjectionPlan plan() {
+        return plan;
+    }
+
+    @Override
+    public boolean next(ProRow row) throws IOException {
+        while (true) {
+            if (position >= endPosition) {
+                return false;
+            }
+            if (position < windowStart || position >= windowStart + windowLimit) {
+                map(position);
+            }
+            int end = parseRecord(row);
+            if (end == END_OF_DATA) {
+                return false;
+            }
+            if (end != TRUNCATED) {
+                position = windowStart + end;
+                if (filter != null && (rejected || (checkedSlots < filterSlotCount && !filter.accepts(row.values())))) {
+                    filteredRows++;
+                    continue;
+                }
+                row.parseFields(plan);
+                return true;
+            }
+            if (windowStart == position) {
+                throw new IOException(
+                        "CSV record at byte " + position + " exceeds the mapping window in " + inputFile);
+            }
+            map(position);
+        }
+    }
+
+    @Override
+    public long filteredRows() {
+        return filteredRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        if (ownsChannel) {
+            channel.close();
+        }
+    }
+
+    long position() {
+        return position;
+    }
+
+    FileChannel channel() {
+        return channel;
+    }
+
+    RunDictionaries dictionaries() {
+        return dictionaries;
+    }
+
+    RowFilter filter() {
+        return filter;
+    }
+
+    private void initSlots() {
+        fieldSlots = new int[plan.width()];
+        fieldStarts = new int[plan.width()];
+        fieldEnds = new int[plan.width()];
+        fieldEscaped = new boolean[plan.width()];
+        if (filter == null) {
+            return;
+        }
+        filterSlots = new boolean[plan.width()];
+        for (int slot : filter.slots()) {
+            filterSlots[slot] = true;
+        }
+        filterSlotCount = filter.slots().length;
+    }
+
+    private String readHeaderLine() throws IOException {
+        if (endPosition == 0) {
+            return null;
+        }
+        map(0);
+        int end = 0;
+        while (end < windowLimit && window.get(end) != CR && window.get(end) != LF) {
+            end++;
+        }
+        if (end == windowLimit && windowLimit < endPosition) {
+            throw new IOException("CSV header exceeds the mapping window in " + inputFile);
+        }
+        String headerLine = StandardCharsets.UTF_8.newDecoder()
+                .decode(window.slice(0, end))
+                .toString();
+        position = end;
+        if (end < windowLimit) {
+            position++;
+            if (window.get(end) == CR && end + 1 < windowLimit && window.get(end + 1) == LF) {
+                position++;
+            }
+        }
+        return headerLine;
+    }
+
+    private void map(long start) throws IOException {
+        long size = Math.min(windowBytes, endPosition - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        windowStart = start;
+        windowLimit = (int) size;
+    }
+
+    private int parseRecord(ProRow row) throws IOException {
+        MappedByteBuffer buffer = window;
+        int limit = windowLimit;
+        boolean atEof = windowStart + limit == endPosition;
+        int i = (int) (position - windowStart);
+
+        while (i < limit && (buffer.get(i) == CR || buffer.get(i) == LF)) {
+            i++;
+        }
+        if (i == limit) {
+            if (atEof) {
+                position = endPosition;
+                return END_OF_DATA;
+            }
+            position = windowStart + i;
+            return TRUNCATED;
+        }
+
+        row.reset();
+        rejected = false;
+        checkedSlots = 0;
+        fieldCount = 0;
+        int lastSource = plan.lastSourceIndex();
+        int field = 0;
+        while (true) {
+            int slot = field <= lastSource ? plan.slotForSource(field) : -1;
+            if (i < limit && buffer.get(i) == QUOTE) {
+                int start = i + 1;
+                int j = start;
+                boolean escaped = false;
+                while (true) {
+                    if (j >= limit) {
+                        if (atEof) {
+                            throw new IOException("EOF reached before encapsulated token finished in " + inputFile);
+                        }
+                        return TRUNCATED;
+                    }
+                    if (buffer.get(j) == QUOTE) {
+                        if (j + 1 < limit && buffer.get(j + 1) == QUOTE) {
+                            escaped = true;
+                            j += 2;
+                            continue;
+                        }
+                        if (j + 1 >= limit && !atEof) {
+                            return TRUNCATED;
+                        }
+                        break;
+                    }
+                    j++;
+                }
+                if (slot >= 0) {
+                    addField(slot, start, j, escaped);
+                }
+                i = j + 1;
+                while (i < limit) {
+                    byte b = buffer.get(i);
+                    if (b == COMMA || b == CR || b == LF) {
+                        break;
+                    }
+                    if (!isWhitespace(b)) {
+                        throw new IOException(
+                                "Invalid char between encapsulated token and delimiter at byte "
+                                        + (windowStart + i) + " in " + inputFile);
+                    }
+                    i++;
+                }
+            } else {
+                int start = i;
+                while (i < limit) {
+                    byte b = buffer.get(i);
+                    if (b == COMMA || b == CR || b == LF) {
+                        break;
+                    }
+                    i++;
+                }
+                // A field cut off by the window is parsed again from the next one; decoding it now would intern
+                // its prefix.
+                if (i >= limit && !atEof) {
+                    return TRUNCATED;
+                }
+                if (slot >= 0) {
+                    addField(slot, start, i, false);
+                }
+            }
+
+            if (i >= limit) {
+                if (!atEof) {
+                    return TRUNCATED;
+                }
+                decodeFields(row);
+                return i;
+            }
+            if (buffer.get(i) == COMMA) {
+                i++;
+                field++;
+                continue;
+            }
+            decodeFields(row);
+            // A CR of a CRLF pair is consumed here; the LF is skipped as an empty line on the next call.
+            return i + 1;
+        }
+    }
+
+    private void addField(int slot, int start, int end, boolean escaped) {
+        fieldSlots[fieldCount] = slot;
+        fieldStarts[fieldCount] = start;
+        fieldEnds[fieldCount] = end;
+        fieldEscaped[fieldCount] = escaped;
+        fieldCount++;
+    }
+
+    // Runs once the whole record is in the window. Every filter slot is checked before any field is decoded,
+    // so a rejected row never adds values to the run dictionaries.
+    private void decodeFields(ProRow row) {
+        if (filterSlots != null) {
+            for (int f = 0; f < fieldCount; f++) {
+                int slot = fieldSlots[f];
+                if (!filterSlots[slot]) {
+                    continue;
+                }
+                load(f);
+                checkedSlots++;
+                // Date bounds compare raw bytes, so a rejected row never materializes its date string.
+                if (filter.isDateSlot(slot)) {
+                    rejected = !filter.acceptsDate(scratch, valueFrom, valueTo - valueFrom);
+                } else {
+                    rejected = !filter.accepts(slot, text());
+                }
+                if (rejected) {
+                    return;
+                }
+            }
+        }
+        for (int f = 0; f < fieldCount; f++) {
+            int slot = fieldSlots[f];
+            load(f);
+            if (encoder != null && encoder.isEncoded(slot)) {
+                encoder.decode(row, slot, scratch, valueFrom, valueTo - valueFrom);
+            } else if (valueFrom < valueTo) {
+                row.values()[slot] = text();
+            }
+        }
+    }
+
+    // Copies field f into scratch, unescaping doubled quotes, and trims it to [valueFrom, valueTo).
+    private void load(int f) {
+        int start = fieldStarts[f];
+        int length = fieldEnds[f] - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        window.get(start, scratch, 0, length);
+        if (fieldEscaped[f]) {
+            int write = 0;
+            for (int read = 0; read < length; read++) {
+                scratch[write++] = scratch[read];
+                if (scratch[read] == QUOTE) {
+                    read++;
+                }
+            }
+            length = write;
+        }
+        int from = 0;
+        int to = length;
+        while (from < to && (scratch[from] & 0xFF) <= ' ') {
+            from++;
+        }
+        while (to > from && (scratch[to - 1] & 0xFF) <= ' ') {
+            to--;
+        }
+        valueFrom = from;
+        valueTo = to;
+    }
+
+    private String text() {
+        return valueFrom < valueTo ? new String(scratch, valueFrom, valueTo - valueFrom, StandardCharsets.UTF_8) : "";
+    }
+
+    private boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == 0x0B || b == '\f' || (b >= 0x1C && b <= 0x1F);
+    }
+}
@@ -0,0 +1,15 @@
+package com.jmirving.prodata.processor.read;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.validate.ProjectionPlan;
+
+public interface ProjectedRowReader extends Closeable {
+    ProjectionPlan plan();
+
+    boolean next(ProRow row) throws IOException;
+
+    long filteredRows();
+}
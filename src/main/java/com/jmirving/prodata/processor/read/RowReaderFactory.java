@@ -0,0 +1,62 @@
+package com.jmirving.prodata.processor.read;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import com.jmirving.prodata.processor.compress.InputCompression;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties.InputReader;
+import com.jmirving.prodata.processor.filter.RowFilter;
+import com.jmirving.prodata.processor.model.RunDictionaries;
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
+
+public final class RowReaderFactory implements Closeable {
+    private final CsvHeaderValidator headerValidator;
+    private final RunDictionaries dictionaries;
+    private final RowFilter filter;
+    private final InputReader readerType;
+    private final long chunkBytes;
+    private final ForkJoinPool chunkPool;
+
+    public RowReaderFactory(
+            ProDataProcessorProperties properties,
+            CsvHeaderValidator headerValidator,
+            RunDictionaries dictionaries
+    ) {
+        this.headerValidator = headerValidator;
+        this.dictionaries = dictionaries;
+        RowFilter configured = RowFilter.from(properties);
+        this.filter = configured.isActive() ? configured : null;
+        this.readerType = properties.getReader() == null ? InputReader.COMMONS : properties.getReader();
+        this.chunkBytes = properties.getChunkBytes();
+        int chunkParallelism = properties.getChunkParallelism();
+        if (chunkParallelism > 1 && readerType != InputReader.MAPPED) {
+            throw new IllegalStateException("chunk-parallelism requires reader=mapped");
+        }
+        this.chunkPool = chunkParallelism > 1 ? new ForkJoinPool(chunkParallelism) : null;
+    }
+
+    public ProjectedRowReader open(Path inputFile) throws IOException {
+        if (InputCompression.of(inputFile) != InputCompression.NONE) {
+            return CommonsCsvRowReader.open(
+                    InputCompression.newReader(inputFile, true), headerValidator, dictionaries, filter);
+        }
+        if (chunkPool != null) {
+            return ChunkedCsvRowReader.open(inputFile, headerValidator, dictionaries, filter, chunkPool, chunkBytes);
+        }
+        if (readerType == InputReader.MAPPED) {
+            return MappedCsvRowReader.open(inputFile, headerValidator, dictionaries, filter);
+        }
+        return CommonsCsvRowReader.open(Files.newBufferedReader(inputFile), headerValidator, dictionaries, filter);
+    }
+
+    @Override
+    public void close() {
+        if (chunkPool != null) {
+            chunkPool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.jmirving.prodata.processor.sort;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.write.RowWriter;
+
+// Sorts output rows by date, gameid, then participantid. Rows streamed in with add() are buffered up to the memory
+// budget, sorted and spilled as runs of writeUTF values; finish() k-way merges the runs into the target writer, and
+// merge() does the same across several sorters. Ties keep input order: each run is sorted stably and the merge
+// breaks ties by run number. At most MAX_MERGE_RUNS spilled runs are read at once; when there are more, consecutive
+// runs are first merged into longer ones, which keeps that order.
+public final class ExternalRowSorter {
+    // Rough per-row heap cost beyond the characters: the String[] and SortRow headers plus one String per value.
+    private static final int ROW_OVERHEAD_BYTES = 64;
+    private static final int VALUE_OVERHEAD_BYTES = 48;
+    static final int MAX_MERGE_RUNS = 64;
+
+    static final Comparator<SortRow> ORDER = Comparator
+            .comparing((SortRow row) -> row.date)
+            .thenComparing(row -> row.gameId)
+            .thenComparingInt(row -> row.participantId);
+    static final Comparator<SortRow> GAME_ORDER = Comparator.comparing((SortRow row) -> row.gameId);
+
+    private final Path spillDir;
+    private final long memoryBytes;
+    private final long maxRunRows;
+    private final Comparator<SortRow> order;
+    private final int dateSlot = ProDataColumns.OUTPUT_INDEX.get("date");
+    private final int gameSlot = ProDataColumns.OUTPUT_INDEX.get("gameid");
+    private final int participantSlot = ProDataColumns.OUTPUT_INDEX.get("participantid");
+    private final List<Run> runs = new ArrayList<>();
+    private final List<SortRow> buffer = new ArrayList<>();
+    private long bufferedBytes;
+    private int width;
+    private long rows;
+    private int spilledRuns;
+
+    public ExternalRowSorter(Path spillDir, long memoryBytes) {
+        this(spillDir, memoryBytes, Long.MAX_VALUE, ORDER);
+    }
+
+    private ExternalRowSorter(Path spillDir, long memoryBytes, long maxRunRows, Comparator<SortRow> order) {
+        this.spillDir = spillDir;
+        this.memoryBytes = Math.max(1, memoryBytes);
+        this.maxRunRows = Math.max(1, maxRunRows);
+        this.order = order;
+    }
+
+    // Groups output-schema rows by gameid, keeping arrival order within a game; runs are capped by row count.
+    public static ExternalRowSorter byGameId(Path spillDir, long maxRunRows) {
+        return new ExternalRowSorter(spillDir, Long.MAX_VALUE, maxRunRows, GAME_ORDER);
+    }
+
+    public int spilledRuns() {
+        return spilledRuns;
+    }
+
+    public void add(String[] values) throws IOException {
+        width = values.length;
+        SortRow sortRow = new SortRow(values.clone(), dateSlot, gameSlot, participantSlot);
+        buffer.add(sortRow);
+        bufferedBytes += sortRow.estimatedBytes();
+        rows++;
+        if (bufferedBytes >= memoryBytes || buffer.size() >= maxRunRows) {
+            runs.add(spill(buffer));
+            buffer.clear();
+            bufferedBytes = 0;
+        }
+    }
+
+    // Writes every added row to the target in order and resets the sorter for reuse.
+    public long finish(RowWriter target) throws IOException {
+        if (!runs.isEmpty()) {
+            return merge(List.of(this), target);
+        }
+        try {
+            buffer.sort(order);
+            ProRow output = new ProRow(width);
+            for (SortRow sortRow : buffer) {
+                System.arraycopy(sortRow.values, 0, output.values(), 0, width);
+                target.write(output);
+            }
+            return rows;
+        } finally {
+            discard();
+        }
+    }
+
+    // Merges the rows of several sorters into one target and resets them all. Equal rows go to the earlier sorter,
+    // so sorters filled from consecutive inputs merge exactly as one sorter fed every input in turn would.
+    public static long merge(List<ExternalRowSorter> sorters, RowWriter target) throws IOException {
+        List<Path> passFiles = new ArrayList<>();
+        try {
+            if (sorters.isEmpty()) {
+                return 0;
+            }
+            ExternalRowSorter first = sorters.get(0);
+            int maxWidth = 0;
+            long rows = 0;
+            List<Run> runs = new ArrayList<>();
+            for (ExternalRowSorter sorter : sorters) {
+                maxWidth = Math.max(maxWidth, sorter.width);
+                rows += sorter.rows;
+                // The rows still in memory take part as the sorter's last run, so they never round-trip through disk.
+                sorter.buffer.sort(first.order);
+                runs.addAll(sorter.runs);
+                runs.add(new Run(null, sorter.buffer.size(), sorter.buffer));
+            }
+            int width = maxWidth;
+            while (spilled(runs) > MAX_MERGE_RUNS) {
+                runs = first.mergePass(runs, width, passFiles);
+            }
+            ProRow output = new ProRow(width);
+            first.mergeRuns(runs, width, row -> {
+                System.arraycopy(row.values, 0, output.values(), 0, width);
+                target.write(output);
+            });
+            return rows;
+        } finally {
+            try {
+                for (Path file : passFiles) {
+                    Files.deleteIfExists(file);
+                }
+            } finally {
+                for (ExternalRowSorter sorter : sorters) {
+                    sorter.discard();
+                }
+            }
+        }
+    }
+
+    // Adapts the sorter to the writer interface the job's row producers write to.
+    public RowWriter asWriter() {
+        return new RowWriter() {
+            @Override
+            public void write(ProRow row) throws IOException {
+                add(row.values());
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    public void discard() throws IOException {
+        buffer.clear();
+        bufferedBytes = 0;
+        rows = 0;
+        try {
+            for (Run run : runs) {
+                Files.deleteIfExists(run.file);
+            }
+        } finally {
+            runs.clear();
+        }
+    }
+
+    private Run spill(List<SortRow> buffer) throws IOException {
+        buffer.sort(order);
+        Path file = Files.createTempFile(spillDir, "tmp_sort_run_", ".bin");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (SortRow row : buffer) {
+                writeRow(out, row);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        spilledRuns++;
+        return new Run(file, buffer.size(), null);
+    }
+
+    private static int spilled(List<Run> runs) {
+        int spilled = 0;
+        for (Run run : runs) {
+            if (run.file != null) {
+                spilled++;
+            }
+        }
+        return spilled;
+    }
+
+    // One pass over runs, in order: each stretch of up to MAX_MERGE_RUNS spilled runs, together with the in-memory
+    // runs among them, becomes a single spilled run. Input files are deleted as soon as they are merged.
+    private List<Run> mergePass(List<Run> runs, int width, List<Path> passFiles) throws IOException {
+        List<Run> merged = new ArrayList<>();
+        int start = 0;
+        while (start < runs.size()) {
+            int end = start;
+            int spilled = 0;
+            while (end < runs.size() && (runs.get(end).file == null || spilled < MAX_MERGE_RUNS)) {
+                spilled += runs.get(end).file != null ? 1 : 0;
+                end++;
+            }
+            List<Run> group = runs.subList(start, end);
+            if (group.size() == 1) {
+                merged.add(group.get(0));
+            } else {
+                Path file = Files.createTempFile(spillDir, "tmp_sort_run_", ".bin");
+                passFiles.add(file);
+                long count = 0;
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(file)))) {
+                    mergeRuns(group, width, row -> writeRow(out, row));
+                }
+                for (Run run : group) {
+                    count += run.count;
+                    if (run.file != null) {
+                        Files.deleteIfExists(run.file);
+                    }
+                }
+                merged.add(new Run(file, count, null));
+            }
+            start = end;
+        }
+        return merged;
+    }
+
+    private void mergeRuns(List<Run> runs, int width, RowSink sink) throws IOException {
+        List<RunCursor> cursors = new ArrayList<>();
+        try {
+            PriorityQueue<RunCursor> heap = new PriorityQueue<>(Comparator
+                    .comparing((RunCursor cursor) -> cursor.head, order)
+                    .thenComparingInt(cursor -> cursor.run));
+            for (Run run : runs) {
+                DataInputStream in = run.file == null ? null
+                        : new DataInputStream(new BufferedInputStream(Files.newInputStream(run.file)));
+                RunCursor cursor = new RunCursor(cursors.size(), this, width, in, run);
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+            }
+            while (!heap.isEmpty()) {
+                RunCursor cursor = heap.poll();
+                sink.accept(cursor.head);
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+            }
+        } finally {
+            for (RunCursor cursor : cursors) {
+                if (cursor.in != null) {
+                    cursor.in.close();
+                }
+            }
+        }
+    }
+
+    private static void writeRow(DataOutputStream out, SortRow row) throws IOException {
+        for (String value : row.values) {
+            out.writeUTF(value);
+        }
+    }
+
+    private SortRow readRow(DataInputStream in, int width) throws IOException {
+        String[] values = new String[width];
+        for (int i = 0; i < width; i++) {
+            values[i] = in.readUTF();
+        }
+        return new SortRow(values, dateSlot, gameSlot, participantSlot);
+    }
+
+    static final class SortRow {
+        final String[] values;
+        final String date;
+        final String gameId;
+        final int participantId;
+
+        SortRow(String[] values, int dateSlot, int gameSlot, int participantSlot) {
+            this.values = values;
+            this.date = values[dateSlot];
+            this.gameId = values[gameSlot];
+            this.participantId = ProRow.parseInt(values[participantSlot]);
+        }
+
+        long estimatedBytes() {
+            long bytes = ROW_OVERHEAD_BYTES;
+            for (String value : values) {
+                bytes += VALUE_OVERHEAD_BYTES + value.length();
+            }
+            return bytes;
+        }
+    }
+
+    private interface RowSink {
+        void accept(SortRow row) throws IOException;
+    }
+
+    // A sorted run: a spilled file, or the rows still in a sorter's buffer when file is null.
+    private static final class Run {
+        final Path file;
+        final long count;
+        final List<SortRow> rows;
+
+        Run(Path file, long count, List<SortRow> rows) {
+            this.file = file;
+            this.count = count;
+            this.rows = rows;
+        }
+    }
+
+    private static final class RunCursor {
+        final int run;
+        final ExternalRowSorter reader;
+        final int width;
+        final DataInputStream in;
+        final List<SortRow> rows;
+        long remaining;
+        int index;
+        SortRow head;
+
+        RunCursor(int run, ExternalRowSorter reader, int width, DataInputStream in, Run source) {
+            this.run = run;
+            this.reader = reader;
+            this.width = width;
+            this.in = in;
+            this.remaining = source.count;
+            this.rows = source.rows;
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                head = null;
+                return false;
+            }
+            remaining--;
+            head = rows != null ? rows.get(index++) : reader.readRow(in, width);
+            return true;
+        }
+    }
+}
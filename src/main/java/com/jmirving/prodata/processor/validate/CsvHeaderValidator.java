@@ -5,43 +5,80 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
 import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.compress.InputCompression;
+import com.jmirving.prodata.processor.jfr.HeaderValidationEvent;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.springframework.stereotype.Component;
 
 @Component
 public class CsvHeaderValidator {
+    private final List<String> extraColumns;
+
+    public CsvHeaderValidator() {
+        this(List.of());
+    }
+
+    private CsvHeaderValidator(List<String> extraColumns) {
+        this.extraColumns = extraColumns;
+    }
+
+    // Extra columns are required in every input and projected after OUTPUT_COLUMNS, in first-seen order.
+    public CsvHeaderValidator withExtraColumns(Collection<String> columns) {
+        Set<String> union = new LinkedHashSet<>(extraColumns);
+        for (String column : columns) {
+            String normalized = normalize(column);
+            if (!ProDataColumns.OUTPUT_INDEX.containsKey(normalized)) {
+                union.add(normalized);
+            }
+        }
+        return new CsvHeaderValidator(List.copyOf(union));
+    }
+
+    public List<String> extraColumns() {
+        return extraColumns;
+    }
 
     public HeaderIndex validate(Path csvPath) throws IOException {
         if (csvPath == null || !Files.exists(csvPath)) {
             throw new CsvValidationException("CSV path does not exist");
         }
-        try (BufferedReader reader = Files.newBufferedReader(csvPath)) {
+        try (BufferedReader reader = InputCompression.newReader(csvPath, false)) {
             String headerLine = reader.readLine();
             return validate(headerLine);
         }
     }
 
     public HeaderIndex validate(String headerLine) throws IOException {
-        if (headerLine == null || headerLine.isBlank()) {
-            throw new CsvValidationException("CSV header row is missing");
-        }
-        headerLine = stripBom(headerLine);
-        List<String> headers = parseHeader(headerLine);
-        Set<String> normalized = normalizeHeaders(headers);
-        List<String> missing = findMissing(normalized);
-        if (!missing.isEmpty()) {
-            throw new CsvValidationException("Missing required columns: " + String.join(", ", missing));
+        HeaderValidationEvent event =
+                HeaderValidationEvent.start(ProDataColumns.REQUIRED_COLUMNS.size() + extraColumns.size());
+        List<String> headers = List.of();
+        List<String> missing = List.of();
+        try {
+            if (headerLine == null || headerLine.isBlank()) {
+                throw new CsvValidationException("CSV header row is missing");
+            }
+            headerLine = stripBom(headerLine);
+            headers = parseHeader(headerLine);
+            Set<String> normalized = normalizeHeaders(headers);
+            missing = findMissing(normalized);
+            if (!missing.isEmpty()) {
+                throw new CsvValidationException("Missing required columns: " + String.join(", ", missing));
+            }
+            return new HeaderIndex(headers, buildIndex(headers), extraColumns);
+        } finally {
+            event.finish(headers.size(), missing.size());
         }
-        return new HeaderIndex(headers, buildIndex(headers));
     }
 
     private List<String> parseHeader(String headerLine) throws IOException {
@@ -75,6 +112,11 @@ public class CsvHeaderValidator {
                 missing.add(required);
             }
         }
+        for (String required : extraColumns) {
+            if (!normalizedHeaders.contains(required)) {
+                missing.add(required);
+            }
+        }
         return missing;
     }
 
@@ -89,7 +131,7 @@ public class CsvHeaderValidator {
         return indexByName;
     }
 
-    private String normalize(String header) {
+    public static String normalize(String header) {
         return header.trim().toLowerCase(Locale.ROOT);
     }
 
@@ -103,10 +145,16 @@ public class CsvHeaderValidator {
     public static final class HeaderIndex {
         private final List<String> headers;
         private final Map<String, Integer> indexByName;
+        private final ProjectionPlan projection;
 
         public HeaderIndex(List<String> headers, Map<String, Integer> indexByName) {
+            this(headers, indexByName, List.of());
+        }
+
+        HeaderIndex(List<String> headers, Map<String, Integer> indexByName, List<String> extraColumns) {
             this.headers = List.copyOf(headers);
             this.indexByName = Map.copyOf(indexByName);
+            this.projection = ProjectionPlan.compile(this, extraColumns);
         }
 
         public int indexOf(String column) {
@@ -117,5 +165,9 @@ public class CsvHeaderValidator {
         public List<String> headers() {
             return headers;
         }
+
+        public ProjectionPlan projection() {
+            return projection;
+        }
     }
 }
@@ -0,0 +1,107 @@
+package com.jmirving.prodata.processor.validate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator.HeaderIndex;
+
+public final class ProjectionPlan {
+    private final List<String> columns;
+    private final int[] sourceIndexes;
+    private final int participantSlot;
+    private final int yearSlot;
+    private final int gameSlot;
+    private final int sideSlot;
+    private final int[] pickSlots;
+    private final int[] slotsBySource;
+
+    private ProjectionPlan(List<String> columns, int[] sourceIndexes, int[] pickSlots) {
+        this.columns = columns;
+        this.sourceIndexes = sourceIndexes;
+        this.participantSlot = ProDataColumns.OUTPUT_INDEX.get("participantid");
+        this.yearSlot = ProDataColumns.OUTPUT_INDEX.get("year");
+        this.gameSlot = ProDataColumns.OUTPUT_INDEX.get("game");
+        this.sideSlot = ProDataColumns.OUTPUT_INDEX.get("side");
+        this.pickSlots = pickSlots;
+        this.slotsBySource = invert(sourceIndexes);
+    }
+
+    static ProjectionPlan compile(HeaderIndex headerIndex, List<String> extraColumns) {
+        List<String> columns = new ArrayList<>(ProDataColumns.OUTPUT_COLUMNS);
+        columns.addAll(extraColumns);
+        int[] sourceIndexes = new int[columns.size()];
+        for (int slot = 0; slot < sourceIndexes.length; slot++) {
+            sourceIndexes[slot] = headerIndex.indexOf(columns.get(slot));
+        }
+        int[] pickSlots = new int[ProDataColumns.PICK_COLUMNS.size()];
+        for (int i = 0; i < pickSlots.length; i++) {
+            pickSlots[i] = ProDataColumns.OUTPUT_INDEX.get(ProDataColumns.PICK_COLUMNS.get(i));
+        }
+        return new ProjectionPlan(List.copyOf(columns), sourceIndexes, pickSlots);
+    }
+
+    public int width() {
+        return sourceIndexes.length;
+    }
+
+    public String column(int slot) {
+        return columns.get(slot);
+    }
+
+    public List<String> columns() {
+        return columns;
+    }
+
+    public int sourceIndex(int slot) {
+        return sourceIndexes[slot];
+    }
+
+    public int participantSlot() {
+        return participantSlot;
+    }
+
+    public int yearSlot() {
+        return yearSlot;
+    }
+
+    public int gameSlot() {
+        return gameSlot;
+    }
+
+    public int sideSlot() {
+        return sideSlot;
+    }
+
+    public int pickSlotCount() {
+        return pickSlots.length;
+    }
+
+    public int pickSlot(int i) {
+        return pickSlots[i];
+    }
+
+    public int slotForSource(int sourceIndex) {
+        return sourceIndex < slotsBySource.length ? slotsBySource[sourceIndex] : -1;
+    }
+
+    public int lastSourceIndex() {
+        return slotsBySource.length - 1;
+    }
+
+    private static int[] invert(int[] sourceIndexes) {
+        int maxSource = -1;
+        for (int sourceIndex : sourceIndexes) {
+            maxSource = Math.max(maxSource, sourceIndex);
+        }
+        int[] slots = new int[maxSource + 1];
+        Arrays.fill(slots, -1);
+        for (int slot = 0; slot < sourceIndexes.length; slot++) {
+            if (sourceIndexes[slot] >= 0) {
+                slots[sourceIndexes[slot]] = slot;
+            }
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,171 @@
+package com.jmirving.prodata.processor.write;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.jmirving.prodata.processor.model.ProRow;
+
+public final class AsyncRowWriter implements RowWriter {
+    private static final long POLL_MILLIS = 100;
+
+    private final RowWriter delegate;
+    private final BlockingQueue<Batch> filled;
+    private final BlockingQueue<Batch> free;
+    private final Batch end = new Batch(0);
+    private final Thread thread;
+    private final int capacityBatches;
+    private volatile Throwable failure;
+    private int peakQueuedBatches;
+    private Batch current;
+    private boolean closed;
+
+    public AsyncRowWriter(RowWriter delegate, String name, int batchRows, int queueBatches) {
+        this.delegate = delegate;
+        this.capacityBatches = Math.max(1, queueBatches);
+        this.filled = new ArrayBlockingQueue<>(Math.max(1, queueBatches) + 1);
+        this.free = new ArrayBlockingQueue<>(Math.max(1, queueBatches) + 1);
+        for (int i = 0; i < Math.max(1, queueBatches); i++) {
+            free.add(new Batch(Math.max(1, batchRows)));
+        }
+        this.current = new Batch(Math.max(1, batchRows));
+        this.thread = new Thread(this::drain, "prodata-writer-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void write(ProRow row) throws IOException {
+        checkFailure();
+        current.add(row);
+        if (current.isFull()) {
+            enqueue(current);
+            current = takeFreeBatch();
+        }
+    }
+
+    // Highest filled-queue depth seen by the producer; a queue that sits at capacity means the writer thread is
+    // the bottleneck.
+    public int peakQueuedBatches() {
+        return peakQueuedBatches;
+    }
+
+    public int capacityBatches() {
+        return capacityBatches;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (failure == null && current.size > 0) {
+                enqueue(current);
+            }
+            if (failure == null) {
+                enqueue(end);
+            }
+            join();
+        } finally {
+            thread.interrupt();
+            delegate.close();
+        }
+        checkFailure();
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Batch batch = filled.take();
+                if (batch == end) {
+                    return;
+                }
+                for (int i = 0; i < batch.size; i++) {
+                    delegate.write(batch.rows[i]);
+                }
+                batch.size = 0;
+                free.add(batch);
+            }
+        } catch (InterruptedException e) {
+            if (!closed) {
+                failure = e;
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+    }
+
+    // Bounded waits keep a producer from blocking forever on a writer that has already failed.
+    private void enqueue(Batch batch) throws IOException {
+        try {
+            while (!filled.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+            peakQueuedBatches = Math.max(peakQueuedBatches, filled.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while queueing rows for " + thread.getName(), e);
+        }
+    }
+
+    private Batch takeFreeBatch() throws IOException {
+        try {
+            Batch batch;
+            while ((batch = free.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                checkFailure();
+            }
+            return batch;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for " + thread.getName(), e);
+        }
+    }
+
+    private void join() throws IOException {
+        try {
+            while (thread.isAlive()) {
+                thread.join(POLL_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing " + thread.getName(), e);
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        Throwable cause = failure;
+        if (cause == null) {
+            return;
+        }
+        if (cause instanceof IOException ioException) {
+            throw new IOException(thread.getName() + " failed: " + ioException.getMessage(), ioException);
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        throw new IOException(thread.getName() + " failed", cause);
+    }
+
+    private static final class Batch {
+        private final ProRow[] rows;
+        private int size;
+
+        Batch(int capacity) {
+            this.rows = new ProRow[capacity];
+        }
+
+        void add(ProRow row) {
+            if (rows[size] == null) {
+                rows[size] = new ProRow(row.values().length);
+            }
+            rows[size++].copyFrom(row);
+        }
+
+        boolean isFull() {
+            return size == rows.length;
+        }
+    }
+}
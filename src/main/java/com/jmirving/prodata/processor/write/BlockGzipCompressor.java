@@ -0,0 +1,193 @@
+package com.jmirving.prodata.processor.write;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+// Each block is a complete gzip member, so the concatenation stays readable by gunzip while the
+// index lets readers inflate any block on its own. The header line is block 0 with no rows.
+public final class BlockGzipCompressor {
+    public static final String[] INDEX_HEADER = {
+            "block", "firstRow", "rows", "offset", "compressedBytes", "uncompressedBytes"
+    };
+
+    private final ExecutorService pool;
+    private final int blockRows;
+    private final int maxBlocksInFlight;
+
+    public BlockGzipCompressor(ExecutorService pool, int parallelism, int blockRows) {
+        this.pool = pool;
+        this.blockRows = Math.max(1, blockRows);
+        this.maxBlocksInFlight = Math.max(2, parallelism * 2);
+    }
+
+    public void compress(Path csv, Path target, Path index) throws IOException {
+        try (OutputStream out = open(target, index)) {
+            Files.copy(csv, out);
+        }
+    }
+
+    // A stream that cuts the CSV bytes written to it into blocks as they arrive and compresses them on the pool,
+    // so an output can be compressed while it is written rather than read back afterwards. Closing it writes the
+    // last block and the index.
+    public OutputStream open(Path target, Path index) throws IOException {
+        OutputStream out = Files.newOutputStream(target);
+        try {
+            BufferedWriter indexWriter = Files.newBufferedWriter(index);
+            try {
+                return new BlockStream(out, new CSVPrinter(indexWriter, CSVFormat.DEFAULT.withHeader(INDEX_HEADER)));
+            } catch (IOException | RuntimeException e) {
+                indexWriter.close();
+                throw e;
+            }
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    private Block deflate(Block block) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(block.data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed, 1 << 16)) {
+            gzip.write(block.data);
+        }
+        block.compressed = compressed.toByteArray();
+        return block;
+    }
+
+    private void writeBlock(Block block, OutputStream out, CSVPrinter indexPrinter, BlockCursor cursor)
+            throws IOException {
+        out.write(block.compressed);
+        indexPrinter.printRecord(
+                cursor.blocks++,
+                block.firstRow,
+                block.rows,
+                cursor.offset,
+                block.compressed.length,
+                block.data.length
+        );
+        cursor.offset += block.compressed.length;
+    }
+
+    private Block await(Future<Block> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing output blocks", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Block compression failed", cause);
+        }
+    }
+
+    // Our CSV output doubles embedded quotes, so a newline outside quotes always ends a record.
+    private final class BlockStream extends OutputStream {
+        private final OutputStream out;
+        private final CSVPrinter indexPrinter;
+        private final ArrayDeque<Future<Block>> pending = new ArrayDeque<>();
+        private final BlockCursor cursor = new BlockCursor();
+        private ByteArrayOutputStream block = new ByteArrayOutputStream(1 << 16);
+        private int records;
+        private boolean quoted;
+        private boolean header = true;
+        private boolean closed;
+
+        BlockStream(OutputStream out, CSVPrinter indexPrinter) {
+            this.out = out;
+            this.indexPrinter = indexPrinter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] data, int offset, int length) throws IOException {
+            int start = offset;
+            int end = offset + length;
+            for (int i = offset; i < end; i++) {
+                byte b = data[i];
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (b == '\n' && !quoted && ++records == (header ? 1 : blockRows)) {
+                    block.write(data, start, i + 1 - start);
+                    start = i + 1;
+                    submit(records);
+                }
+            }
+            block.write(data, start, end - start);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try (out; indexPrinter) {
+                if (block.size() > 0) {
+                    byte[] bytes = block.toByteArray();
+                    boolean partial = bytes[bytes.length - 1] != '\n' || quoted;
+                    submit(partial ? records + 1 : records);
+                }
+                while (!pending.isEmpty()) {
+                    writeBlock(await(pending.removeFirst()), out, indexPrinter, cursor);
+                }
+            } finally {
+                for (Future<Block> future : pending) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        private void submit(int rows) throws IOException {
+            Block next = new Block(block.toByteArray(), header ? 0 : rows);
+            header = false;
+            block = new ByteArrayOutputStream(1 << 16);
+            records = 0;
+            next.firstRow = cursor.nextRow;
+            cursor.nextRow += next.rows;
+            pending.addLast(pool.submit(() -> deflate(next)));
+            while (pending.size() >= maxBlocksInFlight) {
+                writeBlock(await(pending.removeFirst()), out, indexPrinter, cursor);
+            }
+        }
+    }
+
+    private static final class BlockCursor {
+        private long blocks;
+        private long nextRow;
+        private long offset;
+    }
+
+    private static final class Block {
+        private final byte[] data;
+        private final int rows;
+        private long firstRow;
+        private byte[] compressed;
+
+        Block(byte[] data, int rows) {
+            this.data = data;
+            this.rows = rows;
+        }
+    }
+}
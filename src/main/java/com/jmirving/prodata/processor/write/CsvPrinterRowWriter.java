@@ -0,0 +1,34 @@
+package com.jmirving.prodata.processor.write;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.jmirving.prodata.processor.model.ProRow;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+public final class CsvPrinterRowWriter implements PositionedRowWriter {
+    private final Utf8CountingWriter counter;
+    private final CSVPrinter printer;
+
+    // The position assumes the writer encodes UTF-8.
+    public CsvPrinterRowWriter(Writer writer, CSVFormat format) throws IOException {
+        this.counter = new Utf8CountingWriter(writer);
+        this.printer = new CSVPrinter(counter, format);
+    }
+
+    @Override
+    public void write(ProRow row) throws IOException {
+        printer.printRecord((Object[]) row.values());
+    }
+
+    @Override
+    public long position() {
+        return counter.bytes();
+    }
+
+    @Override
+    public void close() throws IOException {
+        printer.close();
+    }
+}
@@ -0,0 +1,163 @@
+package com.jmirving.prodata.processor.write;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.jmirving.prodata.processor.model.ProRow;
+
+// Emits exactly what CSVFormat.DEFAULT prints: minimal quoting, doubled quotes, CRLF records.
+public final class FastCsvRowWriter implements PositionedRowWriter {
+    public static final int DEFAULT_BUFFER_BYTES = 1 << 20;
+
+    private final WritableByteChannel channel;
+    private byte[] buffer;
+    private int position;
+    private long flushed;
+
+    public FastCsvRowWriter(WritableByteChannel channel, List<String> header) throws IOException {
+        this(channel, header, DEFAULT_BUFFER_BYTES);
+    }
+
+    FastCsvRowWriter(WritableByteChannel channel, List<String> header, int bufferBytes) throws IOException {
+        this.channel = channel;
+        this.buffer = new byte[Math.max(64, bufferBytes)];
+        if (header != null) {
+            for (int i = 0; i < header.size(); i++) {
+                writeField(header.get(i), i == 0);
+            }
+            writeRecordEnd();
+        }
+    }
+
+    public static FastCsvRowWriter open(Path file, List<String> header) throws IOException {
+        return open(file, header, DEFAULT_BUFFER_BYTES);
+    }
+
+    public static FastCsvRowWriter open(Path file, List<String> header, int bufferBytes) throws IOException {
+        FileChannel channel = FileChannel.open(
+                file, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            return new FastCsvRowWriter(channel, header, bufferBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(ProRow row) throws IOException {
+        String[] values = row.values();
+        for (int i = 0; i < values.length; i++) {
+            writeField(values[i], i == 0);
+        }
+        writeRecordEnd();
+    }
+
+    @Override
+    public long position() {
+        return flushed + position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            flush();
+        }
+    }
+
+    private void writeField(String value, boolean first) throws IOException {
+        String field = value == null ? "" : value;
+        int length = field.length();
+        ensureCapacity(length * 3 + 3);
+        if (!first) {
+            buffer[position++] = ',';
+        }
+        if (!needsQuotes(field, first)) {
+            encode(field, false);
+            return;
+        }
+        buffer[position++] = '"';
+        encode(field, true);
+        buffer[position++] = '"';
+    }
+
+    private boolean needsQuotes(String field, boolean first) {
+        int length = field.length();
+        if (length == 0) {
+            return first;
+        }
+        if (field.charAt(0) <= '#') {
+            return true;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = field.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return field.charAt(length - 1) <= ' ';
+    }
+
+    private void encode(String field, boolean doubleQuotes) {
+        byte[] out = buffer;
+        int write = position;
+        int length = field.length();
+        for (int i = 0; i < length; i++) {
+            char c = field.charAt(i);
+            if (c < 0x80) {
+                out[write++] = (byte) c;
+                if (c == '"' && doubleQuotes) {
+                    out[write++] = '"';
+                }
+            } else if (c < 0x800) {
+                out[write++] = (byte) (0xC0 | (c >> 6));
+                out[write++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)
+                    && i + 1 < length
+                    && Character.isLowSurrogate(field.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, field.charAt(++i));
+                out[write++] = (byte) (0xF0 | (codePoint >> 18));
+                out[write++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[write++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[write++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out[write++] = '?';
+            } else {
+                out[write++] = (byte) (0xE0 | (c >> 12));
+                out[write++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[write++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        position = write;
+    }
+
+    private void writeRecordEnd() throws IOException {
+        ensureCapacity(2);
+        buffer[position++] = '\r';
+        buffer[position++] = '\n';
+    }
+
+    private void ensureCapacity(int bytes) throws IOException {
+        if (buffer.length - position >= bytes) {
+            return;
+        }
+        flush();
+        if (buffer.length < bytes) {
+            buffer = new byte[bytes];
+        }
+    }
+
+    private void flush() throws IOException {
+        ByteBuffer pending = ByteBuffer.wrap(buffer, 0, position);
+        while (pending.hasRemaining()) {
+            channel.write(pending);
+        }
+        flushed += position;
+        position = 0;
+    }
+}
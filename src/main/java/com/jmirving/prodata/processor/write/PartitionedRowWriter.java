@@ -0,0 +1,208 @@
+package com.jmirving.prodata.processor.write;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jmirving.prodata.processor.model.ProRow;
+
+// Routes rows to year=/league= directories; part numbers come from a counter shared across workers
+// so two workers that see the same partition never write the same file. Only the directory name is
+// sanitised; partitions keep the raw league so the manifest can be matched back to the input.
+public final class PartitionedRowWriter implements RowWriter {
+    private final Path root;
+    private final PartOpener opener;
+    private final AtomicInteger partNumbers;
+    private final long maxRowsPerPart;
+    private final int leagueSlot;
+    private final int dateSlot;
+    private final int patchSlot;
+    private final Map<String, Map<String, Part>> openParts = new HashMap<>();
+    private final List<Partition> partitions = new ArrayList<>();
+
+    public PartitionedRowWriter(
+            Path root,
+            List<String> columns,
+            PartOpener opener,
+            AtomicInteger partNumbers,
+            long maxRowsPerPart
+    ) {
+        this.root = root;
+        this.opener = opener;
+        this.partNumbers = partNumbers;
+        this.maxRowsPerPart = Math.max(1, maxRowsPerPart);
+        this.leagueSlot = columns.indexOf("league");
+        this.dateSlot = columns.indexOf("date");
+        this.patchSlot = columns.indexOf("patch");
+    }
+
+    @Override
+    public void write(ProRow row) throws IOException {
+        String year = row.year() == ProRow.MISSING ? "unknown" : Integer.toString(row.year());
+        String league = leagueSlot < 0 ? "" : row.value(leagueSlot);
+        Map<String, Part> leagues = openParts.computeIfAbsent(year, ignored -> new HashMap<>());
+        Part part = leagues.get(league);
+        if (part == null || part.rows == maxRowsPerPart) {
+            if (part != null) {
+                closePart(part);
+            }
+            part = openPart(year, league);
+            leagues.put(league, part);
+        }
+        part.writer.write(row);
+        part.rows++;
+        if (dateSlot >= 0) {
+            part.observeDate(row.value(dateSlot));
+        }
+        if (patchSlot >= 0) {
+            part.observePatch(row.value(patchSlot));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Map<String, Part> leagues : openParts.values()) {
+            for (Part part : leagues.values()) {
+                try {
+                    closePart(part);
+                } catch (IOException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        }
+        openParts.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public List<Partition> partitions() {
+        return List.copyOf(partitions);
+    }
+
+    private Part openPart(String year, String league) throws IOException {
+        String relative = "year=" + year + "/league=" + pathSafe(league) + "/"
+                + String.format(Locale.ROOT, "part-%05d.csv", partNumbers.incrementAndGet());
+        Path file = root.resolve(relative);
+        Files.createDirectories(file.getParent());
+        return new Part(relative, file, year, league, opener.open(file));
+    }
+
+    private void closePart(Part part) throws IOException {
+        part.writer.close();
+        partitions.add(new Partition(
+                part.relative,
+                part.year,
+                part.league,
+                part.rows,
+                Files.size(part.file),
+                part.minDate,
+                part.maxDate,
+                part.minPatch,
+                part.maxPatch
+        ));
+    }
+
+    static String pathSafe(String value) {
+        if (value == null || value.isEmpty()) {
+            return "unknown";
+        }
+        StringBuilder safe = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || (c == '.' && i > 0);
+            safe.append(allowed ? c : '_');
+        }
+        return safe.toString();
+    }
+
+    public static int comparePatch(String left, String right) {
+        String[] leftParts = left.split("\\.");
+        String[] rightParts = right.split("\\.");
+        for (int i = 0; i < Math.min(leftParts.length, rightParts.length); i++) {
+            int leftValue = ProRow.parseInt(leftParts[i]);
+            int rightValue = ProRow.parseInt(rightParts[i]);
+            int compared = leftValue != ProRow.MISSING && rightValue != ProRow.MISSING
+                    ? Integer.compare(leftValue, rightValue)
+                    : leftParts[i].compareTo(rightParts[i]);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return Integer.compare(leftParts.length, rightParts.length);
+    }
+
+    public interface PartOpener {
+        RowWriter open(Path file) throws IOException;
+    }
+
+    public record Partition(
+            String path,
+            String year,
+            String league,
+            long rows,
+            long bytes,
+            String minDate,
+            String maxDate,
+            String minPatch,
+            String maxPatch
+    ) {
+    }
+
+    private static final class Part {
+        private final String relative;
+        private final Path file;
+        private final String year;
+        private final String league;
+        private final RowWriter writer;
+        private long rows;
+        private String minDate = "";
+        private String maxDate = "";
+        private String minPatch = "";
+        private String maxPatch = "";
+
+        Part(String relative, Path file, String year, String league, RowWriter writer) {
+            this.relative = relative;
+            this.file = file;
+            this.year = year;
+            this.league = league;
+            this.writer = writer;
+        }
+
+        void observeDate(String date) {
+            if (date.isEmpty()) {
+                return;
+            }
+            if (minDate.isEmpty() || date.compareTo(minDate) < 0) {
+                minDate = date;
+            }
+            if (maxDate.isEmpty() || date.compareTo(maxDate) > 0) {
+                maxDate = date;
+            }
+        }
+
+        void observePatch(String patch) {
+            if (patch.isEmpty() || patch.equals(minPatch) || patch.equals(maxPatch)) {
+                return;
+            }
+            if (minPatch.isEmpty() || comparePatch(patch, minPatch) < 0) {
+                minPatch = patch;
+            }
+            if (maxPatch.isEmpty() || comparePatch(patch, maxPatch) > 0) {
+                maxPatch = patch;
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.jmirving.prodata.processor.write;
+
+// A row writer that knows the byte offset its next row will start at.
+public interface PositionedRowWriter extends RowWriter {
+    // Bytes written so far, including any still buffered.
+    long position();
+}
@@ -0,0 +1,10 @@
+package com.jmirving.prodata.processor.write;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import com.jmirving.prodata.processor.model.ProRow;
+
+public interface RowWriter extends Closeable {
+    void write(ProRow row) throws IOException;
+}
@@ -0,0 +1,54 @@
+package com.jmirving.prodata.processor.write;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+// Writes every byte to each target in turn; closing closes all targets and rethrows the first failure.
+public final class TeeOutputStream extends OutputStream {
+    private final List<OutputStream> targets;
+
+    public TeeOutputStream(List<OutputStream> targets) {
+        this.targets = List.copyOf(targets);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        for (OutputStream target : targets) {
+            target.write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        for (OutputStream target : targets) {
+            target.write(data, offset, length);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        for (OutputStream target : targets) {
+            target.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (OutputStream target : targets) {
+            try {
+                target.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
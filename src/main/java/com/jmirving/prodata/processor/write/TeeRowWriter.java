@@ -0,0 +1,41 @@
+package com.jmirving.prodata.processor.write;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.jmirving.prodata.processor.model.ProRow;
+
+// Writes every row to each target in turn; closing closes all targets and rethrows the first failure.
+public final class TeeRowWriter implements RowWriter {
+    private final List<RowWriter> targets;
+
+    public TeeRowWriter(List<RowWriter> targets) {
+        this.targets = List.copyOf(targets);
+    }
+
+    @Override
+    public void write(ProRow row) throws IOException {
+        for (RowWriter target : targets) {
+            target.write(row);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (RowWriter target : targets) {
+            try {
+                target.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.jmirving.prodata.processor.write;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+// Counts the UTF-8 bytes of the characters passed through; each half of a surrogate pair counts two.
+final class Utf8CountingWriter extends FilterWriter {
+    private long bytes;
+
+    Utf8CountingWriter(Writer out) {
+        super(out);
+    }
+
+    long bytes() {
+        return bytes;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        out.write(c);
+        bytes += utf8Length((char) c);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        out.write(chars, offset, length);
+        for (int i = offset; i < offset + length; i++) {
+            bytes += utf8Length(chars[i]);
+        }
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        out.write(text, offset, length);
+        for (int i = offset; i < offset + length; i++) {
+            bytes += utf8Length(text.charAt(i));
+        }
+    }
+
+    private static int utf8Length(char c) {
+        if (c < 0x80) {
+            return 1;
+        }
+        if (c < 0x800 || Character.isSurrogate(c)) {
+            return 2;
+        }
+        return 3;
+    }
+}
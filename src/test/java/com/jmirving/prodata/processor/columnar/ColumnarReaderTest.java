@@ -0,0 +1,130 @@
+package com.jmirving.prodata.processor.columnar;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jmirving.prodata.processor.model.ProRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void roundTripsRowsAcrossRowGroups() throws IOException {
+        Path file = tempDir.resolve("rows.pdc");
+        List<String> columns = List.of("gameid", "year", "participantid", "pick1");
+        String[][] rows = {
+                {"g1", "2024", "100", "Ahri"},
+                {"g1", "2024", "1", ""},
+                {"g2", "", "200", "Kai'Sa"},
+                {"g2", "2025", "-3", "Ahri"},
+                {"g3", "01", "7", "Nunu & Willump"},
+                {"g3", "2025", "", "Ahri"},
+                {"g4", "2025", "10", "Zoë"}
+        };
+        try (ColumnarRowWriter writer = new ColumnarRowWriter(file, columns, 3)) {
+            for (String[] values : rows) {
+                ProRow row = new ProRow(values.length);
+                System.arraycopy(values, 0, row.values(), 0, values.length);
+                writer.write(row);
+            }
+        }
+
+        try (ColumnarReader reader = ColumnarReader.open(file)) {
+            assertEquals(ColumnarFormat.VERSION, reader.version());
+            assertEquals(columns, reader.columns());
+            assertEquals(rows.length, reader.rowCount());
+            for (int column = 0; column < columns.size(); column++) {
+                ColumnarReader.Column values = reader.column(columns.get(column));
+                for (int row = 0; row < rows.length; row++) {
+                    assertEquals(rows[row][column], values.value(row));
+                }
+            }
+            ColumnarReader.Column year = reader.column("year");
+            assertTrue(year.isInt());
+            assertFalse(reader.column("pick1").isInt());
+            assertEquals(2024, year.intValue(0));
+            assertEquals(ProRow.MISSING, year.intValue(2));
+            assertEquals(1, year.intValue(4));
+            assertEquals(-3, reader.column("participantid").intValue(3));
+            assertEquals(List.of("Ahri", "", "Kai'Sa", "Nunu & Willump", "Zoë"), reader.column("pick1").dictionary());
+            assertThrows(IllegalArgumentException.class, () -> reader.column("kills"));
+            assertThrows(IndexOutOfBoundsException.class, () -> year.value(rows.length));
+        }
+    }
+
+    @Test
+    void appendsSegmentsWithTheirOwnDictionaries() throws IOException {
+        List<String> columns = List.of("gameid", "year", "pick1");
+        Path first = tempDir.resolve("first.pdc");
+        Path second = tempDir.resolve("second.pdc");
+        Path merged = tempDir.resolve("merged.pdc");
+        write(first, columns, 2, new String[][] {{"g1", "2024", "Ahri"}, {"g1", "2024", "Zed"}, {"g2", "", "Ahri"}});
+        write(second, columns, 2, new String[][] {{"g3", "2025", "Lux"}, {"g3", "2025", "Ahri"}});
+
+        try (ColumnarRowWriter writer = new ColumnarRowWriter(merged, columns, 2)) {
+            writer.write(row("g0", "2023", "Zed"));
+            writer.append(first);
+            writer.append(second);
+            writer.write(row("g4", "2025", "Lux"));
+        }
+
+        try (ColumnarReader reader = ColumnarReader.open(merged)) {
+            assertEquals(7, reader.rowCount());
+            assertEquals(List.of(1, 2, 1, 2, 1), groupRows(reader));
+            assertEquals(List.of("Zed", "Ahri", "Lux"), reader.column("pick1").dictionary());
+            String[] picks = {"Zed", "Ahri", "Zed", "Ahri", "Lux", "Ahri", "Lux"};
+            String[] years = {"2023", "2024", "2024", "", "2025", "2025", "2025"};
+            for (int row = 0; row < picks.length; row++) {
+                assertEquals(picks[row], reader.column("pick1").value(row));
+                assertEquals(years[row], reader.column("year").value(row));
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> {
+            try (ColumnarRowWriter writer = new ColumnarRowWriter(tempDir.resolve("other.pdc"), List.of("gameid"))) {
+                writer.append(first);
+            }
+        });
+    }
+
+    @Test
+    void rejectsFilesWithoutColumnarMagic() throws IOException {
+        Path file = tempDir.resolve("not-columnar.pdc");
+        Files.writeString(file, "gameid,league\r\n1,LCK\r\n");
+
+        assertThrows(IOException.class, () -> ColumnarReader.open(file));
+    }
+
+    private static void write(Path file, List<String> columns, int rowGroupSize, String[][] rows) throws IOException {
+        try (ColumnarRowWriter writer = new ColumnarRowWriter(file, columns, rowGroupSize)) {
+            for (String[] values : rows) {
+                writer.write(row(values));
+            }
+        }
+    }
+
+    private static ProRow row(String... values) {
+        ProRow row = new ProRow(values.length);
+        System.arraycopy(values, 0, row.values(), 0, values.length);
+        return row;
+    }
+
+    private static List<Integer> groupRows(ColumnarReader reader) {
+        List<Integer> rows = new ArrayList<>();
+        for (int group = 0; group < reader.groupCount(); group++) {
+            rows.add(reader.groupRows(group));
+        }
+        return rows;
+    }
+}
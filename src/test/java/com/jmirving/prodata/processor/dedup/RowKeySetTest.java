@@ -0,0 +1,48 @@
+package com.jmirving.prodata.processor.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RowKeySetTest {
+    @Test
+    void rejectsRepeatedKeysAcrossGrowth() {
+        RowKeySet keys = new RowKeySet(16);
+        for (int game = 0; game < 5_000; game++) {
+            for (int participant = 1; participant <= 12; participant++) {
+                assertTrue(keys.add("ESPORTSTMNT01_" + game, participant));
+            }
+        }
+        assertEquals(60_000, keys.size());
+        assertFalse(keys.add("ESPORTSTMNT01_42", 7));
+        assertFalse(keys.add("ESPORTSTMNT01_4999", 12));
+        assertTrue(keys.add("ESPORTSTMNT01_42", 13));
+        assertTrue(keys.add("ESPORTSTMNT01_5000", 1));
+        assertTrue(keys.add("", 1));
+        assertFalse(keys.add("", 1));
+        assertTrue(keys.add("gäme-€", 1));
+        assertFalse(keys.add("gäme-€", 1));
+    }
+
+    @Test
+    void mergesOtherSetsAndDetectsOverlap() {
+        RowKeySet earlier = new RowKeySet();
+        earlier.add("g1", 1);
+        earlier.add("g1", 2);
+        RowKeySet disjoint = new RowKeySet();
+        disjoint.add("g2", 1);
+        RowKeySet overlapping = new RowKeySet();
+        overlapping.add("g3", 1);
+        overlapping.add("g1", 2);
+
+        assertFalse(earlier.containsAny(disjoint));
+        assertTrue(earlier.containsAny(overlapping));
+        earlier.addAll(disjoint);
+        earlier.addAll(overlapping);
+        assertEquals(4, earlier.size());
+        assertFalse(earlier.add("g2", 1));
+        assertFalse(earlier.add("g3", 1));
+    }
+}
@@ -0,0 +1,54 @@
+package com.jmirving.prodata.processor.filter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RowFilterTest {
+    private static final int LEAGUE = ProDataColumns.OUTPUT_INDEX.get("league");
+    private static final int DATE = ProDataColumns.OUTPUT_INDEX.get("date");
+    private static final int PATCH = ProDataColumns.OUTPUT_INDEX.get("patch");
+
+    @Test
+    void isInactiveWithoutSettings() {
+        RowFilter filter = RowFilter.from(new ProDataProcessorProperties());
+
+        assertFalse(filter.isActive());
+        assertArrayEquals(new int[0], filter.slots());
+    }
+
+    @Test
+    void appliesLeagueListsAndInclusiveRanges() {
+        ProDataProcessorProperties properties = new ProDataProcessorProperties();
+        properties.setExcludeLeagues(List.of("LPL"));
+        properties.setMinDate("2025-01-15");
+        properties.setMaxDate("2025-02");
+        properties.setMinPatch("15.2");
+        properties.setMaxPatch("15.10");
+        RowFilter filter = RowFilter.from(properties);
+
+        assertTrue(filter.isActive());
+        assertTrue(filter.accepts(LEAGUE, "LCK"));
+        assertFalse(filter.accepts(LEAGUE, "LPL"));
+        assertTrue(filter.accepts(DATE, "2025-01-15 00:00:00"));
+        assertTrue(filter.accepts(DATE, "2025-02-28 23:59:59"));
+        assertFalse(filter.accepts(DATE, "2025-01-14 23:59:59"));
+        assertFalse(filter.accepts(DATE, "2025-03-01 00:00:00"));
+        assertFalse(filter.accepts(DATE, ""));
+        assertTrue(filter.accepts(PATCH, "15.2"));
+        assertTrue(filter.accepts(PATCH, "15.10"));
+        assertFalse(filter.accepts(PATCH, "15.11"));
+        assertFalse(filter.accepts(PATCH, "15.1"));
+        assertFalse(filter.accepts(PATCH, ""));
+
+        byte[] date = "x2025-02-01 10:00:00".getBytes(StandardCharsets.UTF_8);
+        assertTrue(filter.acceptsDate(date, 1, date.length - 1));
+    }
+}
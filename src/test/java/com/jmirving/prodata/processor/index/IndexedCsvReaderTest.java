@@ -0,0 +1,80 @@
+package com.jmirving.prodata.processor.index;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndexedCsvReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void looksUpGamesAndDateRangesThroughTheIndex() throws IOException {
+        Path csv = tempDir.resolve("teams.csv");
+        Files.writeString(csv, String.join("\r\n",
+                "gameid,date,note",
+                "g1,2025-01-01 10:00:00,a",
+                "g1,2025-01-01 10:00:00,\"quoted, with comma\"",
+                "g1,2025-01-01 10:00:00,c",
+                "g2,2025-01-08 10:00:00,\"multi\nline \"\"note\"\"\"",
+                "g3,2025-02-01 10:00:00,e",
+                "g1,2025-01-01 10:00:00,f",
+                ""
+        ));
+        SparseRowIndex built = SparseRowIndex.build(csv, 2);
+        built.write(SparseRowIndex.indexPath(csv));
+        assertEquals(5, SparseRowIndex.read(SparseRowIndex.indexPath(csv)).size());
+
+        try (IndexedCsvReader reader = IndexedCsvReader.open(csv)) {
+            assertEquals(List.of("gameid", "date", "note"), reader.header());
+            assertEquals(List.of(
+                    List.of("g1", "2025-01-01 10:00:00", "a"),
+                    List.of("g1", "2025-01-01 10:00:00", "quoted, with comma"),
+                    List.of("g1", "2025-01-01 10:00:00", "c"),
+                    List.of("g1", "2025-01-01 10:00:00", "f")
+            ), reader.game("g1"));
+            assertEquals(List.of(List.of("g2", "2025-01-08 10:00:00", "multi\nline \"note\"")), reader.game("g2"));
+            assertTrue(reader.game("g9").isEmpty());
+            List<List<String>> january = reader.dateRange("2025-01-02", "2025-01");
+            assertEquals(1, january.size());
+            assertEquals("g2", january.get(0).get(0));
+            assertEquals(6, reader.dateRange(null, null).size());
+            assertEquals(1, reader.dateRange("2025-02", null).size());
+        }
+    }
+
+    @Test
+    void cursorGrowsItsBufferForRecordsLongerThanIt() throws IOException {
+        Path csv = tempDir.resolve("long.csv");
+        String longValue = "x".repeat(5000);
+        Files.writeString(csv, "a,b\n1," + longValue + "\n2,\"" + longValue + ",\"\n3,\n");
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            CsvRecordCursor cursor = new CsvRecordCursor(channel, 0, 1024);
+            List<String> fields = new ArrayList<>();
+            List<List<String>> records = new ArrayList<>();
+            List<Long> starts = new ArrayList<>();
+            while (cursor.next(fields)) {
+                records.add(List.copyOf(fields));
+                starts.add(cursor.recordStart());
+            }
+            assertEquals(List.of(
+                    List.of("a", "b"),
+                    List.of("1", longValue),
+                    List.of("2", longValue + ","),
+                    List.of("3", "")
+            ), records);
+            assertEquals(List.of(0L, 4L, 4L + 2 + 5000 + 1, 4L + 2 + 5000 + 1 + 2 + 5003 + 1), starts);
+        }
+    }
+}
@@ -1,18 +1,47 @@
 package com.jmirving.prodata.processor.job;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.aggregate.ChampionMatrices;
+import com.jmirving.prodata.processor.columnar.ColumnarReader;
 import com.jmirving.prodata.processor.config.ProDataProcessorProperties;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties.CsvWriter;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties.InputReader;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties.OutputCompression;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties.OutputLayout;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties.ProfileRows;
+import com.jmirving.prodata.processor.index.IndexedCsvReader;
+import com.jmirving.prodata.processor.index.SparseRowIndex;
 import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
+import com.jmirving.prodata.processor.validate.CsvValidationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ProDataProcessorJobTest {
 
@@ -33,7 +62,7 @@ class ProDataProcessorJobTest {
         properties.setOutputDir(outputDir.toString());
         properties.setYears(List.of(2025));
 
-        ProDataProcessorJob job = new ProDataProcessorJob(properties, new CsvHeaderValidator());
+        ProDataProcessorJob job = newJob(properties, new SimpleMeterRegistry());
         job.execute();
 
         Path allOutput = firstCsv(outputDir.resolve("all"));
@@ -70,7 +99,7 @@ class ProDataProcessorJobTest {
         properties.setOutputDir(outputDir.toString());
         properties.setYears(List.of(2024, 2025));
 
-        ProDataProcessorJob job = new ProDataProcessorJob(properties, new CsvHeaderValidator());
+        ProDataProcessorJob job = newJob(properties, new SimpleMeterRegistry());
         job.execute();
 
         Path allOutput = firstCsv(outputDir.resolve("all"));
@@ -96,7 +125,7 @@ class ProDataProcessorJobTest {
         properties.setOutputDir(outputDir.toString());
         properties.setYears(List.of(2024));
 
-        ProDataProcessorJob job = new ProDataProcessorJob(properties, new CsvHeaderValidator());
+        ProDataProcessorJob job = newJob(properties, new SimpleMeterRegistry());
 
         assertThrows(IllegalStateException.class, job::execute);
     }
@@ -115,7 +144,7 @@ class ProDataProcessorJobTest {
         properties.setOutputDir(outputDir.toString());
         properties.setYears(List.of(2025));
 
-        ProDataProcessorJob job = new ProDataProcessorJob(properties, new CsvHeaderValidator());
+        ProDataProcessorJob job = newJob(properties, new SimpleMeterRegistry());
         job.execute();
 
         assertEquals(0, countTempFiles(outputDir.resolve("all")));
@@ -123,9 +152,1094 @@ class ProDataProcessorJobTest {
         assertEquals(0, countTempFiles(outputDir.resolve("teams")));
     }
 
+    @Test
+    void parallelRunMatchesSerialOutputBytes() throws IOException {
+        Path inputDir = tempDir.resolve("input-parallel");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2023_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"),
+                buildInputCsvWithCompleteTeamAndPlayer("50"));
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"),
+                buildInputCsvWithCompleteTeamAndPlayer("60"));
+
+        Path serialOutput = tempDir.resolve("output-serial");
+        Path parallelOutput = tempDir.resolve("output-parallel");
+        Path spilledOutput = tempDir.resolve("output-spilled");
+
+        runJob(inputDir, serialOutput, properties -> properties.setParallelism(1));
+        runJob(inputDir, parallelOutput, properties -> properties.setParallelism(3));
+        runJob(inputDir, spilledOutput, properties -> {
+            properties.setParallelism(3);
+            properties.setMaxInFlightBytes(0);
+        });
+
+        for (String dataset : List.of("all", "players", "teams")) {
+            byte[] expected = Files.readAllBytes(firstCsv(serialOutput.resolve(dataset)));
+            assertArrayEquals(expected, Files.readAllBytes(firstCsv(parallelOutput.resolve(dataset))));
+            assertArrayEquals(expected, Files.readAllBytes(firstCsv(spilledOutput.resolve(dataset))));
+            assertEquals(0, countTempFiles(spilledOutput.resolve(dataset)));
+        }
+    }
+
+    @Test
+    void asyncWritersMatchSynchronousOutputBytes() throws IOException {
+        Path inputDir = tempDir.resolve("input-async");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2023_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"),
+                buildInputCsvWithCompleteTeamAndPlayer("50"));
+
+        Path syncOutput = tempDir.resolve("output-sync");
+        Path asyncOutput = tempDir.resolve("output-async");
+
+        runJob(inputDir, syncOutput, properties -> { });
+        runJob(inputDir, asyncOutput, properties -> {
+            properties.setAsyncWriters(true);
+            properties.setWriterBatchRows(1);
+            properties.setWriterQueueBatches(1);
+        });
+
+        for (String dataset : List.of("all", "players", "teams")) {
+            byte[] expected = Files.readAllBytes(firstCsv(syncOutput.resolve(dataset)));
+            assertArrayEquals(expected, Files.readAllBytes(firstCsv(asyncOutput.resolve(dataset))));
+            assertEquals(0, countTempFiles(asyncOutput.resolve(dataset)));
+        }
+    }
+
+    @Test
+    void fastCsvWriterMatchesCommonsOutputBytes() throws IOException {
+        Path inputDir = tempDir.resolve("input-fast");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2023_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"),
+                buildInputCsvWithCompleteTeamAndPlayer("50"));
+
+        Path commonsOutput = tempDir.resolve("output-commons-writer");
+        Path fastOutput = tempDir.resolve("output-fast-writer");
+        Path fastParallelOutput = tempDir.resolve("output-fast-parallel");
+
+        runJob(inputDir, commonsOutput, properties -> { });
+        runJob(inputDir, fastOutput, properties -> properties.setCsvWriter(CsvWriter.FAST));
+        runJob(inputDir, fastParallelOutput, properties -> {
+            properties.setCsvWriter(CsvWriter.FAST);
+            properties.setParallelism(2);
+        });
+
+        for (String dataset : List.of("all", "players", "teams")) {
+            byte[] expected = Files.readAllBytes(firstCsv(commonsOutput.resolve(dataset)));
+            assertArrayEquals(expected, Files.readAllBytes(firstCsv(fastOutput.resolve(dataset))));
+            assertArrayEquals(expected, Files.readAllBytes(firstCsv(fastParallelOutput.resolve(dataset))));
+        }
+    }
+
+    @Test
+    void gzipInputsMatchPlainOutputBytes() throws IOException {
+        Path plainDir = tempDir.resolve("input-plain");
+        Path gzipDir = tempDir.resolve("input-gzip");
+        Files.createDirectories(plainDir);
+        Files.createDirectories(gzipDir);
+        Files.writeString(plainDir.resolve("2023_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+        Files.writeString(plainDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"),
+                buildInputCsvWithCompleteTeamAndPlayer("50"));
+        writeGzip(gzipDir.resolve("2023_LoL_esports_match_data_from_OraclesElixir.csv.gz"), buildInputCsv());
+        writeGzip(gzipDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv.gz"),
+                buildInputCsvWithCompleteTeamAndPlayer("50"));
+
+        Path plainOutput = tempDir.resolve("output-plain");
+        Path gzipOutput = tempDir.resolve("output-gzip");
+        Path gzipYearsOutput = tempDir.resolve("output-gzip-years");
+
+        runJob(plainDir, plainOutput, properties -> { });
+        runJob(gzipDir, gzipOutput, properties -> properties.setReader(InputReader.MAPPED));
+        runJob(gzipDir, gzipYearsOutput, properties -> properties.setYears(List.of(2023, 2024)));
+
+        for (String dataset : List.of("all", "players", "teams")) {
+            byte[] expected = Files.readAllBytes(firstCsv(plainOutput.resolve(dataset)));
+            assertArrayEquals(expected, Files.readAllBytes(firstCsv(gzipOutput.resolve(dataset))));
+            assertArrayEquals(expected, Files.readAllBytes(firstCsv(gzipYearsOutput.resolve(dataset))));
+        }
+    }
+
+    @Test
+    void blockCompressedOutputsInflateToPlainBytes() throws IOException {
+        Path inputDir = tempDir.resolve("input-blocks");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2023_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"),
+                buildInputCsvWithCompleteTeamAndPlayer("50"));
+
+        Path plainOutput = tempDir.resolve("output-unblocked");
+        Path blockOutput = tempDir.resolve("output-blocks");
+
+        runJob(inputDir, plainOutput, properties -> { });
+        runJob(inputDir, blockOutput, properties -> {
+            properties.setOutputCompression(OutputCompression.GZIP_BLOCKS);
+            properties.setCompressionBlockRows(1);
+            properties.setCompressionParallelism(2);
+        });
+
+        for (String dataset : List.of("all", "players", "teams")) {
+            byte[] expected = Files.readAllBytes(firstCsv(plainOutput.resolve(dataset)));
+            Path compressed = firstFile(blockOutput.resolve(dataset), ".csv.gz");
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(compressed))) {
+                assertArrayEquals(expected, in.readAllBytes());
+            }
+            List<String> index = Files.readAllLines(compressed.resolveSibling(compressed.getFileName() + ".idx"));
+            assertEquals(Files.readAllLines(firstCsv(plainOutput.resolve(dataset))).size() + 1, index.size());
+            assertEquals(0, countTempFiles(blockOutput.resolve(dataset)));
+            try (var stream = Files.list(blockOutput.resolve(dataset))) {
+                assertEquals(2, stream.count());
+            }
+        }
+
+        // Blocks are cut from the bytes as each writer emits them, so every mode publishes the same blocks.
+        List<Consumer<ProDataProcessorProperties>> modes = List.of(
+                properties -> properties.setCsvWriter(CsvWriter.FAST),
+                properties -> properties.setParallelism(2),
+                properties -> properties.setIncremental(true),
+                properties -> properties.setIncremental(true)
+        );
+        Path incrementalOutput = tempDir.resolve("output-blocks-incremental");
+        for (int mode = 0; mode < modes.size(); mode++) {
+            Consumer<ProDataProcessorProperties> customizer = modes.get(mode);
+            Path modeOutput = mode >= 2 ? incrementalOutput : tempDir.resolve("output-blocks-" + mode);
+            runJob(inputDir, modeOutput, properties -> {
+                properties.setOutputCompression(OutputCompression.GZIP_BLOCKS);
+                properties.setCompressionBlockRows(1);
+                properties.setCompressionParallelism(2);
+                customizer.accept(properties);
+            });
+            for (String dataset : List.of("all", "players", "teams")) {
+                Path expected = firstFile(blockOutput.resolve(dataset), ".csv.gz");
+                Path compressed = firstFile(modeOutput.resolve(dataset), ".csv.gz");
+                Path index = compressed.resolveSibling(compressed.getFileName() + ".idx");
+                assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(compressed));
+                assertEquals(
+                        Files.readAllLines(expected.resolveSibling(expected.getFileName() + ".idx")),
+                        Files.readAllLines(index));
+                assertEquals(0, countTempFiles(modeOutput.resolve(dataset)));
+                Files.delete(compressed);
+                Files.delete(index);
+            }
+        }
+    }
+
+    @Test
+    void writesPartitionedLayoutWithManifest() throws IOException {
+        Path inputDir = tempDir.resolve("input-partitioned");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2023_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"),
+                buildInputCsvWithCompleteTeamAndPlayer("50"));
+        Path outputDir = tempDir.resolve("output-partitioned");
+
+        runJob(inputDir, outputDir, properties -> {
+            properties.setOutputLayout(OutputLayout.PARTITIONED);
+            properties.setParallelism(2);
+            properties.setPartitionMaxRows(1);
+        });
+
+        Path teamsRun;
+        try (var stream = Files.list(outputDir.resolve("teams"))) {
+            List<Path> runs = stream.toList();
+            assertEquals(1, runs.size());
+            teamsRun = runs.get(0);
+        }
+        List<String> manifest = Files.readAllLines(teamsRun.resolve("manifest.csv"));
+        assertEquals("path,year,league,rows,bytes,minDate,maxDate,minPatch,maxPatch", manifest.get(0));
+        assertEquals(1 + 2, manifest.size());
+        String[] entry = manifest.get(1).split(",");
+        assertEquals("2025", entry[1]);
+        assertEquals("LCS", entry[2]);
+        assertEquals("1", entry[3]);
+        Path part = teamsRun.resolve(entry[0]);
+        assertTrue(part.startsWith(teamsRun.resolve("year=2025").resolve("league=LCS")));
+        assertEquals(Long.parseLong(entry[4]), Files.size(part));
+        assertEquals(String.join(",", ProDataColumns.OUTPUT_COLUMNS), Files.readAllLines(part).get(0));
+        assertEquals("13.1", entry[7]);
+        assertEquals(0, countTempFiles(outputDir.resolve("teams")));
+        assertThrows(IllegalStateException.class, () -> runJob(inputDir, outputDir, properties -> {
+            properties.setOutputLayout(OutputLayout.PARTITIONED);
+            properties.setColumnar(true);
+        }));
+    }
+
+    @Test
+    void mappedAndChunkedReadersMatchCommonsOutputBytes() throws IOException {
+        Path inputDir = tempDir.resolve("input-mapped");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"),
+                buildInputCsvWithCompleteTeamAndPlayer("\"70, quoted\""));
+
+        Path commonsOutput = tempDir.resolve("output-commons");
+        Path mappedOutput = tempDir.resolve("output-mapped");
+        Path chunkedOutput = tempDir.resolve("output-chunked");
+
+        runJob(inputDir, commonsOutput, properties -> properties.setReader(InputReader.COMMONS));
+        runJob(inputDir, mappedOutput, properties -> properties.setReader(InputReader.MAPPED));
+        runJob(inputDir, chunkedOutput, properties -> {
+            properties.setReader(InputReader.MAPPED);
+            properties.setChunkParallelism(3);
+            properties.setChunkBytes(16);
+        });
+
+        for (String dataset : List.of("all", "players", "teams")) {
+            byte[] expected = Files.readAllBytes(firstCsv(commonsOutput.resolve(dataset)));
+            assertArrayEquals(expected, Files.readAllBytes(firstCsv(mappedOutput.resolve(dataset))));
+            assertArrayEquals(expected, Files.readAllBytes(firstCsv(chunkedOutput.resolve(dataset))));
+        }
+    }
+
+    @Test
+    void incrementalRunReusesSegmentsOfUnchangedFiles() throws IOException {
+        Path inputDir = tempDir.resolve("input-incremental");
+        Path outputDir = tempDir.resolve("output-incremental");
+        Files.createDirectories(inputDir);
+        Path input2024 = inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv");
+        Path input2025 = inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv");
+        Files.writeString(input2024, buildInputCsvWithCompleteTeamAndPlayer("80"));
+        Files.writeString(input2025, buildInputCsvWithCompleteTeamAndPlayer("90"));
+
+        runJob(inputDir, outputDir, properties -> properties.setIncremental(true));
+        Path firstAll = firstCsv(outputDir.resolve("all"));
+        List<String> firstLines = Files.readAllLines(firstAll);
+        assertEquals(1 + 4, firstLines.size());
+        assertEquals(1 + 2, Files.readAllLines(outputDir.resolve("segment-manifest.csv")).size());
+
+        Path cached2024 = cachedSegment(outputDir, "2024", "all.csv");
+        Files.writeString(cached2024, "marker\r\n", StandardOpenOption.APPEND);
+        long mtime2024 = Files.getLastModifiedTime(input2024).toMillis();
+        Files.setLastModifiedTime(input2024, FileTime.fromMillis(mtime2024 + 5000));
+        Files.writeString(input2025, buildInputCsvWithCompleteTeamAndPlayer("91"));
+        Files.delete(firstAll);
+
+        runJob(inputDir, outputDir, properties -> properties.setIncremental(true));
+        List<String> secondLines = Files.readAllLines(firstCsv(outputDir.resolve("all")));
+
+        assertEquals(1 + 5, secondLines.size());
+        assertEquals("marker", secondLines.get(3));
+        assertTrue(secondLines.get(4).startsWith("91,"));
+        try (var stream = Files.list(outputDir.resolve("segments"))) {
+            assertEquals(2, stream.count());
+        }
+    }
+
+    @Test
+    void writesRunDictionarySidecars() throws IOException {
+        Path inputDir = tempDir.resolve("input-dictionaries");
+        Path outputDir = tempDir.resolve("output-dictionaries");
+        Files.createDirectories(inputDir);
+        Files.writeString(
+                inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"),
+                buildInputCsvWithCompleteTeamAndPlayer("70")
+        );
+
+        runJob(inputDir, outputDir, properties -> properties.setWriteDictionaries(true));
+
+        Path dictionaryDir = outputDir.resolve("dictionaries");
+        try (var stream = Files.list(dictionaryDir)) {
+            assertEquals(5, stream.count());
+        }
+        assertEquals(List.of("id,value", "0,LCS"), Files.readAllLines(firstCsv(dictionaryDir, "league_")));
+        List<String> champions = Files.readAllLines(firstCsv(dictionaryDir, "champion_"));
+        assertEquals(1 + 10, champions.size());
+        assertEquals("0,BAN1", champions.get(1));
+        assertThrows(IllegalStateException.class, () -> runJob(inputDir, outputDir, properties -> {
+            properties.setWriteDictionaries(true);
+            properties.setIncremental(true);
+        }));
+    }
+
+    @Test
+    void writesColumnarOutputsMatchingCsv() throws IOException {
+        Path inputDir = tempDir.resolve("input-columnar");
+        Path outputDir = tempDir.resolve("output-columnar");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+        Files.writeString(
+                inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"),
+                buildInputCsvWithCompleteTeamAndPlayer("60")
+        );
+
+        runJob(inputDir, outputDir, properties -> {
+            properties.setColumnar(true);
+            properties.setGames(true);
+        });
+        assertColumnarMatchesCsv(outputDir, List.of("all", "players", "teams", "games"));
+
+        // Per-file columnar segments are appended in file order; cached incremental segments are re-encoded.
+        Path parallelOutput = tempDir.resolve("output-columnar-parallel");
+        runJob(inputDir, parallelOutput, properties -> {
+            properties.setColumnar(true);
+            properties.setGames(true);
+            properties.setParallelism(2);
+        });
+        assertColumnarMatchesCsv(parallelOutput, List.of("all", "players", "teams", "games"));
+        Path incrementalOutput = tempDir.resolve("output-columnar-incremental");
+        for (int run = 0; run < 2; run++) {
+            runJob(inputDir, incrementalOutput, properties -> {
+                properties.setColumnar(true);
+                properties.setIncremental(true);
+            });
+            assertColumnarMatchesCsv(incrementalOutput, List.of("all", "players", "teams"));
+            for (String dataset : List.of("all", "players", "teams")) {
+                Path csv = firstCsv(incrementalOutput.resolve(dataset));
+                assertEquals(
+                        Files.readAllLines(firstCsv(outputDir.resolve(dataset))), Files.readAllLines(csv));
+                Files.delete(csv);
+                Files.delete(csv.resolveSibling(csv.getFileName().toString().replace(".csv", ".pdc")));
+            }
+        }
+    }
+
+    @Test
+    void assemblesOneGameRowPerPairedDraft() throws IOException {
+        Path inputDir = tempDir.resolve("input-games");
+        Files.createDirectories(inputDir);
+        String csv = String.join(System.lineSeparator(),
+                String.join(",", ProDataColumns.OUTPUT_COLUMNS),
+                draftRow("G1", "100", "Blue", "T1", "A"),
+                draftRow("G1", "200", "Red", "T2", "B"),
+                draftRow("G2", "200", "Red", "T3", "C"),
+                draftRow("G3", "100", "Blue", "T4", "D"),
+                draftRow("G4", "100", "Blue", "T5", "E"),
+                draftRow("G3", "200", "Red", "T6", "F")
+        );
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"), csv);
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"), csv);
+
+        Path serialOutput = tempDir.resolve("output-games-serial");
+        Path parallelOutput = tempDir.resolve("output-games-parallel");
+        // A one-game window forces G3 through the spill file.
+        runJob(inputDir, serialOutput, properties -> {
+            properties.setGames(true);
+            properties.setDraftPendingGames(1);
+        });
+        runJob(inputDir, parallelOutput, properties -> {
+            properties.setGames(true);
+            properties.setDraftPendingGames(1);
+            properties.setParallelism(2);
+        });
+
+        List<String> lines = Files.readAllLines(firstCsv(serialOutput.resolve("games")));
+        assertEquals(String.join(",", ProDataColumns.GAME_COLUMNS), lines.get(0));
+        assertEquals(5, lines.size());
+        String[] g1 = lines.get(1).split(",", -1);
+        String[] g3 = lines.get(2).split(",", -1);
+        assertEquals(ProDataColumns.GAME_COLUMNS.size(), g1.length);
+        assertEquals("G1", g1[0]);
+        assertEquals("T1", g1[ProDataColumns.GAME_COLUMNS.indexOf("blue_teamid")]);
+        assertEquals("A_ban1", g1[ProDataColumns.GAME_COLUMNS.indexOf("blue_ban1")]);
+        assertEquals("B_pick5", g1[ProDataColumns.GAME_COLUMNS.indexOf("red_pick5")]);
+        assertEquals("G3", g3[0]);
+        assertEquals("T4", g3[ProDataColumns.GAME_COLUMNS.indexOf("blue_teamid")]);
+        assertEquals("T6", g3[ProDataColumns.GAME_COLUMNS.indexOf("red_teamid")]);
+        assertEquals(0, countTempFiles(serialOutput.resolve("games")));
+        JsonNode rows = readReport(serialOutput).path("totals").path("rows");
+        assertEquals(8, rows.path("spilled_draft_halves").asLong());
+        assertEquals(4, rows.path("unpaired_games").asLong());
+
+        assertArrayEquals(
+                Files.readAllBytes(firstCsv(serialOutput.resolve("games"))),
+                Files.readAllBytes(firstCsv(parallelOutput.resolve("games")))
+        );
+        assertEquals(0, countTempFiles(parallelOutput.resolve("games")));
+    }
+
+    @Test
+    void rejectsGamesWithIncrementalRuns() throws IOException {
+        Path inputDir = tempDir.resolve("input-games-incremental");
+        Files.createDirectories(inputDir);
+        Files.writeString(
+                inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"),
+                buildInputCsvWithCompleteTeamAndPlayer("70")
+        );
+
+        assertThrows(IllegalStateException.class, () -> runJob(inputDir, tempDir.resolve("output"), properties -> {
+            properties.setGames(true);
+            properties.setIncremental(true);
+        }));
+    }
+
+    @Test
+    void writesChampionAggregatesMergedAcrossWorkers() throws IOException {
+        Path inputDir = tempDir.resolve("input-aggregates");
+        Files.createDirectories(inputDir);
+        String csv = String.join(System.lineSeparator(),
+                String.join(",", ProDataColumns.OUTPUT_COLUMNS),
+                draftRow("G1", "100", "Blue", "T1", "A"),
+                draftRow("G1", "200", "Red", "T2", "B"),
+                draftRow("G2", "100", "Blue", "T1", "A"),
+                draftRow("G2", "200", "Red", "T2", "A")
+        );
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"), csv);
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"), csv);
+
+        Path serialOutput = tempDir.resolve("output-aggregates-serial");
+        Path parallelOutput = tempDir.resolve("output-aggregates-parallel");
+        runJob(inputDir, serialOutput, properties -> properties.setAggregates(true));
+        runJob(inputDir, parallelOutput, properties -> {
+            properties.setAggregates(true);
+            properties.setParallelism(2);
+            properties.setReader(InputReader.MAPPED);
+        });
+
+        List<String> lines = Files.readAllLines(firstCsv(serialOutput.resolve("aggregates")));
+        assertEquals("patch,league,side,champion,games,picks,bans,presence", lines.get(0));
+        assertTrue(lines.contains("13.1,LCS,Blue,A_ban1,4,0,4,4"));
+        assertTrue(lines.contains("13.1,LCS,Blue,A_pick3,4,4,0,4"));
+        assertTrue(lines.contains("13.1,LCS,Red,A_pick3,4,2,0,2"));
+        assertTrue(lines.contains("13.1,LCS,Red,B_ban5,4,0,2,2"));
+        assertEquals(1 + 10 + 20, lines.size());
+        assertArrayEquals(
+                Files.readAllBytes(firstCsv(serialOutput.resolve("aggregates"))),
+                Files.readAllBytes(firstCsv(parallelOutput.resolve("aggregates")))
+        );
+        assertEquals(0, countTempFiles(serialOutput.resolve("aggregates")));
+    }
+
+    @Test
+    void writesChampionMatricesPerPatch() throws IOException {
+        Path inputDir = tempDir.resolve("input-matrices");
+        Path outputDir = tempDir.resolve("output-matrices");
+        Files.createDirectories(inputDir);
+        String csv = String.join(System.lineSeparator(),
+                String.join(",", ProDataColumns.OUTPUT_COLUMNS),
+                draftRow("G1", "100", "Blue", "T1", "A"),
+                draftRow("G1", "200", "Red", "T2", "B"),
+                draftRow("G2", "100", "Blue", "T1", "A"),
+                draftRow("G2", "200", "Red", "T2", "A")
+        );
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"), csv);
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"), csv);
+
+        runJob(inputDir, outputDir, properties -> {
+            properties.setMatrices(true);
+            properties.setMatrixParallelism(4);
+        });
+
+        ChampionMatrices matrices = ChampionMatrices.read(firstFile(outputDir.resolve("matrices"), ".bin"));
+        assertEquals(List.of("13.1"), matrices.patches());
+        assertEquals(4, matrices.games("13.1"));
+        assertEquals(6, matrices.synergy("13.1", "A_pick1", "A_pick2"));
+        assertEquals(0, matrices.synergy("13.1", "A_pick1", "A_pick1"));
+        assertEquals(2, matrices.counter("13.1", "A_pick1", "B_pick1"));
+        assertEquals(4, matrices.counter("13.1", "A_pick1", "A_pick1"));
+        assertEquals(2, matrices.banAgainst("13.1", "B_pick1", "A_ban1"));
+        assertEquals(0, matrices.banAgainst("13.1", "A_pick1", "A_pick1"));
+        assertEquals(0, countTempFiles(outputDir.resolve("matrices")));
+
+        // Both files hold G1 and G2, so the drafts of the later file pair after every half of the earlier one.
+        List<Consumer<ProDataProcessorProperties>> modes = List.of(
+                properties -> properties.setParallelism(2),
+                properties -> properties.setIncremental(true),
+                properties -> properties.setIncremental(true)
+        );
+        Path incrementalOutput = tempDir.resolve("output-matrices-incremental");
+        for (int mode = 0; mode < modes.size(); mode++) {
+            Consumer<ProDataProcessorProperties> customizer = modes.get(mode);
+            Path modeOutput = mode >= 1 ? incrementalOutput : tempDir.resolve("output-matrices-" + mode);
+            runJob(inputDir, modeOutput, properties -> {
+                properties.setMatrices(true);
+                properties.setMatrixParallelism(4);
+                customizer.accept(properties);
+            });
+            Path written = firstFile(modeOutput.resolve("matrices"), ".bin");
+            assertSameMatrices(matrices, ChampionMatrices.read(written));
+            assertEquals(0, countTempFiles(modeOutput.resolve("matrices")));
+            Files.delete(written);
+        }
+    }
+
+    @Test
+    void filtersRowsIdenticallyAcrossReaders() throws IOException {
+        Path inputDir = tempDir.resolve("input-filters");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"), String.join(
+                System.lineSeparator(),
+                String.join(",", ProDataColumns.OUTPUT_COLUMNS),
+                draftRow("G1", "100", "Blue", "T1", "A"),
+                draftRow("G1", "200", "Red", "T2", "B").replace("LCS", "LEC"),
+                draftRow("G2", "100", "Blue", "T1", "A").replace("13.1", "12.9"),
+                draftRow("G3", "200", "Red", "T2", "A")
+        ));
+
+        Path commonsOutput = tempDir.resolve("output-filters-commons");
+        Path chunkedOutput = tempDir.resolve("output-filters-chunked");
+        Consumer<ProDataProcessorProperties> filters = properties -> {
+            properties.setIncludeLeagues(List.of("LCS"));
+            properties.setMinPatch("13.1");
+        };
+        runJob(inputDir, commonsOutput, filters);
+        runJob(inputDir, chunkedOutput, filters.andThen(properties -> {
+            properties.setReader(InputReader.MAPPED);
+            properties.setChunkParallelism(2);
+            properties.setChunkBytes(1);
+        }));
+
+        List<String> lines = Files.readAllLines(firstCsv(commonsOutput.resolve("all")));
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(1).startsWith("G1,LCS,"));
+        assertTrue(lines.get(2).startsWith("G3,LCS,"));
+        assertArrayEquals(
+                Files.readAllBytes(firstCsv(commonsOutput.resolve("all"))),
+                Files.readAllBytes(firstCsv(chunkedOutput.resolve("all")))
+        );
+    }
+
+    @Test
+    void fansOutConfiguredProfilesFromOneParse() throws IOException {
+        Path inputDir = tempDir.resolve("input-profiles");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"),
+                withExtraColumns(buildInputCsv(), "1", "4"));
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"),
+                withExtraColumns(buildInputCsvWithCompleteTeamAndPlayer("80"), "0", "7"));
+
+        Path serialOutput = tempDir.resolve("output-profiles-serial");
+        Path parallelOutput = tempDir.resolve("output-profiles-parallel");
+        Consumer<ProDataProcessorProperties> profiles = properties -> properties.setProfiles(List.of(
+                profile("chatlol", List.of("gameid", "participantid", "Result", "kills"), ProfileRows.ALL, false),
+                profile("player_kills", List.of("gameid", "kills"), ProfileRows.PLAYERS, true)
+        ));
+        runJob(inputDir, serialOutput, profiles);
+        runJob(inputDir, parallelOutput, profiles.andThen(properties -> properties.setParallelism(2)));
+
+        List<String> chatlol = Files.readAllLines(firstCsv(serialOutput.resolve("chatlol"), "chatlol_"));
+        assertEquals(List.of(
+                "gameid,participantid,result,kills",
+                "1,100,1,4",
+                "2,200,1,4",
+                "3,1,1,4",
+                "80,100,0,7",
+                "80,1,0,7"
+        ), chatlol);
+        List<String> playerKills = Files.readAllLines(firstCsv(serialOutput.resolve("player_kills"), "player_kills_"));
+        assertEquals(List.of("gameid,kills", "3,4", "80,7"), playerKills);
+        List<String> all = Files.readAllLines(firstCsv(serialOutput.resolve("all")));
+        assertEquals(String.join(",", ProDataColumns.OUTPUT_COLUMNS), all.get(0));
+        assertEquals(5, all.size());
+        assertArrayEquals(
+                Files.readAllBytes(firstCsv(serialOutput.resolve("chatlol"))),
+                Files.readAllBytes(firstCsv(parallelOutput.resolve("chatlol")))
+        );
+        assertArrayEquals(
+                Files.readAllBytes(firstCsv(serialOutput.resolve("all"))),
+                Files.readAllBytes(firstCsv(parallelOutput.resolve("all")))
+        );
+    }
+
+    @Test
+    void failsWhenInputLacksProfileColumns() throws IOException {
+        Path inputDir = tempDir.resolve("input-profiles-missing");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+
+        assertThrows(CsvValidationException.class, () -> runJob(inputDir, tempDir.resolve("output"), properties ->
+                properties.setProfiles(List.of(profile("chatlol", List.of("kills"), ProfileRows.ALL, true)))));
+    }
+
+    @Test
+    void rejectsReservedOrNestedProfileNames() throws IOException {
+        Path inputDir = tempDir.resolve("input-profiles-names");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+
+        for (String name : List.of("all", "Teams", "reports", "..", "../escape", "nested/dir", "nested\\dir")) {
+            IllegalStateException failure = assertThrows(IllegalStateException.class, () ->
+                    runJob(inputDir, tempDir.resolve("output-profiles-names"), properties -> properties.setProfiles(
+                            List.of(profile(name, List.of("gameid"), ProfileRows.ALL, true)))));
+            assertTrue(failure.getMessage().contains("Output profile name"), failure.getMessage());
+        }
+    }
+
+    @Test
+    void refusesProfileThatWouldOverwriteASidecar() throws IOException {
+        Path inputDir = tempDir.resolve("input-profiles-collision");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+        Path outputDir = tempDir.resolve("output-profiles-collision");
+        ProDataProcessorProperties.Profile league = profile("league", List.of("gameid"), ProfileRows.ALL, true);
+        league.setOutputDir(outputDir.resolve("dictionaries").toString());
+
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () ->
+                runJob(inputDir, outputDir, properties -> {
+                    properties.setWriteDictionaries(true);
+                    properties.setProfiles(List.of(league));
+                }));
+
+        assertTrue(failure.getMessage().contains("league_"), failure.getMessage());
+        assertEquals(0, countTempFiles(outputDir.resolve("dictionaries")));
+        try (var stream = Files.list(outputDir.resolve("all"))) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    @Test
+    void publishesRunMetricsAndWritesJsonReport() throws IOException {
+        Path inputDir = tempDir.resolve("input-metrics");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"),
+                buildInputCsvWithCompleteTeamAndPlayer("90"));
+
+        Path outputDir = tempDir.resolve("output-metrics");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        runJob(inputDir, outputDir, registry, properties -> {
+            properties.setParallelism(2);
+            properties.setMetricsSampleRows(1);
+        });
+
+        JsonNode report = readReport(outputDir);
+        assertEquals("2024_LoL_esports_match_data_from_OraclesElixir.csv",
+                report.path("files").path(0).path("file").asText());
+        assertEquals(4, report.path("totals").path("rows").path("all").asLong());
+        assertTrue(report.path("segmentBudget").path("peakBytes").isNumber());
+        assertTrue(report.path("files").path(0).path("stagesMillis").has("read"));
+        assertEquals(1, registry.find("prodata.run.duration").timer().count());
+        assertEquals(4.0, registry.find("prodata.rows").tag("dataset", "all").counter().count());
+        assertEquals(1, registry.find("prodata.stage.duration").tag("stage", "process").timer().count());
+        assertTrue(registry.find("prodata.heap.peak").summary().totalAmount() > 0);
+    }
+
+    @Test
+    void emitsFlightRecorderEventsPerFileHeaderAndBatch() throws IOException {
+        Path inputDir = tempDir.resolve("input-jfr");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"),
+                buildInputCsvWithCompleteTeamAndPlayer("95"));
+
+        Path recordingFile = tempDir.resolve("prodata.jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : List.of("FileStarted", "FileProcessed", "HeaderValidation", "RowBatch")) {
+                recording.enable("com.jmirving.prodata." + event);
+            }
+            recording.start();
+            runJob(inputDir, tempDir.resolve("output-jfr"), properties -> properties.setJfrBatchRows(2));
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        assertEquals(2, countEvents(events, "com.jmirving.prodata.FileStarted"));
+        assertEquals(2, countEvents(events, "com.jmirving.prodata.HeaderValidation"));
+        assertEquals(3, countEvents(events, "com.jmirving.prodata.RowBatch"));
+        RecordedEvent first = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.jmirving.prodata.FileProcessed"))
+                .filter(event -> event.getString("file").startsWith("2024"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, first.getLong("rows"));
+        assertEquals(1, first.getLong("droppedTeamRows"));
+    }
+
+    private Path cachedSegment(Path outputDir, String year, String dataset) throws IOException {
+        try (var stream = Files.list(outputDir.resolve("segments"))) {
+            return stream.filter(path -> path.getFileName().toString().startsWith(year))
+                    .findFirst()
+                    .orElseThrow()
+                    .resolve(dataset);
+        }
+    }
+
+    @Test
+    void writesGameLevelChangelogAgainstPreviousRun() throws IOException {
+        Path inputDir = tempDir.resolve("input-delta");
+        Path outputDir = tempDir.resolve("output-delta");
+        Files.createDirectories(inputDir);
+        Path input = inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv");
+        String header = String.join(",", ProDataColumns.OUTPUT_COLUMNS);
+        Files.writeString(input, String.join(System.lineSeparator(),
+                header,
+                draftRow("10", "100", "Blue", "T1", "Ahri"),
+                draftRow("10", "200", "Red", "T2", "Zed"),
+                draftRow("11", "100", "Blue", "T1", "Lux"),
+                draftRow("12", "100", "Blue", "T1", "Jax")
+        ));
+
+        runJob(inputDir, outputDir, properties -> properties.setDelta(true));
+        Path firstChanges = firstCsv(outputDir.resolve("delta"), "changes_");
+        List<String> first = Files.readAllLines(firstChanges);
+        assertEquals("op," + header, first.get(0));
+        assertEquals(1 + 4, first.size());
+        assertTrue(first.stream().skip(1).allMatch(line -> line.startsWith("added,")));
+        Files.delete(firstChanges);
+
+        Files.writeString(input, String.join(System.lineSeparator(),
+                header,
+                draftRow("10", "100", "Blue", "T1", "Ahri"),
+                draftRow("10", "200", "Red", "T2", "Zed"),
+                draftRow("11", "100", "Blue", "T1", "Vex"),
+                draftRow("13", "100", "Blue", "T1", "Kai")
+        ));
+        runJob(inputDir, outputDir, properties -> properties.setDelta(true));
+
+        List<String> second = Files.readAllLines(firstCsv(outputDir.resolve("delta"), "changes_"));
+        assertEquals(1 + 3, second.size());
+        assertEquals("removed,12" + ",".repeat(ProDataColumns.OUTPUT_COLUMNS.size() - 1), second.get(1));
+        assertEquals("changed," + draftRow("11", "100", "Blue", "T1", "Vex"), second.get(2));
+        assertEquals("added," + draftRow("13", "100", "Blue", "T1", "Kai"), second.get(3));
+        assertTrue(Files.exists(outputDir.resolve("delta").resolve("game_hashes.bin")));
+        try (var stream = Files.list(outputDir.resolve("delta"))) {
+            assertEquals(2, stream.count());
+        }
+    }
+
+    @Test
+    void writesTheSameChangelogInEveryMode() throws IOException {
+        Path inputDir = tempDir.resolve("input-delta-modes");
+        Files.createDirectories(inputDir);
+        String header = String.join(",", ProDataColumns.OUTPUT_COLUMNS);
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"),
+                String.join(System.lineSeparator(),
+                        header,
+                        draftRow("10", "100", "Blue", "T1", "Ahri"),
+                        draftRow("11", "100", "Blue", "T1", "Lux")
+                ));
+        // Game 11 continues across the files and game 10 comes back after other games, so it has two runs.
+        Path later = inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv");
+        Files.writeString(later, String.join(System.lineSeparator(),
+                header,
+                draftRow("11", "200", "Red", "T2", "Zed"),
+                draftRow("12", "100", "Blue", "T1", "Jax"),
+                draftRow("10", "200", "Red", "T2", "Vex")
+        ));
+
+        List<Consumer<ProDataProcessorProperties>> modes = List.of(
+                properties -> { },
+                properties -> properties.setCsvWriter(CsvWriter.FAST),
+                properties -> properties.setParallelism(2),
+                properties -> properties.setIncremental(true)
+        );
+        List<List<String>> firstRuns = runDeltaModes(inputDir, modes);
+        assertEquals(1 + 5, firstRuns.get(0).size());
+
+        Files.writeString(later, String.join(System.lineSeparator(),
+                header,
+                draftRow("11", "200", "Red", "T2", "Zed"),
+                draftRow("12", "100", "Blue", "T1", "Jax"),
+                draftRow("10", "200", "Red", "T2", "Kai")
+        ));
+        List<List<String>> secondRuns = runDeltaModes(inputDir, modes);
+        assertEquals(List.of(
+                "op," + header,
+                "changed," + draftRow("10", "100", "Blue", "T1", "Ahri"),
+                "changed," + draftRow("10", "200", "Red", "T2", "Kai")
+        ), secondRuns.get(0));
+        for (int mode = 1; mode < modes.size(); mode++) {
+            assertEquals(firstRuns.get(0), firstRuns.get(mode));
+            assertEquals(secondRuns.get(0), secondRuns.get(mode));
+            assertArrayEquals(
+                    Files.readAllBytes(tempDir.resolve("output-delta-modes-0").resolve("delta/game_hashes.bin")),
+                    Files.readAllBytes(tempDir.resolve("output-delta-modes-" + mode).resolve("delta/game_hashes.bin")));
+        }
+    }
+
+    @Test
+    void rejectsDeltaWithPartitionedLayout() throws IOException {
+        Path inputDir = tempDir.resolve("input-delta-partitioned");
+        Files.createDirectories(inputDir);
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"), buildInputCsv());
+
+        assertThrows(IllegalStateException.class, () -> runJob(inputDir, tempDir.resolve("output"), properties -> {
+            properties.setDelta(true);
+            properties.setOutputLayout(OutputLayout.PARTITIONED);
+        }));
+    }
+
+    @Test
+    void dropsDuplicateGameParticipantRowsAcrossYears() throws IOException {
+        Path inputDir = tempDir.resolve("input-dedup");
+        Files.createDirectories(inputDir);
+        String header = String.join(",", ProDataColumns.OUTPUT_COLUMNS);
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"),
+                String.join(System.lineSeparator(),
+                        header,
+                        draftRow("10", "100", "Blue", "T1", "Ahri"),
+                        draftRow("10", "200", "Red", "T2", "Zed"),
+                        draftRow("11", "100", "Blue", "T1", "Lux"),
+                        draftRow("11", "100", "Blue", "T1", "Lux")
+                ));
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"),
+                String.join(System.lineSeparator(),
+                        header,
+                        draftRow("10", "100", "Blue", "T1", "Vex"),
+                        draftRow("12", "100", "Blue", "T1", "Jax")
+                ));
+
+        Path serialOutput = tempDir.resolve("output-dedup-serial");
+        Path parallelOutput = tempDir.resolve("output-dedup-parallel");
+        runJob(inputDir, serialOutput, properties -> properties.setDedup(true));
+        runJob(inputDir, parallelOutput, properties -> {
+            properties.setDedup(true);
+            properties.setParallelism(2);
+        });
+
+        List<String> all = Files.readAllLines(firstCsv(serialOutput.resolve("all")));
+        assertEquals(List.of(
+                header,
+                draftRow("10", "100", "Blue", "T1", "Ahri"),
+                draftRow("10", "200", "Red", "T2", "Zed"),
+                draftRow("11", "100", "Blue", "T1", "Lux"),
+                draftRow("12", "100", "Blue", "T1", "Jax")
+        ), all);
+        assertArrayEquals(
+                Files.readAllBytes(firstCsv(serialOutput.resolve("all"))),
+                Files.readAllBytes(firstCsv(parallelOutput.resolve("all")))
+        );
+        for (Path outputDir : List.of(serialOutput, parallelOutput)) {
+            assertEquals(2, readReport(outputDir).path("totals").path("rows").path("duplicate").asLong());
+        }
+    }
+
+    @Test
+    void keepsCompleteCopyWhenIncompleteDuplicateComesFirst() throws IOException {
+        Path inputDir = tempDir.resolve("input-dedup-incomplete");
+        Files.createDirectories(inputDir);
+        String header = String.join(",", ProDataColumns.OUTPUT_COLUMNS);
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"),
+                String.join(System.lineSeparator(),
+                        header,
+                        draftRow("10", "100", "Blue", "T1", "Ahri").replace("Ahri_pick1", ""),
+                        draftRow("10", "100", "Blue", "T1", "Ahri")
+                ));
+
+        Path outputDir = tempDir.resolve("output-dedup-incomplete");
+        runJob(inputDir, outputDir, properties -> properties.setDedup(true));
+
+        assertEquals(List.of(header, draftRow("10", "100", "Blue", "T1", "Ahri")),
+                Files.readAllLines(firstCsv(outputDir.resolve("all"))));
+        assertEquals(0, readReport(outputDir).path("totals").path("rows").path("duplicate").asLong());
+    }
+
+    @Test
+    void sortsOutputsByDateGameAndParticipant() throws IOException {
+        Path inputDir = tempDir.resolve("input-sorted");
+        Files.createDirectories(inputDir);
+        String header = String.join(",", ProDataColumns.OUTPUT_COLUMNS);
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"),
+                String.join(System.lineSeparator(),
+                        header,
+                        draftRow("20", "200", "Red", "T2", "Zed").replace("2025-01-01", "2025-02-01"),
+                        draftRow("20", "100", "Blue", "T1", "Ahri").replace("2025-01-01", "2025-02-01")
+                ));
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"),
+                String.join(System.lineSeparator(),
+                        header,
+                        draftRow("30", "100", "Blue", "T1", "Lux"),
+                        draftRow("10", "100", "Blue", "T1", "Jax")
+                ));
+
+        Path spillDir = tempDir.resolve("sort-spill");
+        Path outputDir = tempDir.resolve("output-sorted");
+        runJob(inputDir, outputDir, properties -> {
+            properties.setSortedOutput(true);
+            properties.setSortMemoryBytes(1);
+            properties.setSortSpillDir(spillDir.toString());
+        });
+
+        List<String> gameIds = Files.readAllLines(firstCsv(outputDir.resolve("teams"))).stream()
+                .skip(1)
+                .map(line -> line.substring(0, line.indexOf(',')) + "/" + line.split(",")[7])
+                .toList();
+        assertEquals(List.of("10/100", "30/100", "20/100", "20/200"), gameIds);
+        try (var stream = Files.list(outputDir)) {
+            assertTrue(stream.noneMatch(path -> path.getFileName().toString().startsWith("tmp_")));
+        }
+        try (var stream = Files.list(outputDir.resolve("teams"))) {
+            assertEquals(1, stream.count());
+        }
+        try (var stream = Files.list(spillDir)) {
+            assertEquals(0, stream.count());
+        }
+
+        // Per-file sorters merged in file order give the same output as the serial sorter, cached segments included.
+        Path parallelOutput = tempDir.resolve("output-sorted-parallel");
+        runJob(inputDir, parallelOutput, properties -> {
+            properties.setSortedOutput(true);
+            properties.setSortMemoryBytes(1);
+            properties.setSortSpillDir(spillDir.toString());
+            properties.setParallelism(2);
+        });
+        Path incrementalOutput = tempDir.resolve("output-sorted-incremental");
+        for (int run = 0; run < 2; run++) {
+            runJob(inputDir, incrementalOutput, properties -> {
+                properties.setSortedOutput(true);
+                properties.setSortSpillDir(spillDir.toString());
+                properties.setIncremental(true);
+            });
+            for (String dataset : List.of("all", "players", "teams")) {
+                List<String> expected = Files.readAllLines(firstCsv(outputDir.resolve(dataset)));
+                assertEquals(expected, Files.readAllLines(firstCsv(parallelOutput.resolve(dataset))));
+                Path incremental = firstCsv(incrementalOutput.resolve(dataset));
+                assertEquals(expected, Files.readAllLines(incremental));
+                Files.delete(incremental);
+            }
+        }
+        try (var stream = Files.list(spillDir)) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    @Test
+    void writesSparseIndexSidecarsForPointLookups() throws IOException {
+        Path inputDir = tempDir.resolve("input-index");
+        Files.createDirectories(inputDir);
+        String header = String.join(",", ProDataColumns.OUTPUT_COLUMNS);
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"),
+                String.join(System.lineSeparator(),
+                        header,
+                        draftRow("10", "100", "Blue", "T1", "Ahri"),
+                        draftRow("10", "200", "Red", "T2", "Zed"),
+                        draftRow("11", "100", "Blue", "T1", "Lux"),
+                        draftRow("11", "200", "Red", "T2", "Jax")
+                ));
+
+        Path outputDir = tempDir.resolve("output-index");
+        runJob(inputDir, outputDir, properties -> {
+            properties.setSparseIndex(true);
+            properties.setIndexIntervalRows(1);
+        });
+
+        Path teams = firstCsv(outputDir.resolve("teams"));
+        assertTrue(Files.exists(SparseRowIndex.indexPath(teams)));
+        assertTrue(Files.exists(SparseRowIndex.indexPath(firstCsv(outputDir.resolve("all")))));
+        try (IndexedCsvReader reader = IndexedCsvReader.open(teams)) {
+            assertEquals(ProDataColumns.OUTPUT_COLUMNS, reader.header());
+            List<String> game = reader.game("11").stream().map(values -> String.join(",", values)).toList();
+            assertEquals(List.of(
+                    draftRow("11", "100", "Blue", "T1", "Lux"),
+                    draftRow("11", "200", "Red", "T2", "Jax")
+            ), game);
+            assertEquals(4, reader.dateRange("2025-01-01", "2025-01-01").size());
+        }
+        assertThrows(IllegalStateException.class, () -> runJob(inputDir, outputDir, properties -> {
+            properties.setSparseIndex(true);
+            properties.setOutputCompression(OutputCompression.GZIP_BLOCKS);
+        }));
+    }
+
+    @Test
+    void recordsTheSameIndexAsAScanOfThePublishedCsv() throws IOException {
+        Path inputDir = tempDir.resolve("input-index-modes");
+        Files.createDirectories(inputDir);
+        String header = String.join(",", ProDataColumns.OUTPUT_COLUMNS);
+        Files.writeString(inputDir.resolve("2024_LoL_esports_match_data_from_OraclesElixir.csv"),
+                String.join(System.lineSeparator(),
+                        header,
+                        draftRow("10", "100", "Blue", "T1", "Zoë"),
+                        draftRow("10", "200", "Red", "T2", "Zed"),
+                        draftRow("11", "100", "Blue", "T1", "Lux")
+                ));
+        // The 2025 file continues game 11, so its leading run joins the last run of the 2024 rows.
+        Files.writeString(inputDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv"),
+                String.join(System.lineSeparator(),
+                        header,
+                        draftRow("11", "200", "Red", "T2", "Jax"),
+                        draftRow("11", "100", "Blue", "T3", "Ahri"),
+                        draftRow("11", "200", "Red", "T4", "Nunu & Willump"),
+                        draftRow("12", "100", "Blue", "T1", "Zoë")
+                ));
+
+        List<Consumer<ProDataProcessorProperties>> modes = List.of(
+                properties -> { },
+                properties -> properties.setCsvWriter(CsvWriter.FAST),
+                properties -> properties.setParallelism(2),
+                properties -> {
+                    properties.setParallelism(2);
+                    properties.setCsvWriter(CsvWriter.FAST);
+                },
+                properties -> properties.setSortedOutput(true),
+                properties -> properties.setIncremental(true),
+                properties -> properties.setIncremental(true)
+        );
+        Path incrementalOutput = tempDir.resolve("output-index-incremental");
+        for (int mode = 0; mode < modes.size(); mode++) {
+            Consumer<ProDataProcessorProperties> customizer = modes.get(mode);
+            Path outputDir = mode >= 5 ? incrementalOutput : tempDir.resolve("output-index-" + mode);
+            runJob(inputDir, outputDir, properties -> {
+                properties.setSparseIndex(true);
+                properties.setIndexIntervalRows(2);
+                customizer.accept(properties);
+            });
+            for (String dataset : List.of("all", "teams")) {
+                Path csv = firstCsv(outputDir.resolve(dataset));
+                Path scanned = tempDir.resolve("scanned.idx");
+                SparseRowIndex.build(csv, 2).write(scanned);
+                assertArrayEquals(Files.readAllBytes(scanned), Files.readAllBytes(SparseRowIndex.indexPath(csv)));
+                assertEquals(0, countTempFiles(outputDir.resolve(dataset)));
+                if (outputDir.equals(incrementalOutput)) {
+                    Files.delete(SparseRowIndex.indexPath(csv));
+                    Files.delete(csv);
+                }
+            }
+        }
+    }
+
+    private void runJob(Path inputDir, Path outputDir, Consumer<ProDataProcessorProperties> customizer)
+            throws IOException {
+        runJob(inputDir, outputDir, new SimpleMeterRegistry(), customizer);
+    }
+
+    private void runJob(
+            Path inputDir,
+            Path outputDir,
+            MeterRegistry registry,
+            Consumer<ProDataProcessorProperties> customizer
+    ) throws IOException {
+        ProDataProcessorProperties properties = new ProDataProcessorProperties();
+        properties.setInputDir(inputDir.toString());
+        properties.setOutputDir(outputDir.toString());
+        customizer.accept(properties);
+
+        newJob(properties, registry).execute();
+    }
+
+    private ProDataProcessorJob newJob(ProDataProcessorProperties properties, MeterRegistry registry) {
+        return new ProDataProcessorJob(properties, new CsvHeaderValidator(), registry, new ObjectMapper());
+    }
+
+    private JsonNode readReport(Path outputDir) throws IOException {
+        return new ObjectMapper().readTree(firstFile(outputDir.resolve("reports"), ".json").toFile());
+    }
+
+    private void assertColumnarMatchesCsv(Path outputDir, List<String> datasets) throws IOException {
+        for (String dataset : datasets) {
+            Path csv = firstCsv(outputDir.resolve(dataset));
+            Path columnar = csv.resolveSibling(csv.getFileName().toString().replace(".csv", ".pdc"));
+            List<String> lines = Files.readAllLines(csv);
+            try (ColumnarReader reader = ColumnarReader.open(columnar)) {
+                assertEquals(List.of(lines.get(0).split(",")), reader.columns());
+                assertEquals(lines.size() - 1, reader.rowCount());
+                for (int row = 0; row < reader.rowCount(); row++) {
+                    String[] expected = lines.get(row + 1).split(",", -1);
+                    for (int column = 0; column < expected.length; column++) {
+                        assertEquals(expected[column], reader.column(reader.columns().get(column)).value(row));
+                    }
+                }
+            }
+            assertEquals(0, countTempFiles(outputDir.resolve(dataset)));
+        }
+    }
+
     private Path firstCsv(Path dir) throws IOException {
+        return firstCsv(dir, "");
+    }
+
+    private Path firstFile(Path dir, String suffix) throws IOException {
+        try (var stream = Files.list(dir)) {
+            return stream.filter(path -> path.getFileName().toString().endsWith(suffix))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No " + suffix + " output in " + dir));
+        }
+    }
+
+    private Path firstCsv(Path dir, String prefix) throws IOException {
         try (var stream = Files.list(dir)) {
-            return stream.filter(path -> path.getFileName().toString().endsWith(".csv"))
+            return stream.filter(path -> path.getFileName().toString().startsWith(prefix))
+                    .filter(path -> path.getFileName().toString().endsWith(".csv"))
                     .findFirst()
                     .orElseThrow(() -> new IllegalStateException("No CSV output in " + dir));
         }
@@ -251,6 +1365,84 @@ class ProDataProcessorJobTest {
         return String.join(System.lineSeparator(), header, teamComplete, playerRow);
     }
 
+    // Runs the job once per mode, each with its own output directory, and returns each run's changelog lines.
+    private List<List<String>> runDeltaModes(Path inputDir, List<Consumer<ProDataProcessorProperties>> modes)
+            throws IOException {
+        List<List<String>> changelogs = new ArrayList<>();
+        for (int mode = 0; mode < modes.size(); mode++) {
+            Consumer<ProDataProcessorProperties> customizer = modes.get(mode);
+            Path outputDir = tempDir.resolve("output-delta-modes-" + mode);
+            runJob(inputDir, outputDir, properties -> {
+                properties.setDelta(true);
+                customizer.accept(properties);
+            });
+            Path changes = firstCsv(outputDir.resolve("delta"), "changes_");
+            changelogs.add(Files.readAllLines(changes));
+            Files.delete(changes);
+        }
+        return changelogs;
+    }
+
+    // Champion ids follow the order rows reached the dictionary, which parallel workers do not fix, so matrices
+    // are compared by champion name.
+    private static void assertSameMatrices(ChampionMatrices expected, ChampionMatrices actual) {
+        assertEquals(Set.copyOf(expected.champions()), Set.copyOf(actual.champions()));
+        assertEquals(expected.patches(), actual.patches());
+        for (String patch : expected.patches()) {
+            assertEquals(expected.games(patch), actual.games(patch));
+            for (String champion : expected.champions()) {
+                for (String other : expected.champions()) {
+                    assertEquals(expected.synergy(patch, champion, other), actual.synergy(patch, champion, other));
+                    assertEquals(expected.counter(patch, champion, other), actual.counter(patch, champion, other));
+                    assertEquals(
+                            expected.banAgainst(patch, champion, other), actual.banAgainst(patch, champion, other));
+                }
+            }
+        }
+    }
+
+    private String draftRow(String gameId, String participantId, String side, String teamId, String champion) {
+        List<String> values = new ArrayList<>(List.of(
+                gameId, "LCS", "Spring", "2025", "2025-01-01 10:00:00", "1", "13.1", participantId, side, teamId));
+        List<String> columns = ProDataColumns.OUTPUT_COLUMNS;
+        for (String column : columns.subList(values.size(), columns.size())) {
+            values.add(champion + "_" + column);
+        }
+        return String.join(",", values);
+    }
+
+    private String withExtraColumns(String csv, String result, String kills) {
+        List<String> lines = new ArrayList<>();
+        for (String line : csv.split(System.lineSeparator())) {
+            lines.add(line + (lines.isEmpty() ? ",result,kills" : "," + result + "," + kills));
+        }
+        return String.join(System.lineSeparator(), lines);
+    }
+
+    private ProDataProcessorProperties.Profile profile(
+            String name,
+            List<String> columns,
+            ProfileRows rows,
+            boolean dropIncompleteTeamRows
+    ) {
+        ProDataProcessorProperties.Profile profile = new ProDataProcessorProperties.Profile();
+        profile.setName(name);
+        profile.setColumns(columns);
+        profile.setRows(rows);
+        profile.setDropIncompleteTeamRows(dropIncompleteTeamRows);
+        return profile;
+    }
+
+    private long countEvents(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).count();
+    }
+
+    private void writeGzip(Path file, String content) throws IOException {
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
     private long countTempFiles(Path dir) throws IOException {
         try (var stream = Files.list(dir)) {
             return stream.filter(path -> path.getFileName().toString().startsWith("tmp_")).count();
@@ -0,0 +1,51 @@
+package com.jmirving.prodata.processor.job;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentBufferTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void spillsOnceTheBudgetIsExhaustedAndReleasesIt() throws IOException {
+        MemoryBudget budget = new MemoryBudget(128 * 1024);
+        SegmentBuffer first = new SegmentBuffer(budget, tempDir, "tmp_segment_");
+        SegmentBuffer second = new SegmentBuffer(budget, tempDir, "tmp_segment_");
+        byte[] bytes = new byte[100 * 1024];
+        Arrays.fill(bytes, (byte) 'a');
+
+        first.write(bytes, 0, bytes.length);
+        assertFalse(first.isSpilled());
+        assertEquals(128 * 1024, budget.reservedBytes());
+
+        second.write(bytes, 0, bytes.length);
+        assertTrue(second.isSpilled());
+        assertEquals(128 * 1024, budget.reservedBytes());
+        second.close();
+        ByteArrayOutputStream copied = new ByteArrayOutputStream();
+        second.copyTo(copied);
+        assertArrayEquals(bytes, copied.toByteArray());
+        assertEquals(bytes.length, second.size());
+
+        first.discard();
+        second.discard();
+        assertEquals(0, budget.reservedBytes());
+        assertEquals(128 * 1024, budget.peakBytes());
+        try (var stream = Files.list(tempDir)) {
+            assertEquals(0, stream.count());
+        }
+    }
+}
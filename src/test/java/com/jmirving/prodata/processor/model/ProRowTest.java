@@ -0,0 +1,49 @@
+package com.jmirving.prodata.processor.model;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
+import com.jmirving.prodata.processor.validate.ProjectionPlan;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProRowTest {
+
+    @Test
+    void parsesNumericFieldsOnceFromProjectedValues() throws IOException {
+        ProjectionPlan plan = new CsvHeaderValidator()
+                .validate(String.join(",", ProDataColumns.OUTPUT_COLUMNS))
+                .projection();
+        ProRow row = new ProRow(plan.width());
+        String[] values = row.values();
+        Arrays.fill(values, "");
+        values[plan.yearSlot()] = "2025";
+        values[plan.gameSlot()] = "3";
+        values[plan.participantSlot()] = "200";
+        values[plan.sideSlot()] = "red";
+
+        row.parseFields(plan);
+
+        assertEquals(2025, row.year());
+        assertEquals(3, row.game());
+        assertEquals(200, row.participantId());
+        assertEquals(Side.RED, row.side());
+        assertTrue(row.isTeam());
+        assertFalse(row.isPlayer());
+    }
+
+    @Test
+    void treatsNonNumericValuesAsMissing() {
+        assertEquals(ProRow.MISSING, ProRow.parseInt(""));
+        assertEquals(ProRow.MISSING, ProRow.parseInt("100.0"));
+        assertEquals(ProRow.MISSING, ProRow.parseInt("-"));
+        assertEquals(ProRow.MISSING, ProRow.parseInt("99999999999"));
+        assertEquals(-7, ProRow.parseInt("-7"));
+        assertEquals(7, ProRow.parseInt("+007"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.jmirving.prodata.processor.read;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChunkedCsvRowReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reassemblesChunksInFileOrder() throws IOException {
+        Path inputFile = tempDir.resolve("chunked.csv");
+        Files.writeString(inputFile, buildCsv(200));
+
+        List<List<String>> expected = readAll(CommonsCsvRowReader.open(inputFile, new CsvHeaderValidator()));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long chunkBytes : new long[] {1, 7, 64, 4096}) {
+                ChunkedCsvRowReader reader =
+                        ChunkedCsvRowReader.open(inputFile, new CsvHeaderValidator(), null, pool, chunkBytes);
+                assertEquals(expected, readAll(reader), "chunkBytes=" + chunkBytes);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(200, expected.size());
+    }
+
+    @Test
+    void neverSplitsInsideQuotedNewline() throws IOException {
+        Path inputFile = tempDir.resolve("boundary.csv");
+        String header = String.join(",", ProDataColumns.OUTPUT_COLUMNS) + "\n";
+        String first = "\"a\nb,\"\"c\",x\n";
+        Files.writeString(inputFile, header + first + "second\n");
+
+        ForkJoinPool pool = new ForkJoinPool(1);
+        try (ChunkedCsvRowReader reader =
+                     ChunkedCsvRowReader.open(inputFile, new CsvHeaderValidator(), null, pool, 1)) {
+            long start = header.length();
+            assertEquals(start + first.length(), reader.nextRecordBoundary(start, start + 1));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<List<String>> readAll(ProjectedRowReader reader) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (reader) {
+            ProRow row = new ProRow(reader.plan().width());
+            while (reader.next(row)) {
+                rows.add(Arrays.asList(row.values().clone()));
+            }
+        }
+        return rows;
+    }
+
+    private String buildCsv(int rows) {
+        StringBuilder csv = new StringBuilder("url,").append(String.join(",", ProDataColumns.OUTPUT_COLUMNS))
+                .append(",notes\r\n");
+        for (int i = 0; i < rows; i++) {
+            String note = i % 3 == 0 ? "\"line one\r\nline \"\"two\"\", end\"" : "plain";
+            csv.append("u").append(i).append(",G").append(i).append(",LCK,Spring,2025,2025-01-01,1,15.1,")
+                    .append(i % 12 == 0 ? 100 : i % 10 + 1)
+                    .append(",Blue,t1,b1,b2,b3,b4,b5,\"p,1\",p2,p3,p4,p5,")
+                    .append(note)
+                    .append(i % 5 == 0 ? "\n" : "\r\n");
+        }
+        return csv.toString();
+    }
+}
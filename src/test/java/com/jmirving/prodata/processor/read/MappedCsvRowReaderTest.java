@@ -0,0 +1,185 @@
+package com.jmirving.prodata.processor.read;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.config.ProDataProcessorProperties;
+import com.jmirving.prodata.processor.filter.RowFilter;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.model.RunDictionaries;
+import com.jmirving.prodata.processor.model.RunDictionaries.Domain;
+import com.jmirving.prodata.processor.validate.CsvHeaderValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedCsvRowReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void matchesCommonsCsvProjection() throws IOException {
+        Path inputFile = tempDir.resolve("tricky.csv");
+        Files.writeString(inputFile, buildTrickyCsv(), StandardCharsets.UTF_8);
+
+        List<List<String>> expected = readAll(CommonsCsvRowReader.open(inputFile, new CsvHeaderValidator()));
+        List<List<String>> mapped = readAll(MappedCsvRowReader.open(inputFile, new CsvHeaderValidator()));
+        List<List<String>> smallWindows =
+                readAll(MappedCsvRowReader.open(inputFile, new CsvHeaderValidator(), null, null, 512));
+
+        assertEquals(6, expected.size());
+        assertEquals(expected, mapped);
+        assertEquals(expected, smallWindows);
+    }
+
+    @Test
+    void encodesDictionaryColumnsToSharedInstances() throws IOException {
+        Path inputFile = tempDir.resolve("encoded.csv");
+        Files.writeString(inputFile, buildTrickyCsv(), StandardCharsets.UTF_8);
+        RunDictionaries dictionaries = new RunDictionaries();
+
+        List<ProRow> rows = new ArrayList<>();
+        try (MappedCsvRowReader reader = MappedCsvRowReader.open(inputFile, new CsvHeaderValidator(), dictionaries)) {
+            ProRow row = new ProRow(reader.plan().width());
+            while (reader.next(row)) {
+                rows.add(row);
+                row = new ProRow(reader.plan().width());
+            }
+        }
+        List<List<String>> plain = readAll(MappedCsvRowReader.open(inputFile, new CsvHeaderValidator()));
+        List<List<String>> commons =
+                readAll(CommonsCsvRowReader.open(inputFile, new CsvHeaderValidator(), new RunDictionaries()));
+
+        int sideSlot = ProDataColumns.OUTPUT_INDEX.get("side");
+        int banSlot = ProDataColumns.OUTPUT_INDEX.get("ban5");
+        assertEquals(plain, commons);
+        assertEquals(plain.get(0), Arrays.asList(rows.get(0).values()));
+        assertSame(rows.get(1).value(sideSlot), rows.get(2).value(sideSlot));
+        assertEquals(rows.get(1).id(sideSlot), rows.get(2).id(sideSlot));
+        assertEquals(ProRow.NO_ID, rows.get(1).id(banSlot));
+        assertEquals("Brand\"s", dictionaries.get(Domain.CHAMPION).value(rows.get(0).id(banSlot)));
+        assertEquals(List.of("Blue", "Red"), dictionaries.get(Domain.SIDE).values());
+    }
+
+    @Test
+    void smallWindowsInternOnlyWholeValues() throws IOException {
+        Path inputFile = tempDir.resolve("windows.csv");
+        List<String> lines = new ArrayList<>();
+        lines.add(header());
+        for (int i = 0; i < 40; i++) {
+            lines.add("http://x," + i + ",League" + i + ",Split" + i + ",2025,2025-01-05 10:00:00,1,15." + i
+                    + ",100,Blue,t1,Champion" + i + ",B2,B3,B4,B5,Pick" + i + ",P2,P3,P4,P5,3,4");
+        }
+        Files.write(inputFile, lines);
+        RunDictionaries whole = new RunDictionaries();
+        RunDictionaries windowed = new RunDictionaries();
+
+        List<List<String>> expected =
+                readAll(MappedCsvRowReader.open(inputFile, new CsvHeaderValidator(), whole));
+        List<List<String>> smallWindows =
+                readAll(MappedCsvRowReader.open(inputFile, new CsvHeaderValidator(), windowed, null, 256));
+
+        assertEquals(expected, smallWindows);
+        for (Domain domain : Domain.values()) {
+            assertEquals(whole.get(domain).values(), windowed.get(domain).values());
+        }
+        assertEquals(40, windowed.get(Domain.LEAGUE).size());
+    }
+
+    @Test
+    void failsOnUnterminatedQuote() throws IOException {
+        Path inputFile = tempDir.resolve("unterminated.csv");
+        Files.writeString(inputFile, header() + "\n\"1,LCS\n");
+
+        try (MappedCsvRowReader reader = MappedCsvRowReader.open(inputFile, new CsvHeaderValidator())) {
+            assertThrows(IOException.class, () -> reader.next(new ProRow(reader.plan().width())));
+        }
+    }
+
+    @Test
+    void skipsFilteredRowsAndCountsThem() throws IOException {
+        Path inputFile = tempDir.resolve("filtered.csv");
+        Files.writeString(inputFile, String.join("\n",
+                header(),
+                filterRow("G1", "LCK", "2025-01-05 10:00:00", "15.1"),
+                filterRow("G2", "LEC", "2025-01-05 10:00:00", "15.1"),
+                filterRow("G3", "LCK", "\"2024-12-31 23:00:00\"", "15.1"),
+                filterRow("G4", "LCS", "2025-02-01 10:00:00", "15.10"),
+                filterRow("G5", "LCK", "2025-02-01 10:00:00", "16.1"),
+                filterRow("G6", "LCK", "", "15.2"),
+                filterRow("G7", "LTA", "Winter", "2024-11-02 10:00:00", "15.1")
+        ));
+        ProDataProcessorProperties properties = new ProDataProcessorProperties();
+        properties.setIncludeLeagues(List.of("LCK", "LCS", "LTA"));
+        properties.setMinDate("2025-01");
+        properties.setMaxPatch("15.10");
+        RowFilter filter = RowFilter.from(properties);
+        RunDictionaries dictionaries = new RunDictionaries();
+
+        ProjectedRowReader commons = CommonsCsvRowReader.open(
+                Files.newBufferedReader(inputFile), new CsvHeaderValidator(), null, filter);
+        ProjectedRowReader mapped =
+                MappedCsvRowReader.open(inputFile, new CsvHeaderValidator(), dictionaries, filter);
+        ProjectedRowReader smallWindows =
+                MappedCsvRowReader.open(inputFile, new CsvHeaderValidator(), null, filter, 256);
+
+        List<List<String>> expected = readAll(commons);
+        assertEquals(List.of("G1", "G4"), expected.stream().map(row -> row.get(0)).toList());
+        assertEquals(5, commons.filteredRows());
+        assertEquals(expected, readAll(mapped));
+        assertEquals(5, mapped.filteredRows());
+        assertEquals(List.of("LCK", "LCS"), dictionaries.get(Domain.LEAGUE).values());
+        assertEquals(List.of("15.1", "15.10"), dictionaries.get(Domain.PATCH).values());
+        assertEquals(List.of("Spring"), dictionaries.get(Domain.SPLIT).values());
+        assertEquals(expected, readAll(smallWindows));
+        assertEquals(5, smallWindows.filteredRows());
+    }
+
+    private List<List<String>> readAll(ProjectedRowReader reader) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (reader) {
+            ProRow row = new ProRow(reader.plan().width());
+            while (reader.next(row)) {
+                rows.add(Arrays.asList(row.values().clone()));
+            }
+        }
+        return rows;
+    }
+
+    private String header() {
+        return "url," + String.join(",", ProDataColumns.OUTPUT_COLUMNS) + ",kills,deaths";
+    }
+
+    private String filterRow(String gameId, String league, String date, String patch) {
+        return filterRow(gameId, league, "Spring", date, patch);
+    }
+
+    private String filterRow(String gameId, String league, String split, String date, String patch) {
+        return "http://x," + gameId + "," + league + "," + split + ",2025," + date + ",1," + patch
+                + ",100,Blue,t1,B1,B2,B3,B4,B5,P1,P2,P3,P4,P5,3,4";
+    }
+
+    private String buildTrickyCsv() {
+        String trailing = ",3,4";
+        return "\uFEFF" + header() + "\r\n"
+                + "http://x,\"ESPORTSTMNT01_1\",LCK,Spring,2025,2025-01-01 10:00:00,1,15.1,100,Blue,t1,"
+                + "Aatrox,\"Ahri, the Fox\",\" Ashe \",Bard,\"Brand\"\"s\",Caitlyn,Darius,Ekko,Fiora,Garen"
+                + trailing + "\r\n"
+                + "\r\n"
+                + "\"multi\nline\",2,LPL,Summer,2025,2025-02-01,2,15.2,1,Red,t2,,,,,,,,,," + trailing + "\n"
+                + "x,3,LEC,Winter,2025,2025-03-01,1,15.3,200,Red,t3,a,b,c,d,e,f,g,h,i,j\r"
+                + "x,4,LCS\n"
+                + "x,\"5\"  ,LTA,,2025,2025-04-01,1, 15.4 ,2,Blue,t4,,,,,,,,,,,\"q\"\"uoted\",\n"
+                + "x,6,CBLOL,Split 1,2025,2025-05-01,1,15.5,3,Blue,t5,,,,,,,,,,";
+    }
+}
@@ -0,0 +1,198 @@
+package com.jmirving.prodata.processor.sort;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jmirving.prodata.processor.ProDataColumns;
+import com.jmirving.prodata.processor.model.ProRow;
+import com.jmirving.prodata.processor.write.RowWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExternalRowSorterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void spilledMergeMatchesInMemorySort() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            int day = (i * 37) % 9 + 1;
+            lines.add(row("g" + (i * 13) % 7, "2025-01-0" + day + " 10:00:00", String.valueOf((i * 7) % 12 + 1), i));
+        }
+
+        Path spillDir = Files.createDirectories(tempDir.resolve("spill"));
+        ExternalRowSorter inMemory = new ExternalRowSorter(spillDir, 1L << 30);
+        List<List<String>> expected = sort(inMemory, lines);
+        ExternalRowSorter spilling = new ExternalRowSorter(spillDir, 4_000);
+        List<List<String>> merged = sort(spilling, lines);
+
+        assertEquals(0, inMemory.spilledRuns());
+        assertTrue(spilling.spilledRuns() > 5);
+        assertEquals(200, merged.size());
+        assertEquals(expected, merged);
+        assertSorted(merged);
+        try (var stream = Files.list(spillDir)) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    @Test
+    void mergesMoreRunsThanOnePassOpens() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 3 * ExternalRowSorter.MAX_MERGE_RUNS + 5; i++) {
+            int day = (i * 37) % 9 + 1;
+            lines.add(row("g" + (i * 13) % 7, "2025-01-0" + day + " 10:00:00", String.valueOf((i * 7) % 12 + 1), i));
+        }
+
+        Path spillDir = Files.createDirectories(tempDir.resolve("spill-passes"));
+        List<List<String>> expected = sort(new ExternalRowSorter(spillDir, 1L << 30), lines);
+        ExternalRowSorter first = new ExternalRowSorter(spillDir, 1);
+        ExternalRowSorter second = new ExternalRowSorter(spillDir, 1);
+        int half = lines.size() / 2;
+        for (int i = 0; i < lines.size(); i++) {
+            (i < half ? first : second).add(lines.get(i).split(",", -1));
+        }
+        List<List<String>> merged = new ArrayList<>();
+        long rows = ExternalRowSorter.merge(List.of(first, second), collector(merged));
+
+        assertEquals(lines.size(), rows);
+        assertTrue(first.spilledRuns() + second.spilledRuns() > 2 * ExternalRowSorter.MAX_MERGE_RUNS);
+        assertEquals(expected, merged);
+        assertSorted(merged);
+        try (var stream = Files.list(spillDir)) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    @Test
+    void groupsStreamedRowsByGameKeepingArrivalOrder() throws IOException {
+        Path spillDir = Files.createDirectories(tempDir.resolve("spill-games"));
+        ExternalRowSorter sorter = ExternalRowSorter.byGameId(spillDir, 2);
+        for (int i = 0; i < 12; i++) {
+            sorter.add(row("g" + (i * 5) % 3, "2025-01-01 10:00:00", "100", i).split(",", -1));
+        }
+        List<String> order = new ArrayList<>();
+        int game = ProDataColumns.OUTPUT_INDEX.get("gameid");
+        int sequence = ProDataColumns.OUTPUT_INDEX.get("teamid");
+        sorter.finish(new RowWriter() {
+            @Override
+            public void write(ProRow row) {
+                order.add(row.value(game) + ":" + row.value(sequence));
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        assertEquals(6, sorter.spilledRuns());
+        assertEquals(List.of(
+                "g0:0", "g0:3", "g0:6", "g0:9",
+                "g1:2", "g1:5", "g1:8", "g1:11",
+                "g2:1", "g2:4", "g2:7", "g2:10"
+        ), order);
+        try (var stream = Files.list(spillDir)) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    @Test
+    void mergesSortersKeepingTiesInSorterOrder() throws IOException {
+        Path spillDir = Files.createDirectories(tempDir.resolve("spill-merge"));
+        ExternalRowSorter first = new ExternalRowSorter(spillDir, 1);
+        ExternalRowSorter second = new ExternalRowSorter(spillDir, 1L << 30);
+        for (int i = 0; i < 6; i++) {
+            String date = "2025-01-0" + (i % 2 + 1) + " 10:00:00";
+            first.add(row("g1", date, "100", i).split(",", -1));
+            second.add(row("g1", date, "100", 10 + i).split(",", -1));
+        }
+        List<String> order = new ArrayList<>();
+        int sequence = ProDataColumns.OUTPUT_INDEX.get("teamid");
+        long rows = ExternalRowSorter.merge(List.of(first, second), new RowWriter() {
+            @Override
+            public void write(ProRow row) {
+                order.add(row.value(sequence));
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+
+        assertEquals(12, rows);
+        assertEquals(6, first.spilledRuns());
+        assertEquals(List.of("0", "2", "4", "10", "12", "14", "1", "3", "5", "11", "13", "15"), order);
+        try (var stream = Files.list(spillDir)) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    private List<List<String>> sort(ExternalRowSorter sorter, List<String> lines) throws IOException {
+        for (String line : lines) {
+            sorter.add(line.split(",", -1));
+        }
+        List<List<String>> rows = new ArrayList<>();
+        assertEquals(lines.size(), sorter.finish(collector(rows)));
+        return rows;
+    }
+
+    private RowWriter collector(List<List<String>> rows) {
+        return new RowWriter() {
+            @Override
+            public void write(ProRow row) {
+                rows.add(Arrays.asList(row.values().clone()));
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private void assertSorted(List<List<String>> rows) {
+        int date = ProDataColumns.OUTPUT_INDEX.get("date");
+        int game = ProDataColumns.OUTPUT_INDEX.get("gameid");
+        int participant = ProDataColumns.OUTPUT_INDEX.get("participantid");
+        int sequence = ProDataColumns.OUTPUT_INDEX.get("teamid");
+        for (int i = 1; i < rows.size(); i++) {
+            List<String> previous = rows.get(i - 1);
+            List<String> current = rows.get(i);
+            int order = previous.get(date).compareTo(current.get(date));
+            if (order == 0) {
+                order = previous.get(game).compareTo(current.get(game));
+            }
+            if (order == 0) {
+                order = Integer.compare(
+                        Integer.parseInt(previous.get(participant)), Integer.parseInt(current.get(participant)));
+            }
+            if (order == 0) {
+                order = Integer.compare(
+                        Integer.parseInt(previous.get(sequence)), Integer.parseInt(current.get(sequence)));
+            }
+            assertTrue(order < 0, "Out of order at " + i);
+        }
+    }
+
+    private String row(String gameId, String date, String participantId, int sequence) {
+        List<String> values = new ArrayList<>();
+        for (String column : ProDataColumns.OUTPUT_COLUMNS) {
+            values.add(switch (column) {
+                case "gameid" -> gameId;
+                case "date" -> date;
+                case "participantid" -> participantId;
+                case "teamid" -> String.valueOf(sequence);
+                default -> column;
+            });
+        }
+        return String.join(",", values);
+    }
+}
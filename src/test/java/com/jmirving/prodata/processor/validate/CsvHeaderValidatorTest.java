@@ -1,14 +1,26 @@
 package com.jmirving.prodata.processor.validate;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
+import com.jmirving.prodata.processor.ProDataColumns;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class CsvHeaderValidatorTest {
 
+    @TempDir
+    Path tempDir;
+
     @Test
     void validatesRequiredColumnsIgnoringCase() throws IOException {
         CsvHeaderValidator validator = new CsvHeaderValidator();
@@ -35,4 +47,46 @@ class CsvHeaderValidatorTest {
 
         assertDoesNotThrow(() -> validator.validate(header));
     }
+
+    @Test
+    void compilesProjectionPlanAgainstSourceOrder() throws IOException {
+        CsvHeaderValidator validator = new CsvHeaderValidator();
+        String header = "extra,PICK5,pick4,pick3,pick2,pick1,ban5,ban4,ban3,ban2,ban1,teamid,side," +
+                "participantid,patch,game,date,year,split,league,gameid";
+
+        ProjectionPlan plan = validator.validate(header).projection();
+
+        assertEquals(ProDataColumns.OUTPUT_COLUMNS.size(), plan.width());
+        assertEquals(20, plan.sourceIndex(ProDataColumns.OUTPUT_INDEX.get("gameid")));
+        assertEquals(1, plan.sourceIndex(ProDataColumns.OUTPUT_INDEX.get("pick5")));
+        assertEquals(7, plan.participantSlot());
+        assertEquals(ProDataColumns.PICK_COLUMNS.size(), plan.pickSlotCount());
+        assertEquals(15, plan.pickSlot(0));
+    }
+
+    @Test
+    void projectsAndRequiresExtraColumnsAfterOutputColumns() throws IOException {
+        CsvHeaderValidator validator = new CsvHeaderValidator().withExtraColumns(List.of(" Kills", "gameid", "result"));
+        String header = String.join(",", ProDataColumns.OUTPUT_COLUMNS);
+
+        assertEquals(List.of("kills", "result"), validator.extraColumns());
+        assertThrows(CsvValidationException.class, () -> validator.validate(header));
+
+        ProjectionPlan plan = validator.validate("result,kills," + header).projection();
+        assertEquals(ProDataColumns.OUTPUT_COLUMNS.size() + 2, plan.width());
+        assertEquals("kills", plan.column(ProDataColumns.OUTPUT_COLUMNS.size()));
+        assertEquals(1, plan.sourceIndex(ProDataColumns.OUTPUT_COLUMNS.size()));
+        assertEquals(0, plan.sourceIndex(ProDataColumns.OUTPUT_COLUMNS.size() + 1));
+    }
+
+    @Test
+    void validatesGzipCompressedFile() throws IOException {
+        Path file = tempDir.resolve("2025_LoL_esports_match_data_from_OraclesElixir.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write((String.join(",", ProDataColumns.OUTPUT_COLUMNS) + "\r\n1,LCK\r\n")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(0, new CsvHeaderValidator().validate(file).projection().sourceIndex(0));
+    }
 }
@@ -0,0 +1,73 @@
+package com.jmirving.prodata.processor.write;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jmirving.prodata.processor.model.ProRow;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncRowWriterTest {
+
+    @Test
+    void preservesRowOrderAcrossBatches() throws IOException {
+        RecordingWriter recording = new RecordingWriter(Integer.MAX_VALUE);
+        try (AsyncRowWriter writer = new AsyncRowWriter(recording, "test", 3, 1)) {
+            ProRow row = new ProRow(1);
+            for (int i = 0; i < 100; i++) {
+                row.values()[0] = Integer.toString(i);
+                writer.write(row);
+            }
+        }
+
+        assertEquals(100, recording.values.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.toString(i), recording.values.get(i));
+        }
+        assertTrue(recording.closed);
+    }
+
+    @Test
+    void surfacesWriterFailureWithoutBlockingProducer() {
+        RecordingWriter failing = new RecordingWriter(5);
+        IOException failure = assertThrows(IOException.class, () -> {
+            try (AsyncRowWriter writer = new AsyncRowWriter(failing, "test", 2, 1)) {
+                ProRow row = new ProRow(1);
+                row.values()[0] = "x";
+                for (int i = 0; i < 10_000; i++) {
+                    writer.write(row);
+                }
+            }
+        });
+
+        assertTrue(failure.getMessage().contains("disk full"));
+        assertTrue(failing.closed);
+    }
+
+    private static final class RecordingWriter implements RowWriter {
+        private final int failAfter;
+        private final List<String> values = new ArrayList<>();
+        private boolean closed;
+
+        RecordingWriter(int failAfter) {
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public void write(ProRow row) throws IOException {
+            if (values.size() == failAfter) {
+                throw new IOException("disk full");
+            }
+            values.add(row.value(0));
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
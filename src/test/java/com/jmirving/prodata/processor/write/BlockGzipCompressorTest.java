@@ -0,0 +1,99 @@
+package com.jmirving.prodata.processor.write;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BlockGzipCompressorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void writesIndependentlyReadableBlocksAlongRecordBoundaries() throws IOException {
+        String csv = "gameid,pick1\r\n"
+                + "1,Ahri\r\n"
+                + "2,\"multi\r\nline \"\"quoted\"\"\"\r\n"
+                + "3,Zed\r\n"
+                + "4,Lux\r\n"
+                + "5,\"a,b\"";
+        Path input = tempDir.resolve("all.csv");
+        Path target = tempDir.resolve("all.csv.gz");
+        Path index = tempDir.resolve("all.csv.gz.idx");
+        Files.writeString(input, csv);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            new BlockGzipCompressor(pool, 2, 2).compress(input, target, index);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        byte[] compressed = Files.readAllBytes(target);
+        assertEquals(csv, inflate(new ByteArrayInputStream(compressed)));
+
+        List<String> entries = Files.readAllLines(index);
+        assertEquals(String.join(",", BlockGzipCompressor.INDEX_HEADER), entries.get(0));
+        assertEquals(List.of("0,0,0", "1,0,2", "2,2,2", "3,4,1"),
+                entries.subList(1, entries.size()).stream()
+                        .map(entry -> String.join(",", Arrays.asList(entry.split(",")).subList(0, 3)))
+                        .toList());
+        String[] second = entries.get(3).split(",");
+        int offset = Integer.parseInt(second[3]);
+        int length = Integer.parseInt(second[4]);
+        assertEquals("3,Zed\r\n4,Lux\r\n", inflate(new ByteArrayInputStream(compressed, offset, length)));
+    }
+
+    @Test
+    void cutsTheSameBlocksFromBytesWrittenInPieces() throws IOException {
+        String csv = "gameid,pick1\r\n"
+                + "1,\"multi\r\nline\"\r\n"
+                + "2,Zed\r\n"
+                + "3,Lux\r\n";
+        Path input = tempDir.resolve("pieces.csv");
+        Files.writeString(input, csv);
+        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            BlockGzipCompressor compressor = new BlockGzipCompressor(pool, 1, 2);
+            compressor.compress(input, tempDir.resolve("whole.csv.gz"), tempDir.resolve("whole.csv.gz.idx"));
+            try (OutputStream out = compressor.open(tempDir.resolve("pieces.csv.gz"), tempDir.resolve("pieces.idx"))) {
+                for (int offset = 0; offset < bytes.length; offset += 3) {
+                    out.write(bytes, offset, Math.min(3, bytes.length - offset));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertArrayEquals(
+                Files.readAllBytes(tempDir.resolve("whole.csv.gz")),
+                Files.readAllBytes(tempDir.resolve("pieces.csv.gz")));
+        assertEquals(
+                Files.readAllLines(tempDir.resolve("whole.csv.gz.idx")),
+                Files.readAllLines(tempDir.resolve("pieces.idx")));
+        assertEquals(csv, inflate(Files.newInputStream(tempDir.resolve("pieces.csv.gz"))));
+    }
+
+    private String inflate(InputStream in) throws IOException {
+        try (InputStream gzip = new GZIPInputStream(in)) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.jmirving.prodata.processor.write;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.jmirving.prodata.processor.model.ProRow;
+import org.apache.commons.csv.CSVFormat;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class FastCsvRowWriterTest {
+    private static final List<String> HEADER = List.of("gameid", "league", "pick1");
+    private static final String[][] ROWS = {
+            {"ESPORTSTMNT01_1", "LCK", "Ahri"},
+            {"", "", ""},
+            {"#comment", " padded", "trailing "},
+            {"a,b", "say \"hi\"", "multi\nline"},
+            {"cr\rhere", "Zoë", "😀"},
+            {"!bang", "tab\t", "Kai'Sa"},
+            {"x".repeat(300), "Nunu & Willump", "0"}
+    };
+
+    @Test
+    void matchesCommonsCsvDefaultBytes() throws IOException {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        CSVFormat format = CSVFormat.DEFAULT.withHeader(HEADER.toArray(new String[0]));
+        try (RowWriter writer = new CsvPrinterRowWriter(
+                new OutputStreamWriter(expected, StandardCharsets.UTF_8), format)) {
+            writeRows(writer);
+        }
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        try (RowWriter writer = new FastCsvRowWriter(Channels.newChannel(actual), HEADER, 64)) {
+            writeRows(writer);
+        }
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    private void writeRows(RowWriter writer) throws IOException {
+        for (String[] values : ROWS) {
+            ProRow row = new ProRow(values.length);
+            System.arraycopy(values, 0, row.values(), 0, values.length);
+            writer.write(row);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.jmirving.prodata.processor.write;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.jmirving.prodata.processor.model.ProRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedRowWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void keepsRawLeagueWhileSanitisingTheDirectory() throws IOException {
+        List<String> columns = List.of("league", "date", "patch");
+        PartitionedRowWriter writer = new PartitionedRowWriter(
+                tempDir,
+                columns,
+                file -> FastCsvRowWriter.open(file, columns),
+                new AtomicInteger(),
+                100
+        );
+        ProRow row = new ProRow(columns.size());
+        for (String league : List.of("LCK CL", "LDL/Academy", "LCK CL")) {
+            row.values()[0] = league;
+            row.values()[1] = "2024-01-01";
+            row.values()[2] = "14.1";
+            writer.write(row);
+        }
+        writer.close();
+
+        List<PartitionedRowWriter.Partition> partitions = writer.partitions();
+        assertEquals(2, partitions.size());
+        PartitionedRowWriter.Partition spaced = partitions.stream()
+                .filter(partition -> partition.league().equals("LCK CL"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, spaced.rows());
+        assertTrue(spaced.path().startsWith("year=unknown/league=LCK_CL/"), spaced.path());
+        PartitionedRowWriter.Partition slashed = partitions.stream()
+                .filter(partition -> partition.league().equals("LDL/Academy"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(slashed.path().startsWith("year=unknown/league=LDL_Academy/"), slashed.path());
+        assertTrue(Files.isRegularFile(tempDir.resolve(slashed.path())));
+    }
+}